@@ -0,0 +1,93 @@
+package com.kata.bankAccount.benchmark;
+
+import com.kata.bankAccount.BankAccountApplication;
+import com.kata.bankAccount.util.ValidationUtils;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Shared setup for the JMH benchmarks: boots the application against a private in-memory H2
+ * database and seeds accounts with an arbitrary amount of history using set-based SQL.
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Starts the application without the web layer, on an H2 database private to this benchmark.
+     *
+     * @param databaseName the name of the in-memory database
+     * @param properties additional Spring properties (key=value)
+     * @return the running application context
+     */
+    public static ConfigurableApplicationContext startApplication(String databaseName, String... properties) {
+        return start(WebApplicationType.NONE, databaseName, properties);
+    }
+
+    /**
+     * Starts the application with its embedded web server on a random port, on an H2 database private to
+     * this run. The port is available as the local.server.port property of the environment.
+     *
+     * @param databaseName the name of the in-memory database
+     * @param properties additional Spring properties (key=value)
+     * @return the running application context
+     */
+    public static ConfigurableApplicationContext startWebApplication(String databaseName, String... properties) {
+        String[] webProperties = new String[properties.length + 1];
+        webProperties[0] = "server.port=0"; // Listed first so that an explicit server.port wins
+        System.arraycopy(properties, 0, webProperties, 1, properties.length);
+        return start(WebApplicationType.SERVLET, databaseName, webProperties);
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, String databaseName,
+                                                        String... properties) {
+        return new SpringApplicationBuilder(BankAccountApplication.class)
+                .web(type)
+                .properties("spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                        "spring.h2.console.enabled=false",
+                        "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+    }
+
+    /**
+     * Creates an account and fills its history with {@code historySize} deposits of 1.0,
+     * inserted in a single INSERT ... SELECT statement so that seeding a million rows stays fast.
+     *
+     * @param context the running application context
+     * @param openingBalance the balance of the account before its history, in major units
+     * @param historySize the number of operations to create
+     * @return the ID of the new account
+     */
+    public static Long seedAccountWithHistory(ConfigurableApplicationContext context, double openingBalance, int historySize) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        // Balances and amounts are stored in minor units
+        long openingMinorUnits = Math.round(openingBalance * ValidationUtils.MINOR_UNITS_PER_MAJOR);
+        long depositMinorUnits = ValidationUtils.MINOR_UNITS_PER_MAJOR;
+        long balance = openingMinorUnits + depositMinorUnits * historySize;
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO account (balance, version) VALUES (?, 0)", Statement.RETURN_GENERATED_KEYS);
+            statement.setLong(1, balance);
+            return statement;
+        }, keyHolder);
+        Long accountId = keyHolder.getKey().longValue();
+
+        jdbcTemplate.update("INSERT INTO operation (id, date, operation_type, amount, post_operation_balance, account_id) "
+                        + "SELECT NEXT VALUE FOR operation_seq, DATEADD('SECOND', X, TIMESTAMP '2020-01-01 00:00:00'), "
+                        + "'DEPOSIT', ?, ? + ? * X, ? "
+                        + "FROM SYSTEM_RANGE(1, ?)",
+                depositMinorUnits, openingMinorUnits, depositMinorUnits, accountId, historySize);
+        return accountId;
+    }
+}
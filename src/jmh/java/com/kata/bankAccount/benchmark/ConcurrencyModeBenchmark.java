@@ -0,0 +1,50 @@
+package com.kata.bankAccount.benchmark;
+
+import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of concurrent deposits on a single hot account, for each concurrency mode
+ * (guarded atomic updates, optimistic locking with retry, group commit).
+ * The retry and abort counters of the account are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(1)
+public class ConcurrencyModeBenchmark {
+
+    @Param({"ATOMIC", "OPTIMISTIC", "BATCHED"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private Long accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication("concurrencyMode" + mode,
+                "bankaccount.concurrency.mode=" + mode,
+                "bankaccount.concurrency.optimistic.max-retries=50");
+        accountService = context.getBean(AccountService.class);
+        accountId = BenchmarkFixtures.seedAccountWithHistory(context, 1000.0, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println(accountService.getAccountContention(accountId));
+        context.close();
+    }
+
+    @Benchmark
+    public AccountDTO depositOnHotAccount() {
+        return accountService.deposit(accountId, 1.0);
+    }
+}
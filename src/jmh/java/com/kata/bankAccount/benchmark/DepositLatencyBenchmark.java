@@ -0,0 +1,45 @@
+package com.kata.bankAccount.benchmark;
+
+import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regression benchmark for the deposit write path: the latency of a deposit must stay flat
+ * whatever the size of the account history, since the history is never loaded on writes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DepositLatencyBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int historySize;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private Long accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication("depositLatency" + historySize);
+        accountService = context.getBean(AccountService.class);
+        accountId = BenchmarkFixtures.seedAccountWithHistory(context, 1000.0, historySize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountDTO deposit() {
+        return accountService.deposit(accountId, 1.0);
+    }
+}
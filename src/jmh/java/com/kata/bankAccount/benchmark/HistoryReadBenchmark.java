@@ -0,0 +1,64 @@
+package com.kata.bankAccount.benchmark;
+
+import com.kata.bankAccount.dto.OperationDTO;
+import com.kata.bankAccount.repository.OperationRepository;
+import com.kata.bankAccount.service.OperationService;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full history read of one account: entities hydrated then mapped with ModelMapper (the former read path,
+ * which also initializes the lazy account proxy) against DTOs projected by the query with a single join.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HistoryReadBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int historySize;
+
+    private ConfigurableApplicationContext context;
+    private OperationService operationService;
+    private OperationRepository operationRepository;
+    private ModelMapper modelMapper;
+    private TransactionTemplate readOnlyTransactionTemplate;
+    private Long accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication("historyRead" + historySize);
+        operationService = context.getBean(OperationService.class);
+        operationRepository = context.getBean(OperationRepository.class);
+        modelMapper = new ModelMapper();
+        readOnlyTransactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransactionTemplate.setReadOnly(true);
+        accountId = BenchmarkFixtures.seedAccountWithHistory(context, 1000.0, historySize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OperationDTO> hydrated() {
+        return readOnlyTransactionTemplate.execute(status -> operationRepository.findByAccountId(accountId).stream()
+                .map(operation -> modelMapper.map(operation, OperationDTO.class))
+                .toList());
+    }
+
+    @Benchmark
+    public List<OperationDTO> projected() {
+        return operationService.getAllAccountOperations(accountId);
+    }
+}
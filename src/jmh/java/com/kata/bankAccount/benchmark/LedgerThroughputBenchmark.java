@@ -0,0 +1,72 @@
+package com.kata.bankAccount.benchmark;
+
+import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of deposits spread over many accounts with the in-memory ledger, for a growing number of shards.
+ * Throughput should scale with the number of shards up to the number of cores. With the journal, each deposit
+ * also waits for the group-committed force of its record, in a journal directory private to the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class LedgerThroughputBenchmark {
+
+    private static final int ACCOUNTS = 1024;
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    @Param({"false", "true"})
+    public boolean journal;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private Long[] accountIds;
+    private Path journalDirectory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        journalDirectory = Files.createTempDirectory("ledger-journal");
+        context = BenchmarkFixtures.startApplication("ledgerThroughput" + shards + journal,
+                "bankaccount.ledger.enabled=true",
+                "bankaccount.ledger.shards=" + shards,
+                "bankaccount.ledger.journal.enabled=" + journal,
+                "bankaccount.ledger.journal.directory=" + journalDirectory);
+        accountService = context.getBean(AccountService.class);
+        accountIds = new Long[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountIds[i] = BenchmarkFixtures.seedAccountWithHistory(context, 1000.0, 0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(journalDirectory);
+    }
+
+    @Benchmark
+    public AccountDTO deposit() {
+        return accountService.deposit(accountIds[ThreadLocalRandom.current().nextInt(ACCOUNTS)], 1.0);
+    }
+}
@@ -0,0 +1,225 @@
+package com.kata.bankAccount.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load harness. Starts the application with its web server on a private in-memory H2 database,
+ * replaces the accounts of import.sql with {@code load.accounts} seeded accounts, then runs {@code load.threads}
+ * workers that each send one request, wait for the response and send the next one, for the warmup then the
+ * measurement duration. Each request is a deposit, a withdrawal, a statement or a history read, picked with
+ * the configured read/write mix, on an account drawn from a Zipf distribution (hot accounts first).
+ *
+ * <p>Throughput and p50/p99/p999 latencies are printed per endpoint, and the full HDR latency histograms
+ * are written as .hgrm files (readable with the HdrHistogram plotter) in {@code load.output-dir}.
+ *
+ * <p>Settings are system properties: load.accounts (1000), load.history-size (10), load.threads (32),
+ * load.warmup-seconds (10), load.duration-seconds (60), load.read-ratio (0.5), load.skew (0.99),
+ * load.output-dir (target/load-test). Any other system property (e.g. bankaccount.concurrency.mode or
+ * spring.threads.virtual.enabled) is seen by the application as usual.
+ */
+public final class LoadGenerator {
+
+    private static final double OPENING_BALANCE = 1_000_000_000.0; // Large enough for withdrawals never to fail
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1) // Plain keep-alive connections, no h2c upgrade
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final List<Long> accountIds;
+    private final ZipfDistribution accountDistribution;
+    private final double readRatio;
+
+    private LoadGenerator(String baseUrl, List<Long> accountIds, double skew, double readRatio) {
+        this.baseUrl = baseUrl;
+        this.accountIds = accountIds;
+        this.accountDistribution = new ZipfDistribution(accountIds.size(), skew);
+        this.readRatio = readRatio;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int accounts = Integer.getInteger("load.accounts", 1000);
+        int historySize = Integer.getInteger("load.history-size", 10);
+        int threads = Integer.getInteger("load.threads", 32);
+        int warmupSeconds = Integer.getInteger("load.warmup-seconds", 10);
+        int durationSeconds = Integer.getInteger("load.duration-seconds", 60);
+        double readRatio = Double.parseDouble(System.getProperty("load.read-ratio", "0.5"));
+        double skew = Double.parseDouble(System.getProperty("load.skew", "0.99"));
+        Path outputDir = Path.of(System.getProperty("load.output-dir", "target/load-test"));
+
+        try (ConfigurableApplicationContext context = BenchmarkFixtures.startWebApplication("loadTest")) {
+            // Replace the demo accounts of import.sql with the seeded ones
+            context.getBean(JdbcTemplate.class).update("DELETE FROM account");
+            List<Long> accountIds = new ArrayList<>(accounts);
+            for (int i = 0; i < accounts; i++) {
+                accountIds.add(BenchmarkFixtures.seedAccountWithHistory(context, OPENING_BALANCE, historySize));
+            }
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            System.out.printf("Load test: %d accounts (history %d), %d threads, read ratio %.2f, skew %.2f, "
+                            + "warmup %ds, duration %ds, virtual threads %s%n",
+                    accounts, historySize, threads, readRatio, skew, warmupSeconds, durationSeconds,
+                    context.getEnvironment().getProperty("spring.threads.virtual.enabled", "false"));
+            LoadGenerator generator = new LoadGenerator(baseUrl, accountIds, skew, readRatio);
+            generator.run(threads, warmupSeconds, durationSeconds).report(durationSeconds, outputDir);
+        }
+    }
+
+    /**
+     *  method to run the closed-loop workers; only the requests sent after the warmup are recorded.
+     *
+     * @param threads the number of workers
+     * @param warmupSeconds the duration of the unrecorded warmup
+     * @param durationSeconds the duration of the measurement
+     * @return the recorded results
+     */
+    private Results run(int threads, int warmupSeconds, int durationSeconds) throws InterruptedException {
+        Results results = new Results();
+        long measureStart = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+        long end = measureStart + Duration.ofSeconds(durationSeconds).toNanos();
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    Endpoint endpoint = nextEndpoint();
+                    long start = System.nanoTime();
+                    boolean success = send(endpoint, accountIds.get(accountDistribution.next()));
+                    if (start >= measureStart) {
+                        results.record(endpoint, System.nanoTime() - start, success);
+                    }
+                }
+            }, "load-worker-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return results;
+    }
+
+    /**
+     *  method to pick the next endpoint: reads and writes are split evenly between their two endpoints.
+     *
+     * @return the endpoint of the next request
+     */
+    private Endpoint nextEndpoint() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < readRatio) {
+            return random.nextBoolean() ? Endpoint.STATEMENT : Endpoint.HISTORY;
+        }
+        return random.nextBoolean() ? Endpoint.DEPOSIT : Endpoint.WITHDRAW;
+    }
+
+    /**
+     *  method to send one request and wait for its response.
+     *
+     * @param endpoint the endpoint to call
+     * @param accountId the account ID
+     * @return true if the response status is 2xx
+     */
+    private boolean send(Endpoint endpoint, Long accountId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path(accountId)))
+                .timeout(Duration.ofSeconds(30));
+        if (endpoint.write) {
+            request.POST(HttpRequest.BodyPublishers.noBody());
+        }
+        try {
+            HttpResponse<Void> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() / 100 == 2;
+        } catch (IOException ex) {
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private enum Endpoint {
+        DEPOSIT("/api/accounts/%d/deposit?amount=1.0", true),
+        WITHDRAW("/api/accounts/%d/withdraw?amount=1.0", true),
+        STATEMENT("/api/accounts/%d/statement", false),
+        HISTORY("/api/operations/%d/history", false);
+
+        private final String pathFormat;
+        private final boolean write;
+
+        Endpoint(String pathFormat, boolean write) {
+            this.pathFormat = pathFormat;
+            this.write = write;
+        }
+
+        private String path(Long accountId) {
+            return String.format(pathFormat, accountId);
+        }
+    }
+
+    // Latencies (in nanoseconds) and error counts per endpoint, recorded concurrently by the workers
+    private static final class Results {
+        private final ConcurrentHistogram[] latencies = new ConcurrentHistogram[Endpoint.values().length];
+        private final LongAdder[] errors = new LongAdder[Endpoint.values().length];
+
+        private Results() {
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new ConcurrentHistogram(3); // Auto-resizing, 3 significant digits
+                errors[i] = new LongAdder();
+            }
+        }
+
+        private void record(Endpoint endpoint, long latencyNanos, boolean success) {
+            latencies[endpoint.ordinal()].recordValue(latencyNanos);
+            if (!success) {
+                errors[endpoint.ordinal()].increment();
+            }
+        }
+
+        private void report(int durationSeconds, Path outputDir) throws IOException {
+            Files.createDirectories(outputDir);
+            Histogram total = new Histogram(3);
+            long totalErrors = 0;
+            System.out.printf("%-10s %12s %10s %10s %10s %10s %10s %8s%n",
+                    "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors");
+            for (Endpoint endpoint : Endpoint.values()) {
+                Histogram histogram = latencies[endpoint.ordinal()];
+                long endpointErrors = errors[endpoint.ordinal()].sum();
+                print(endpoint.name(), histogram, endpointErrors, durationSeconds);
+                write(histogram, outputDir.resolve(endpoint.name().toLowerCase() + ".hgrm"));
+                total.add(histogram);
+                totalErrors += endpointErrors;
+            }
+            print("TOTAL", total, totalErrors, durationSeconds);
+            write(total, outputDir.resolve("total.hgrm"));
+            System.out.println("HDR histograms written to " + outputDir.toAbsolutePath());
+        }
+
+        private static void print(String name, Histogram histogram, long errors, int durationSeconds) {
+            System.out.printf("%-10s %12d %10.1f %10.3f %10.3f %10.3f %10.3f %8d%n",
+                    name, histogram.getTotalCount(), (double) histogram.getTotalCount() / durationSeconds,
+                    histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+                    histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMaxValue() / 1e6, errors);
+        }
+
+        private static void write(Histogram histogram, Path file) throws IOException {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                histogram.outputPercentileDistribution(out, 1e6); // Values in milliseconds
+            }
+        }
+    }
+}
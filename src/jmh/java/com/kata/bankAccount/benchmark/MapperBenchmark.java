@@ -0,0 +1,69 @@
+package com.kata.bankAccount.benchmark;
+
+import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.dto.OperationDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.mapper.AccountMapper;
+import com.kata.bankAccount.mapper.OperationMapper;
+import com.kata.bankAccount.model.Account;
+import com.kata.bankAccount.model.Operation;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the entity to DTO mapping: reflective ModelMapper against the hand-written mappers.
+ * Run with the GC profiler (the default of the benchmark profile) to compare the bytes allocated per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private ModelMapper modelMapper;
+    private AccountMapper accountMapper;
+    private OperationMapper operationMapper;
+    private Account account;
+    private Operation operation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        accountMapper = new AccountMapper();
+        operationMapper = new OperationMapper(accountMapper);
+        account = Account.builder().id(1L).balance(100_000L).build();
+        operation = Operation.builder()
+                .id(1L)
+                .date(LocalDateTime.now())
+                .operationType(OperationType.DEPOSIT)
+                .amount(10_000L)
+                .PostOperationBalance(100_000L)
+                .account(account)
+                .build();
+    }
+
+    @Benchmark
+    public AccountDTO accountWithModelMapper() {
+        return modelMapper.map(account, AccountDTO.class);
+    }
+
+    @Benchmark
+    public AccountDTO accountWithMapper() {
+        return accountMapper.toDto(account);
+    }
+
+    @Benchmark
+    public OperationDTO operationWithModelMapper() {
+        return modelMapper.map(operation, OperationDTO.class);
+    }
+
+    @Benchmark
+    public OperationDTO operationWithMapper() {
+        return operationMapper.toDto(operation);
+    }
+}
@@ -0,0 +1,65 @@
+package com.kata.bankAccount.benchmark;
+
+import com.kata.bankAccount.enums.OperationType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-batch cost of applying a run of deposits and withdrawals to a balance, the inner loop of the group commit
+ * and of the batch endpoint: the former boxed Double representation against the primitive long minor units.
+ * Run with the GC profiler (the default of the benchmark profile) to compare the bytes allocated per batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+
+    @Param({"256"})
+    public int batchSize;
+
+    private OperationType[] types;
+    private Double[] boxedAmounts;
+    private long[] minorAmounts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        types = new OperationType[batchSize];
+        boxedAmounts = new Double[batchSize];
+        minorAmounts = new long[batchSize];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < batchSize; i++) {
+            types[i] = random.nextBoolean() ? OperationType.DEPOSIT : OperationType.WITHDRAWAL;
+            minorAmounts[i] = random.nextLong(1, 100_000);
+            boxedAmounts[i] = minorAmounts[i] / 100.0;
+        }
+    }
+
+    @Benchmark
+    public Double boxedDoubleBalance() {
+        Double balance = 1_000_000.0;
+        for (int i = 0; i < batchSize; i++) {
+            if (types[i] == OperationType.WITHDRAWAL && balance < boxedAmounts[i]) {
+                continue;
+            }
+            balance = types[i] == OperationType.DEPOSIT ? balance + boxedAmounts[i] : balance - boxedAmounts[i];
+        }
+        return balance;
+    }
+
+    @Benchmark
+    public long primitiveMinorUnitBalance() {
+        long balance = 100_000_000L;
+        for (int i = 0; i < batchSize; i++) {
+            if (types[i] == OperationType.WITHDRAWAL && balance < minorAmounts[i]) {
+                continue;
+            }
+            balance = types[i] == OperationType.DEPOSIT ? balance + minorAmounts[i] : balance - minorAmounts[i];
+        }
+        return balance;
+    }
+}
@@ -0,0 +1,106 @@
+package com.kata.bankAccount.benchmark;
+
+import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.dto.OperationDTO;
+import com.kata.bankAccount.service.AccountService;
+import com.kata.bankAccount.service.OperationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regression suite of the service layer against the embedded H2 database: deposits, withdrawals,
+ * account statements and full history reads, over a pool of accounts.
+ * Each operation targets an account drawn from a Zipf distribution: a skew of 0 spreads the load uniformly,
+ * higher skews concentrate it (and the row lock contention) on the first accounts.
+ * Thread counts cannot be a JMH parameter, so every suite is declared single-threaded and with 16 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceLayerBenchmark {
+
+    private static final int ACCOUNTS = 64;
+
+    @Param({"10", "10000"})
+    public int historySize;
+
+    @Param({"0.0", "0.99", "2.0"})
+    public double skew;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private OperationService operationService;
+    private Long[] accountIds;
+    private ZipfDistribution accountDistribution;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication("serviceLayer" + historySize + "_" + skew);
+        accountService = context.getBean(AccountService.class);
+        operationService = context.getBean(OperationService.class);
+        accountIds = new Long[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountIds[i] = BenchmarkFixtures.seedAccountWithHistory(context, 1_000_000_000.0, historySize);
+        }
+        accountDistribution = new ZipfDistribution(ACCOUNTS, skew);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountDTO deposit() {
+        return accountService.deposit(nextAccountId(), 1.0);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public AccountDTO depositConcurrent() {
+        return deposit();
+    }
+
+    @Benchmark
+    public AccountDTO withdraw() {
+        return accountService.withdraw(nextAccountId(), 1.0);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public AccountDTO withdrawConcurrent() {
+        return withdraw();
+    }
+
+    @Benchmark
+    public AccountDTO getAccountStatement() {
+        return accountService.getAccountStatement(nextAccountId());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public AccountDTO getAccountStatementConcurrent() {
+        return getAccountStatement();
+    }
+
+    @Benchmark
+    public List<OperationDTO> getAllAccountOperations() {
+        return operationService.getAllAccountOperations(nextAccountId());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public List<OperationDTO> getAllAccountOperationsConcurrent() {
+        return getAllAccountOperations();
+    }
+
+    private Long nextAccountId() {
+        return accountIds[accountDistribution.next()];
+    }
+}
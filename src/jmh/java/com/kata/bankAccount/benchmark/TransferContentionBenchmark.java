@@ -0,0 +1,65 @@
+package com.kata.bankAccount.benchmark;
+
+import com.kata.bankAccount.dto.TransferResultDTO;
+import com.kata.bankAccount.exception.BalanceNotSufficientException;
+import com.kata.bankAccount.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of concurrent transfers between random pairs of a small set of accounts, in both directions:
+ * every transfer locks two rows, so without the ID-ordered locking opposite transfers would deadlock.
+ * The fewer the accounts, the higher the contention. The total of the balances, which transfers must conserve,
+ * is printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class TransferContentionBenchmark {
+
+    @Param({"2", "8"})
+    public int accounts;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private Long[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication("transferContention" + accounts);
+        accountService = context.getBean(AccountService.class);
+        accountIds = new Long[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = BenchmarkFixtures.seedAccountWithHistory(context, 1_000_000.0, 0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        double total = 0;
+        for (Long accountId : accountIds) {
+            total += accountService.getAccountStatement(accountId).getBalance();
+        }
+        System.out.println("Total balance of the " + accounts + " accounts: " + total);
+        context.close();
+    }
+
+    @Benchmark
+    public TransferResultDTO randomTransfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accounts);
+        int to = (from + 1 + random.nextInt(accounts - 1)) % accounts; // Any other account
+        try {
+            return accountService.transfer(accountIds[from], accountIds[to], 1.0);
+        } catch (BalanceNotSufficientException ex) {
+            return null; // Not expected with these opening balances
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.kata.bankAccount.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Zipf distribution over the indexes 0 to n - 1: index i is drawn with a probability proportional to
+ * 1 / (i + 1)^skew. A skew of 0 is uniform; the higher the skew, the more the draws concentrate on
+ * the first indexes (the hot accounts). Thread-safe.
+ */
+public final class ZipfDistribution {
+
+    private final double[] cumulativeWeights;
+
+    /**
+     * @param size the number of indexes
+     * @param skew the exponent of the distribution, 0 or more
+     */
+    public ZipfDistribution(int size, double skew) {
+        cumulativeWeights = new double[size];
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += 1 / Math.pow(i + 1, skew);
+            cumulativeWeights[i] = total;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulativeWeights[i] /= total;
+        }
+    }
+
+    /**
+     * Draws an index, using the random generator of the calling thread.
+     *
+     * @return an index between 0 and size - 1
+     */
+    public int next() {
+        int index = Arrays.binarySearch(cumulativeWeights, ThreadLocalRandom.current().nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, cumulativeWeights.length - 1);
+    }
+}
@@ -1,17 +1,22 @@
 package com.kata.bankAccount;
 
-import org.modelmapper.ModelMapper;
-import org.springframework.context.annotation.Bean;
+import com.kata.bankAccount.config.AdmissionProperties;
+import com.kata.bankAccount.config.BalanceCacheProperties;
+import com.kata.bankAccount.config.BatchProperties;
+import com.kata.bankAccount.config.ConcurrencyProperties;
+import com.kata.bankAccount.config.HistoryProperties;
+import com.kata.bankAccount.config.JfrProperties;
+import com.kata.bankAccount.config.LedgerProperties;
+import com.kata.bankAccount.config.ReconciliationProperties;
+import com.kata.bankAccount.config.SnapshotProperties;
+import com.kata.bankAccount.config.StatementBatchProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
+@EnableConfigurationProperties({ConcurrencyProperties.class, LedgerProperties.class, BatchProperties.class,
+        HistoryProperties.class, JfrProperties.class, BalanceCacheProperties.class,
+        AdmissionProperties.class, SnapshotProperties.class, ReconciliationProperties.class,
+        StatementBatchProperties.class})
 public class BankAccountKataConfiguration {
-
-
-    @Bean
-    public ModelMapper modelMapper() {
-       return new ModelMapper();
-
-    }
 }
-
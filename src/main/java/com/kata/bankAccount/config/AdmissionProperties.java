@@ -0,0 +1,19 @@
+package com.kata.bankAccount.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the admission limit applied to API requests when they run on virtual threads
+ * (prefix {@code bankaccount.admission}).
+ */
+@Data
+@ConfigurationProperties(prefix = "bankaccount.admission")
+public class AdmissionProperties {
+
+    // Maximum number of API requests processed at once; 0 uses the size of the connection pool
+    private int maxConcurrentRequests = 0;
+
+    // How long a request waits for a slot before being answered 503 Service Unavailable
+    private long acquireTimeoutMs = 1000;
+}
@@ -0,0 +1,18 @@
+package com.kata.bankAccount.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the in-process cache of account statements (prefix {@code bankaccount.balance-cache}).
+ */
+@Data
+@ConfigurationProperties(prefix = "bankaccount.balance-cache")
+public class BalanceCacheProperties {
+
+    // Maximum number of cached accounts; the least recently and frequently used are evicted beyond it (0 disables the cache)
+    private long maxSize = 10_000;
+
+    // Time after which a cached balance is reloaded from the database, as a safety net for writes made outside the application
+    private long ttlSeconds = 60;
+}
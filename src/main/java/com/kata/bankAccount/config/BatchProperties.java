@@ -0,0 +1,15 @@
+package com.kata.bankAccount.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the batch operations endpoint (prefix {@code bankaccount.batch}).
+ */
+@Data
+@ConfigurationProperties(prefix = "bankaccount.batch")
+public class BatchProperties {
+
+    // Maximum number of operations accepted in one batch request
+    private int maxOperations = 10_000;
+}
@@ -0,0 +1,42 @@
+package com.kata.bankAccount.config;
+
+import com.kata.bankAccount.enums.ConcurrencyMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the strategy used to apply deposits and withdrawals (prefix {@code bankaccount.concurrency}).
+ */
+@Data
+@ConfigurationProperties(prefix = "bankaccount.concurrency")
+public class ConcurrencyProperties {
+
+    private ConcurrencyMode mode = ConcurrencyMode.ATOMIC;
+
+    private final Optimistic optimistic = new Optimistic();
+
+    private final Batching batching = new Batching();
+
+    @Data
+    public static class Optimistic {
+
+        // Number of retries of a conflicting operation before giving up
+        private int maxRetries = 5;
+
+        // Base delay of the exponential backoff; the actual delay is a random value up to base * 2^attempt
+        private long backoffMs = 5;
+    }
+
+    @Data
+    public static class Batching {
+
+        // Time during which operations on the same account are collected before being committed together
+        private long windowMs = 2;
+
+        // A batch is committed as soon as it holds this many operations, without waiting for the end of the window
+        private int maxBatchSize = 256;
+
+        // Number of threads committing batches
+        private int workers = 4;
+    }
+}
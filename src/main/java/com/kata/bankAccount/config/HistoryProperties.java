@@ -0,0 +1,21 @@
+package com.kata.bankAccount.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the paginated operation history (prefix {@code bankaccount.history}).
+ */
+@Data
+@ConfigurationProperties(prefix = "bankaccount.history")
+public class HistoryProperties {
+
+    // Page size used when the client does not ask for one
+    private int defaultPageSize = 50;
+
+    // Upper bound of the page size a client can ask for
+    private int maxPageSize = 500;
+
+    // Upper bound of the number of (account, date) pairs of a batch balance query
+    private int maxBalanceQueries = 1000;
+}
@@ -0,0 +1,27 @@
+package com.kata.bankAccount.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the flight recordings started from the admin endpoint (prefix {@code bankaccount.jfr}).
+ */
+@Data
+@ConfigurationProperties(prefix = "bankaccount.jfr")
+public class JfrProperties {
+
+    // Directory where the recordings are dumped
+    private String directory = System.getProperty("java.io.tmpdir") + "/bankaccount-jfr";
+
+    // JFR settings the recordings start from ("default" or "profile")
+    private String settings = "profile";
+
+    // Duration used when the client does not ask for one
+    private int defaultDurationSeconds = 60;
+
+    // Upper bound of the duration a client can ask for
+    private int maxDurationSeconds = 600;
+
+    // Upper bound of the size of a recording on disk, oldest data is dropped beyond it
+    private long maxSizeMb = 100;
+}
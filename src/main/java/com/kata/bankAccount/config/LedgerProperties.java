@@ -0,0 +1,51 @@
+package com.kata.bankAccount.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the in-memory sharded ledger engine (prefix {@code bankaccount.ledger}).
+ */
+@Data
+@ConfigurationProperties(prefix = "bankaccount.ledger")
+public class LedgerProperties {
+
+    // When true, the LedgerAccountServiceImpl replaces the database-backed AccountServiceImpl
+    private boolean enabled = false;
+
+    // Number of single-threaded workers; 0 means one per available processor
+    private int shards = 0;
+
+    // Delay between two flushes of the pending operations to the database
+    private long flushIntervalMs = 10;
+
+    // Maximum number of operations persisted in one transaction
+    private int flushBatchSize = 500;
+
+    // Consecutive failed flushes of the same batch before it is split to isolate its failing operations and fence
+    // their accounts
+    private int flushMaxAttempts = 5;
+
+    // Delay between two attempts to persist the pending operations of the fenced accounts
+    private long fencedRetryIntervalMs = 1000;
+
+    private final Journal journal = new Journal();
+
+    public int getEffectiveShards() {
+        return shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+    }
+
+    @Data
+    public static class Journal {
+
+        // When true, operations are acknowledged once written to the memory-mapped journal and forced to disk
+        private boolean enabled = false;
+
+        // Directory of the segment files, required when the journal is enabled; must survive restarts together
+        // with the database, so there is no default under the temporary directory
+        private String directory;
+
+        // Size of a segment file; a new one is started when the current one is full
+        private int segmentSizeMb = 64;
+    }
+}
@@ -0,0 +1,27 @@
+package com.kata.bankAccount.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the ledger reconciliation runs started from the admin endpoint (prefix {@code bankaccount.reconciliation}).
+ */
+@Data
+@ConfigurationProperties(prefix = "bankaccount.reconciliation")
+public class ReconciliationProperties {
+
+    // Directory where the discrepancy reports are written
+    private String directory = System.getProperty("java.io.tmpdir") + "/bankaccount-reconciliation";
+
+    // Number of account ranges reconciled in parallel, each holding one database connection
+    private int parallelism = 2;
+
+    // Number of account IDs below which a range is reconciled by one task instead of being split
+    private int rangeSize = 10_000;
+
+    // Upper bound of the operations read per second by a run, shared by its tasks; 0 disables the throttling
+    private long maxOperationsPerSecond = 200_000;
+
+    // Only operations older than this are reconciled, so that no transaction still running can commit an older one
+    private long lagSeconds = 60;
+}
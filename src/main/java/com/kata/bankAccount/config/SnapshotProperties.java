@@ -0,0 +1,18 @@
+package com.kata.bankAccount.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the periodic balance snapshots (prefix {@code bankaccount.snapshot}).
+ */
+@Data
+@ConfigurationProperties(prefix = "bankaccount.snapshot")
+public class SnapshotProperties {
+
+    // Delay between two snapshot runs; 0 disables the snapshots
+    private long intervalMs = 60_000;
+
+    // Only operations older than this are snapshotted, so that no transaction still running can commit an older one
+    private long lagSeconds = 60;
+}
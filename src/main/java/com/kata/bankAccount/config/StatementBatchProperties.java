@@ -0,0 +1,21 @@
+package com.kata.bankAccount.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the monthly statement runs started from the admin endpoint (prefix {@code bankaccount.statements}).
+ */
+@Data
+@ConfigurationProperties(prefix = "bankaccount.statements")
+public class StatementBatchProperties {
+
+    // Directory where the statement files are written, one per month and partition
+    private String directory = System.getProperty("java.io.tmpdir") + "/bankaccount-statements";
+
+    // Number of partitions of the account IDs, each written by its own thread; kept by a resumed run
+    private int partitions = 2;
+
+    // Number of accounts written between two checkpoints
+    private int chunkSize = 500;
+}
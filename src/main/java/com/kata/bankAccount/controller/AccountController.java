@@ -1,10 +1,15 @@
 package com.kata.bankAccount.controller;
 
+import com.kata.bankAccount.dto.AccountContentionDTO;
 import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.dto.TransferRequestDTO;
+import com.kata.bankAccount.dto.TransferResultDTO;
 import com.kata.bankAccount.service.AccountService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/accounts")
@@ -20,13 +25,25 @@ public class AccountController {
 
     /**
      * Retrieves the account statement for a specific account.
+     * The version of the statement is sent as a strong ETag; a request whose If-None-Match holds the current
+     * one is answered with 304 Not Modified before the statement is read.
      *
      * @param id the ID of the account whose statement is to be retrieved
-     * @return a ResponseEntity containing the AccountDTO for the requested account
+     * @param request the current request, holding the If-None-Match header
+     * @return a ResponseEntity containing the AccountDTO for the requested account, or an empty 304 response
      */
     @GetMapping("/{id}/statement")
-    public ResponseEntity<AccountDTO> getAccountStatement(@PathVariable Long id) {
-        return ResponseEntity.ok(accountService.getAccountStatement(id));
+    public ResponseEntity<AccountDTO> getAccountStatement(@PathVariable Long id, WebRequest request) {
+        // The version is read first: the statement read next can only be as new or newer
+        Long version = accountService.getStatementVersion(id);
+        if (version == null) { // No cheap version (in-memory ledger): always send the statement
+            return ResponseEntity.ok(accountService.getAccountStatement(id));
+        }
+        String eTag = String.valueOf(version);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(accountService.getAccountStatement(id));
     }
 
     /**
@@ -53,4 +70,28 @@ public class AccountController {
         return ResponseEntity.ok(accountService.withdraw(id, amount));
     }
 
+    /**
+     * Transfers a specified amount from one account to another, debiting and crediting both in one transaction.
+     *
+     * @param request the source and target accounts and the amount to transfer
+     * @return a ResponseEntity containing the transfer reference and both updated accounts
+     */
+    @PostMapping("/transfer")
+    public ResponseEntity<TransferResultDTO> transfer(@RequestBody TransferRequestDTO request) {
+        return ResponseEntity.ok(accountService.transfer(request.getFromAccountId(), request.getToAccountId(),
+                request.getAmount()));
+    }
+
+    /**
+     * Retrieves the optimistic-locking retry and abort counters of an account,
+     * showing how contended the account is in OPTIMISTIC concurrency mode.
+     *
+     * @param id the ID of the account
+     * @return a ResponseEntity containing the AccountContentionDTO of the account
+     */
+    @GetMapping("/{id}/contention")
+    public ResponseEntity<AccountContentionDTO> getAccountContention(@PathVariable Long id) {
+        return ResponseEntity.ok(accountService.getAccountContention(id));
+    }
+
 }
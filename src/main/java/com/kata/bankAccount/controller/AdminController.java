@@ -0,0 +1,89 @@
+package com.kata.bankAccount.controller;
+
+import com.kata.bankAccount.dto.ReconciliationDTO;
+import com.kata.bankAccount.dto.RecordingDTO;
+import com.kata.bankAccount.dto.StatementRunDTO;
+import com.kata.bankAccount.service.FlightRecorderService;
+import com.kata.bankAccount.service.ReconciliationService;
+import com.kata.bankAccount.service.StatementBatchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final FlightRecorderService flightRecorderService;
+    private final ReconciliationService reconciliationService;
+    private final StatementBatchService statementBatchService;
+
+    // Constructor injection is used to provide the FlightRecorderService, ReconciliationService and StatementBatchService dependencies.
+    @Autowired
+    public AdminController(FlightRecorderService flightRecorderService, ReconciliationService reconciliationService,
+                           StatementBatchService statementBatchService) {
+        this.flightRecorderService = flightRecorderService;
+        this.reconciliationService = reconciliationService;
+        this.statementBatchService = statementBatchService;
+    }
+
+    /**
+     * Starts a bounded Java Flight Recorder recording, dumped to a local file of the server when it ends.
+     *
+     * @param durationSeconds the duration of the recording (optional, capped by bankaccount.jfr.max-duration-seconds)
+     * @return a ResponseEntity containing the ID of the recording and the file it will be dumped to
+     */
+    @PostMapping("/recordings")
+    public ResponseEntity<RecordingDTO> startRecording(@RequestParam(required = false) Integer durationSeconds) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(flightRecorderService.startRecording(durationSeconds));
+    }
+
+    /**
+     * Starts a reconciliation of every balance against its operations, in the background.
+     *
+     * @return a ResponseEntity containing the progress of the run and the file its discrepancies are written to
+     */
+    @PostMapping("/reconciliations")
+    public ResponseEntity<ReconciliationDTO> startReconciliation() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reconciliationService.startReconciliation());
+    }
+
+    /**
+     * Retrieves the progress of the running reconciliation, or the outcome of the last one.
+     *
+     * @return a ResponseEntity containing the progress, throughput and estimated time left, or 404 if none was started
+     */
+    @GetMapping("/reconciliations/current")
+    public ResponseEntity<ReconciliationDTO> getReconciliation() {
+        return ResponseEntity.of(reconciliationService.getReconciliation());
+    }
+
+    /**
+     * Starts writing the statements of every account for a month, in the background, or resumes the run of that
+     * month from its checkpoints.
+     *
+     * @param month the month of the statements, as yyyy-MM, which must have ended
+     * @return a ResponseEntity containing the progress of the run and its statement files
+     */
+    @PostMapping("/statements")
+    public ResponseEntity<StatementRunDTO> startStatementRun(@RequestParam YearMonth month) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(statementBatchService.startRun(month));
+    }
+
+    /**
+     * Retrieves the progress of the running statement run, or the outcome of the last one.
+     *
+     * @return a ResponseEntity containing the progress, or 404 if none was started
+     */
+    @GetMapping("/statements/current")
+    public ResponseEntity<StatementRunDTO> getStatementRun() {
+        return ResponseEntity.of(statementBatchService.getRun());
+    }
+}
@@ -0,0 +1,51 @@
+package com.kata.bankAccount.controller;
+
+import com.kata.bankAccount.dto.BalanceAtDTO;
+import com.kata.bankAccount.dto.BalanceQueryRequestDTO;
+import com.kata.bankAccount.service.OperationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/accounts")
+public class BalanceController {
+
+    private final OperationService operationService;
+
+    // Constructor injection is used to provide the OperationService dependency.
+    @Autowired
+    public BalanceController(OperationService operationService) {
+        this.operationService = operationService;
+    }
+
+    /**
+     * Retrieves the balance of an account at a point in time, read from the post-operation balance of its last
+     * operation at or before that point in time.
+     *
+     * @param id the ID of the account
+     * @param at the point in time, inclusive, ISO date-time
+     * @return a ResponseEntity containing the balance and the operation it was read from
+     */
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<BalanceAtDTO> getBalanceAt(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(operationService.getBalanceAt(id, at));
+    }
+
+    /**
+     * Retrieves the balances of many accounts at many points in time in one call.
+     *
+     * @param request the (account, date) pairs
+     * @return a ResponseEntity containing the balance of each pair, in request order
+     */
+    @PostMapping("/balances")
+    public ResponseEntity<List<BalanceAtDTO>> getBalancesAt(@RequestBody BalanceQueryRequestDTO request) {
+        return ResponseEntity.ok(operationService.getBalancesAt(request.getQueries()));
+    }
+}
@@ -0,0 +1,35 @@
+package com.kata.bankAccount.controller;
+
+import com.kata.bankAccount.dto.BatchOperationRequestDTO;
+import com.kata.bankAccount.dto.BatchOperationResultDTO;
+import com.kata.bankAccount.service.BatchOperationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/accounts/operations")
+public class BatchOperationController {
+
+    private final BatchOperationService batchOperationService;
+
+    // Constructor injection is used to provide the BatchOperationService dependency.
+    @Autowired
+    public BatchOperationController(BatchOperationService batchOperationService) {
+        this.batchOperationService = batchOperationService;
+    }
+
+    /**
+     * Applies a batch of deposits and withdrawals across any number of accounts.
+     *
+     * @param request the operations to apply
+     * @return a ResponseEntity containing the outcome of each operation, in request order
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchOperationResultDTO> processBatch(@RequestBody BatchOperationRequestDTO request) {
+        return ResponseEntity.ok(batchOperationService.processBatch(request));
+    }
+}
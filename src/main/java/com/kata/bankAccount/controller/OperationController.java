@@ -1,14 +1,25 @@
 package com.kata.bankAccount.controller;
 
 import com.kata.bankAccount.dto.OperationDTO;
+import com.kata.bankAccount.dto.OperationPageDTO;
+import com.kata.bankAccount.enums.ExportFormat;
+import com.kata.bankAccount.enums.OperationType;
 import com.kata.bankAccount.service.OperationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -25,13 +36,66 @@ public class OperationController {
 
     /**
      * Retrieves the transaction history for a specific account.
+     * The version of the account is sent as a strong ETag; a request whose If-None-Match holds the current
+     * one is answered with 304 Not Modified without loading or serializing the history.
      *
      * @param id the ID of the account whose operations are to be retrieved
-     * @return a ResponseEntity containing a list of OperationDTO objects representing the account's transaction history
+     * @param request the current request, holding the If-None-Match header
+     * @return a ResponseEntity containing a list of OperationDTO objects representing the account's transaction history,
+     * or an empty 304 response
      */
     @GetMapping("/{id}/history")
-    public ResponseEntity<List<OperationDTO>> getAccountOperations(@PathVariable Long id) {
+    public ResponseEntity<List<OperationDTO>> getAccountOperations(@PathVariable Long id, WebRequest request) {
+        // The version is read first: the history read next can only be as new or newer
+        String eTag = String.valueOf(operationService.getHistoryVersion(id));
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build(); // Return 304 without the history
+        }
         List<OperationDTO> operations = operationService.getAllAccountOperations(id); // Fetch all operations for the account
-        return ResponseEntity.ok(operations); // Return 200 OK with the list of operations
+        return ResponseEntity.ok().eTag(eTag).body(operations); // Return 200 OK with the list of operations
+    }
+
+    /**
+     * Retrieves one page of the transaction history of an account, ordered by date then ID.
+     *
+     * @param id the ID of the account whose operations are to be retrieved
+     * @param cursor the cursor returned with the previous page (optional, first page if absent)
+     * @param size the page size (optional, capped by bankaccount.history.max-page-size)
+     * @param from the inclusive lower bound of the dates, ISO date-time (optional)
+     * @param to the exclusive upper bound of the dates, ISO date-time (optional)
+     * @param operationType the type of operations to keep (optional)
+     * @return a ResponseEntity containing the operations of the page and the cursor of the next page
+     */
+    @GetMapping("/{id}/history/page")
+    public ResponseEntity<OperationPageDTO> getAccountOperationsPage(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) OperationType operationType) {
+        return ResponseEntity.ok(operationService.getAccountOperationsPage(id, cursor, size, from, to, operationType));
+    }
+
+    /**
+     * Exports the transaction history of an account, or of all accounts, as NDJSON or CSV.
+     * The body is streamed from a database cursor as it is written, so the export is never held in memory.
+     *
+     * @param accountId the ID of the account whose operations are exported (optional, all accounts if absent)
+     * @param format the output format, NDJSON (default) or CSV
+     * @return a ResponseEntity streaming the operations, ordered by ID
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOperations(
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        MediaType contentType = format == ExportFormat.CSV
+                ? new MediaType("text", "csv")
+                : MediaType.APPLICATION_NDJSON;
+        String fileName = "operations." + (format == ExportFormat.CSV ? "csv" : "ndjson");
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(outputStream -> operationService.exportOperations(accountId, format, outputStream));
     }
 }
@@ -0,0 +1,42 @@
+package com.kata.bankAccount.controller;
+
+import com.kata.bankAccount.dto.OperationSummaryDTO;
+import com.kata.bankAccount.service.OperationSummaryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/accounts")
+public class OperationSummaryController {
+
+    private final OperationSummaryService operationSummaryService;
+
+    // Constructor injection is used to provide the OperationSummaryService dependency.
+    @Autowired
+    public OperationSummaryController(OperationSummaryService operationSummaryService) {
+        this.operationSummaryService = operationSummaryService;
+    }
+
+    /**
+     * Retrieves the totals of the operations of an account per day or per month.
+     *
+     * @param id the ID of the account
+     * @param granularity the granularity of the periods, day (default) or month
+     * @param from the inclusive lower bound of the dates, ISO date (optional)
+     * @param to the exclusive upper bound of the dates, ISO date (optional)
+     * @return a ResponseEntity containing the summary of each period with operations, ordered by period
+     */
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<List<OperationSummaryDTO>> getSummary(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(operationSummaryService.getSummary(id, granularity, from, to));
+    }
+}
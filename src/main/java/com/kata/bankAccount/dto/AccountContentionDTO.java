@@ -0,0 +1,16 @@
+package com.kata.bankAccount.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class AccountContentionDTO {
+private Long accountId;
+private long retries;
+private long aborts;
+}
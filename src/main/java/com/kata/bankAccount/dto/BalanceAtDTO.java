@@ -0,0 +1,27 @@
+package com.kata.bankAccount.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BalanceAtDTO {
+private Long accountId;
+
+private LocalDateTime at;
+
+// Balance of the account at that point in time, when it could be computed
+private Double balance;
+
+// Last operation at or before that point in time, null if the account had none yet
+private Long operationId;
+
+// Reason why the balance could not be computed (batch queries only)
+private String error;
+}
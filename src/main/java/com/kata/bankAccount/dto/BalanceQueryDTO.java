@@ -0,0 +1,19 @@
+package com.kata.bankAccount.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BalanceQueryDTO {
+private Long accountId;
+
+// Point in time at which the balance is asked, inclusive
+private LocalDateTime at;
+}
@@ -0,0 +1,16 @@
+package com.kata.bankAccount.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BalanceQueryRequestDTO {
+private List<BalanceQueryDTO> queries;
+}
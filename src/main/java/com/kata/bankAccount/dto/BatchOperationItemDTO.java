@@ -0,0 +1,20 @@
+package com.kata.bankAccount.dto;
+
+import com.kata.bankAccount.enums.OperationType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BatchOperationItemDTO {
+
+private Long accountId;
+
+private OperationType operationType;
+
+private Double amount;
+}
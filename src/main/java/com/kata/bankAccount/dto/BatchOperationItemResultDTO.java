@@ -0,0 +1,26 @@
+package com.kata.bankAccount.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BatchOperationItemResultDTO {
+
+// Position of the operation in the request
+private int index;
+
+private Long accountId;
+
+private boolean success;
+
+// Balance of the account right after this operation, when it succeeded
+private Double balance;
+
+// Reason of the failure, when it failed
+private String error;
+}
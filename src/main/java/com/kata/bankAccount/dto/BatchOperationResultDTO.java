@@ -0,0 +1,21 @@
+package com.kata.bankAccount.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BatchOperationResultDTO {
+
+private int succeeded;
+
+private int failed;
+
+private List<BatchOperationItemResultDTO> results;
+}
@@ -1,6 +1,7 @@
 package com.kata.bankAccount.dto;
 
 import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.util.ValidationUtils;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -25,4 +26,16 @@ private Double amount;
 private Double PostOperationBalance;
 
 private AccountDTO account;
+
+private String transferReference;
+
+/**
+ * Constructor used by the projection queries of OperationRepository, which read the operation and its account
+ * with a single join instead of hydrating the entities. The amounts are read in minor units.
+ */
+public OperationDTO(Long id, LocalDateTime date, OperationType operationType, long amount,
+                    long postOperationBalance, String transferReference, Long accountId, long accountBalance) {
+    this(id, date, operationType, ValidationUtils.toMajorUnits(amount), ValidationUtils.toMajorUnits(postOperationBalance),
+            new AccountDTO(accountId, ValidationUtils.toMajorUnits(accountBalance)), transferReference);
+}
 }
@@ -0,0 +1,29 @@
+package com.kata.bankAccount.dto;
+
+import com.kata.bankAccount.enums.OperationType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Flat representation of an operation, used by the streaming export
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class OperationExportDTO {
+
+private Long id;
+
+private Long accountId;
+
+private LocalDateTime date;
+
+private OperationType operationType;
+
+private Double amount;
+
+private Double postOperationBalance;
+}
@@ -0,0 +1,20 @@
+package com.kata.bankAccount.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class OperationPageDTO {
+
+private List<OperationDTO> content;
+
+// Opaque cursor to pass to get the next page, null on the last page
+private String nextCursor;
+}
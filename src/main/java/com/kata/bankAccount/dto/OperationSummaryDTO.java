@@ -0,0 +1,26 @@
+package com.kata.bankAccount.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class OperationSummaryDTO {
+
+// First day of the period (day or month)
+private LocalDate periodStart;
+
+// Deposits and incoming transfers
+private Double totalCredits;
+
+// Withdrawals and outgoing transfers
+private Double totalDebits;
+
+private long operationCount;
+}
@@ -0,0 +1,45 @@
+package com.kata.bankAccount.dto;
+
+import com.kata.bankAccount.enums.ReconciliationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class ReconciliationDTO {
+private ReconciliationStatus status;
+
+private LocalDateTime startTime;
+
+// Set once the run has completed or failed
+private LocalDateTime endTime;
+
+// Highest operation ID reconciled: later operations are left for the next run
+private long lastOperationId;
+
+// File the discrepancies are written to, one CSV line each
+private String reportFile;
+
+private long rangesDone;
+private long accountsChecked;
+
+// Accounts with operations after lastOperationId, whose balance is not compared
+private long accountsSkipped;
+
+private long operationsChecked;
+private long discrepancies;
+
+// Share of the account ID space already reconciled, from 0 to 100
+private double percentDone;
+
+private double operationsPerSecond;
+
+// Estimated time left, null until a first range is reconciled or once the run has ended
+private Long etaSeconds;
+}
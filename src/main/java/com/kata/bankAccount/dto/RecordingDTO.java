@@ -0,0 +1,19 @@
+package com.kata.bankAccount.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class RecordingDTO {
+private long id;
+private String file;
+private long durationSeconds;
+private Instant startTime;
+}
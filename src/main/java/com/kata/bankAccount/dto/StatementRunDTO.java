@@ -0,0 +1,35 @@
+package com.kata.bankAccount.dto;
+
+import com.kata.bankAccount.enums.StatementRunStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class StatementRunDTO {
+// Month of the statements, as yyyy-MM
+private String period;
+
+private StatementRunStatus status;
+
+private LocalDateTime startTime;
+
+// Set once the run has completed or failed
+private LocalDateTime endTime;
+
+// One statement file per partition
+private List<String> files;
+
+// Accounts already written when the run was resumed from its checkpoints
+private long accountsResumed;
+
+private long accountsDone;
+private long operationsWritten;
+}
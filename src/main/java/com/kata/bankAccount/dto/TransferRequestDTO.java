@@ -0,0 +1,19 @@
+package com.kata.bankAccount.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class TransferRequestDTO {
+
+private Long fromAccountId;
+
+private Long toAccountId;
+
+private Double amount;
+}
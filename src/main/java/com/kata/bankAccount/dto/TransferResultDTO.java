@@ -0,0 +1,20 @@
+package com.kata.bankAccount.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of a transfer: the reference shared by its two operations and the post-transfer balances
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class TransferResultDTO {
+
+private String transferReference;
+
+private AccountDTO fromAccount;
+
+private AccountDTO toAccount;
+}
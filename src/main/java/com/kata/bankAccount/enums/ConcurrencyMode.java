@@ -0,0 +1,10 @@
+package com.kata.bankAccount.enums;
+
+public enum ConcurrencyMode {
+    // Guarded single-statement UPDATEs on the balance (default)
+    ATOMIC,
+    // Read-modify-write of the versioned entity, retried on conflict
+    OPTIMISTIC,
+    // Concurrent operations on the same account are coalesced and committed together
+    BATCHED
+}
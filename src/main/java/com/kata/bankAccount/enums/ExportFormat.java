@@ -0,0 +1,8 @@
+package com.kata.bankAccount.enums;
+
+public enum ExportFormat {
+    // One JSON object per line
+    NDJSON,
+    // Comma-separated values with a header line
+    CSV
+}
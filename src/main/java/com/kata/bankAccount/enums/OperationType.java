@@ -1,5 +1,11 @@
 package com.kata.bankAccount.enums;
 
 public enum OperationType {
-    DEPOSIT, WITHDRAWAL
-}
\ No newline at end of file
+    DEPOSIT, WITHDRAWAL,
+    // The two linked operations written by a transfer between accounts
+    TRANSFER_OUT, TRANSFER_IN;
+
+    public boolean isCredit() {
+        return this == DEPOSIT || this == TRANSFER_IN;
+    }
+}
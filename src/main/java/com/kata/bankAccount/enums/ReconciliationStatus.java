@@ -0,0 +1,9 @@
+package com.kata.bankAccount.enums;
+
+public enum ReconciliationStatus {
+    RUNNING,
+    // Every range has been reconciled; the discrepancies, if any, are in the report
+    COMPLETED,
+    // The run stopped on an error; the report only covers the ranges reconciled before it
+    FAILED
+}
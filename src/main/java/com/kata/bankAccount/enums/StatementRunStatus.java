@@ -0,0 +1,9 @@
+package com.kata.bankAccount.enums;
+
+public enum StatementRunStatus {
+    RUNNING,
+    // Every partition is written
+    COMPLETED,
+    // A partition stopped on an error; starting the same month again resumes from the checkpoints
+    FAILED
+}
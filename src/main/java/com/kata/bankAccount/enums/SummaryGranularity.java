@@ -0,0 +1,14 @@
+package com.kata.bankAccount.enums;
+
+import java.time.LocalDate;
+
+public enum SummaryGranularity {
+    // One summary per calendar day
+    DAY,
+    // One summary per calendar month
+    MONTH;
+
+    public LocalDate periodStart(LocalDate date) {
+        return this == DAY ? date : date.withDayOfMonth(1);
+    }
+}
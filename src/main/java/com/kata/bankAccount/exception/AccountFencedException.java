@@ -0,0 +1,8 @@
+package com.kata.bankAccount.exception;
+
+public class AccountFencedException extends RuntimeException {
+
+    public AccountFencedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.kata.bankAccount.exception;
+
+public class ConcurrentUpdateException extends RuntimeException {
+
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.kata.bankAccount.exception;
+
+public class InvalidPageRequestException extends RuntimeException {
+
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.kata.bankAccount.exception;
+
+public class InvalidTransferException extends RuntimeException {
+
+    public InvalidTransferException(String message) {
+        super(message);
+    }
+}
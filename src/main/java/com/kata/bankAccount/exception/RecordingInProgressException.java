@@ -0,0 +1,8 @@
+package com.kata.bankAccount.exception;
+
+public class RecordingInProgressException extends RuntimeException {
+
+    public RecordingInProgressException(String message) {
+        super(message);
+    }
+}
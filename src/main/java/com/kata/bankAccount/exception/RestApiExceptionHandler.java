@@ -36,6 +36,54 @@ public class RestApiExceptionHandler {
         return generateErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
+    // Handle ConcurrentUpdateException
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    public ResponseEntity<Map<String, Object>> handleConcurrentUpdate(ConcurrentUpdateException ex) {
+        return generateErrorResponse(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    // Handle InvalidBatchException
+    @ExceptionHandler(InvalidBatchException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidBatch(InvalidBatchException ex) {
+        return generateErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    // Handle InvalidTransferException
+    @ExceptionHandler(InvalidTransferException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidTransfer(InvalidTransferException ex) {
+        return generateErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    // Handle InvalidPageRequestException
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidPageRequest(InvalidPageRequestException ex) {
+        return generateErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    // Handle RecordingInProgressException
+    @ExceptionHandler(RecordingInProgressException.class)
+    public ResponseEntity<Map<String, Object>> handleRecordingInProgress(RecordingInProgressException ex) {
+        return generateErrorResponse(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    // Handle ReconciliationInProgressException
+    @ExceptionHandler(ReconciliationInProgressException.class)
+    public ResponseEntity<Map<String, Object>> handleReconciliationInProgress(ReconciliationInProgressException ex) {
+        return generateErrorResponse(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    // Handle StatementRunInProgressException
+    @ExceptionHandler(StatementRunInProgressException.class)
+    public ResponseEntity<Map<String, Object>> handleStatementRunInProgress(StatementRunInProgressException ex) {
+        return generateErrorResponse(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    // Handle AccountFencedException
+    @ExceptionHandler(AccountFencedException.class)
+    public ResponseEntity<Map<String, Object>> handleAccountFenced(AccountFencedException ex) {
+        return generateErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
     // Utility method for creating error responses
     private ResponseEntity<Map<String, Object>> generateErrorResponse(HttpStatus status, String errorMessage) {
         Map<String, Object> responseBody = new HashMap<>();
@@ -0,0 +1,8 @@
+package com.kata.bankAccount.exception;
+
+public class StatementRunInProgressException extends RuntimeException {
+
+    public StatementRunInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,129 @@
+package com.kata.bankAccount.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kata.bankAccount.config.AdmissionProperties;
+import com.kata.bankAccount.metrics.BankMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission limit of the API when requests run on virtual threads (spring.threads.virtual.enabled=true).
+ * Tomcat then starts one virtual thread per request with no upper bound, and every one of them would queue
+ * for a database connection, holding its request and memory. A fair semaphore, sized to the connection pool by
+ * default, lets only as many requests in as there are connections; the others wait up to the acquire timeout
+ * and are then answered 503 Service Unavailable. It also bounds how many virtual threads can be pinned to
+ * their carrier at once by the synchronized sections of the JDBC driver.
+ *
+ * <p>Only the initial dispatch of a request is admitted: the asynchronous export releases its slot once its
+ * stream has started.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class RequestAdmissionFilter extends OncePerRequestFilter {
+
+    private static final String API_PREFIX = "/api/";
+
+    private final Semaphore permits;
+    private final int maxConcurrentRequests;
+    private final long acquireTimeoutMs;
+    private final BankMetrics bankMetrics;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param admissionProperties the settings of the admission limit
+     * @param dataSource the connection pool the default limit is sized to
+     * @param bankMetrics the counter of rejected requests
+     * @param objectMapper the mapper used to write the error body
+     */
+    @Autowired
+    public RequestAdmissionFilter(AdmissionProperties admissionProperties, DataSource dataSource,
+                                  BankMetrics bankMetrics, ObjectMapper objectMapper) {
+        this.maxConcurrentRequests = admissionProperties.getMaxConcurrentRequests() > 0
+                ? admissionProperties.getMaxConcurrentRequests()
+                : poolSize(dataSource);
+        this.permits = new Semaphore(maxConcurrentRequests, true); // Fair: the oldest waiting request goes first
+        this.acquireTimeoutMs = admissionProperties.getAcquireTimeoutMs();
+        this.bankMetrics = bankMetrics;
+        this.objectMapper = objectMapper;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(API_PREFIX); // Actuator and console requests use no connection
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            bankMetrics.recordAdmissionRejected();
+            reject(response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     *  method to answer a request that could not be admitted, with the error body of the RestApiExceptionHandler.
+     *
+     * @param response the response of the rejected request
+     */
+    private void reject(HttpServletResponse response) throws IOException {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        Map<String, Object> responseBody = new LinkedHashMap<>();
+        responseBody.put("time", LocalDateTime.now());
+        responseBody.put("statusCode", status.value());
+        responseBody.put("errorType", status.getReasonPhrase());
+        responseBody.put("details", "Too many concurrent requests, please retry.");
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), responseBody);
+    }
+
+    /**
+     *  method to read the maximum size of the connection pool.
+     *
+     * @param dataSource the data source of the application
+     * @return the maximum number of connections, or the HikariCP default if the pool is not HikariCP
+     */
+    private static int poolSize(DataSource dataSource) {
+        return dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+    }
+}
@@ -0,0 +1,106 @@
+package com.kata.bankAccount.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event emitted for each deposit or withdrawal applied by AccountServiceImpl. The duration of the event
+ * covers the whole mutation, retries included; the time spent waiting for the transaction, for the row lock and
+ * in the database is measured on the last attempt. Its timeline can be lined up with the GC and thread events of the
+ * same recording.
+ * When the event is disabled (no recording, or a recording that does not enable it) none of the timestamps
+ * are taken and the event is never committed.
+ */
+@Name("com.kata.bankAccount.BalanceMutation")
+@Label("Balance Mutation")
+@Category({"Bank Account", "Ledger"})
+@Description("A deposit or a withdrawal applied to an account balance")
+@StackTrace(false)
+public class BalanceMutationEvent extends Event {
+
+    @Label("Account ID")
+    public long accountId;
+
+    @Label("Operation Type")
+    public String operationType;
+
+    @Label("Concurrency Mode")
+    public String concurrencyMode;
+
+    @Label("Transaction Wait")
+    @Description("Time from the start of the last attempt until its transaction was open (connection acquisition, BEGIN)")
+    @Timespan(Timespan.NANOSECONDS)
+    public long transactionWait;
+
+    @Label("Lock Wait")
+    @Description("Time of the statement taking the row lock of the account, including the wait for the lock")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lockWait;
+
+    @Label("Database Time")
+    @Description("Time from the opening to the commit of the transaction of the last attempt")
+    @Timespan(Timespan.NANOSECONDS)
+    public long databaseTime;
+
+    @Label("Retries")
+    public int retries;
+
+    @Label("Outcome")
+    public String outcome;
+
+    // Timestamps used to compute the timespans; transient fields are not recorded
+    private transient long attemptStartNanos;
+    private transient long transactionStartNanos;
+
+    /**
+     * Starts the timing of a mutation.
+     */
+    public void start() {
+        if (isEnabled()) {
+            begin();
+        }
+    }
+
+    /**
+     * Called before the transaction of an attempt is opened, so that earlier attempts and their backoff are not
+     * counted in the transaction wait.
+     */
+    public void attemptStarted() {
+        if (isEnabled()) {
+            attemptStartNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Called first thing inside the transaction of an attempt.
+     */
+    public void transactionStarted() {
+        if (isEnabled()) {
+            transactionStartNanos = System.nanoTime();
+            transactionWait = transactionStartNanos - attemptStartNanos;
+        }
+    }
+
+    /**
+     * Called right after the statement that locks the account row has returned.
+     */
+    public void lockAcquired() {
+        if (isEnabled()) {
+            lockWait = System.nanoTime() - transactionStartNanos;
+        }
+    }
+
+    /**
+     * Called once the transaction of an attempt has committed.
+     */
+    public void transactionCommitted() {
+        if (isEnabled()) {
+            databaseTime = System.nanoTime() - transactionStartNanos;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.kata.bankAccount.journal;
+
+import com.kata.bankAccount.enums.OperationType;
+
+import java.time.LocalDateTime;
+
+/**
+ * An operation applied by the ledger, as appended to the journal and then persisted to the operation table.
+ * Amounts are in minor units.
+ *
+ * @param sequence the position of the record in the journal, starting at 1; 0 for a record that was not journaled
+ * @param accountId the account ID
+ * @param type the type of operation
+ * @param amount the amount of the operation
+ * @param postOperationBalance the balance of the account after the operation
+ * @param transferReference the reference linking the two operations of a transfer, or null
+ * @param date the date of the operation
+ */
+public record JournalRecord(long sequence, Long accountId, OperationType type, long amount, long postOperationBalance,
+                            String transferReference, LocalDateTime date) {
+
+    public JournalRecord withSequence(long sequence) {
+        return new JournalRecord(sequence, accountId, type, amount, postOperationBalance, transferReference, date);
+    }
+}
@@ -0,0 +1,451 @@
+package com.kata.bankAccount.journal;
+
+import com.kata.bankAccount.enums.OperationType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only write-ahead journal of the ledger operations, made of memory-mapped segment files of fixed-width
+ * binary records. An append is a few stores into the mapped segment; durability comes from a single sync thread
+ * that forces every segment written since its previous pass (group commit), so one force covers all the records
+ * appended meanwhile. Once forced, the records are handed in order to the consumer, which persists them.
+ *
+ * <p>Each record is {@value #RECORD_SIZE} bytes and ends with a CRC32C checksum. Its sequence is implied by its
+ * position: a segment file is named after the sequence of its first record. When the journal is opened, the
+ * segments are scanned up to the first invalid record, a write torn by a crash; everything after it was never
+ * acknowledged, so it is cleared and the next append takes its place. An empty directory starts at the sequence
+ * given by the caller, after the last one it already persisted, so that sequences never go back.
+ *
+ * <p>If a force fails, the journal stops: the records waiting for it are never acknowledged nor handed over,
+ * and every later append is rejected, so that nothing is applied on top of records that may not be on disk.
+ */
+@Slf4j
+public class OperationJournal implements AutoCloseable {
+
+    public static final int RECORD_SIZE = 64;
+
+    // Layout of a record
+    private static final int TYPE = 0; // OperationType ordinal + 1, so that a zeroed slot is never a valid record
+    private static final int FLAGS = 1;
+    private static final int NANO = 4;
+    private static final int ACCOUNT_ID = 8;
+    private static final int AMOUNT = 16;
+    private static final int POST_OPERATION_BALANCE = 24;
+    private static final int EPOCH_SECOND = 32;
+    private static final int REFERENCE_MSB = 40;
+    private static final int REFERENCE_LSB = 48;
+    private static final int CHECKSUM = 56; // CRC32C of the first 56 bytes
+    private static final byte HAS_REFERENCE = 1;
+
+    private static final OperationType[] TYPES = OperationType.values();
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final Consumer<List<JournalRecord>> consumer;
+    private final SegmentForce segmentForce;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    private final List<Segment> segments = new ArrayList<>(); // Guarded by lock, oldest first
+    private final Thread syncThread;
+
+    // Guarded by lock
+    private Segment current;
+    private long nextSequence;
+    private long durableSequence;
+    private List<JournalRecord> unsynced = new ArrayList<>();
+    private List<Segment> rolled = new ArrayList<>();
+    private IOException failure;
+    private boolean closed;
+
+    private OperationJournal(Path directory, int recordsPerSegment, long firstSequence,
+                             Consumer<List<JournalRecord>> consumer, SegmentForce segmentForce) {
+        this.directory = directory;
+        this.nextSequence = firstSequence; // Kept by recover() only when the directory holds no segment
+        this.recordsPerSegment = recordsPerSegment;
+        this.consumer = consumer;
+        this.segmentForce = segmentForce;
+        this.syncThread = new Thread(this::syncLoop, "journal-sync");
+    }
+
+    /**
+     * Opens the journal of a directory, creating it if needed, and starts its sync thread.
+     *
+     * @param directory the directory of the segment files
+     * @param segmentSizeBytes the size of a segment file, rounded down to a whole number of records
+     * @param firstSequence the sequence of the first record if the directory holds no segment yet
+     * @param consumer receives the records once durable, in sequence order, on the sync thread
+     * @return the opened journal, positioned after its last valid record
+     */
+    public static OperationJournal open(Path directory, long segmentSizeBytes, long firstSequence,
+                                        Consumer<List<JournalRecord>> consumer) {
+        return open(directory, segmentSizeBytes, firstSequence, consumer, OperationJournal::forceSegment);
+    }
+
+    /**
+     * Opens the journal of a directory with a given way of forcing the segments to disk.
+     *
+     * @param directory the directory of the segment files
+     * @param segmentSizeBytes the size of a segment file, rounded down to a whole number of records
+     * @param firstSequence the sequence of the first record if the directory holds no segment yet
+     * @param consumer receives the records once durable, in sequence order, on the sync thread
+     * @param segmentForce forces a mapped segment to disk, on the sync thread
+     * @return the opened journal, positioned after its last valid record
+     */
+    static OperationJournal open(Path directory, long segmentSizeBytes, long firstSequence,
+                                 Consumer<List<JournalRecord>> consumer, SegmentForce segmentForce) {
+        int recordsPerSegment = (int) Math.min(Integer.MAX_VALUE / RECORD_SIZE, segmentSizeBytes / RECORD_SIZE);
+        if (recordsPerSegment < 1) {
+            throw new IllegalArgumentException("A journal segment must hold at least one record.");
+        }
+        if (firstSequence < 1) {
+            throw new IllegalArgumentException("The first journal sequence must be positive.");
+        }
+        OperationJournal journal = new OperationJournal(directory, recordsPerSegment, firstSequence, consumer,
+                segmentForce);
+        try {
+            journal.recover();
+        } catch (IOException ex) {
+            journal.closeSegments();
+            throw new UncheckedIOException("Cannot open the journal in " + directory, ex);
+        }
+        journal.syncThread.start();
+        return journal;
+    }
+
+    /**
+     * Reads the valid records of the journal that follow a sequence, typically the last one persisted.
+     *
+     * @param afterSequence the sequence to start after
+     * @return the records, in sequence order
+     */
+    public List<JournalRecord> replay(long afterSequence) {
+        lock.lock();
+        try {
+            List<JournalRecord> records = new ArrayList<>();
+            for (Segment segment : segments) {
+                long from = Math.max(segment.baseSequence, afterSequence + 1);
+                long to = Math.min(segment.baseSequence + recordsPerSegment, nextSequence);
+                for (long sequence = from; sequence < to; sequence++) {
+                    records.add(read(segment, sequence));
+                }
+            }
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a record; it becomes durable with the next pass of the sync thread.
+     * Rejected once a force has failed: the caller must not apply the operation.
+     *
+     * @param record the record to append, whose sequence is ignored
+     * @return the sequence assigned to the record
+     */
+    public long append(JournalRecord record) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The journal is closed.");
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("The journal cannot be forced to disk", failure);
+            }
+            if (nextSequence == current.baseSequence + recordsPerSegment) {
+                rolled.add(current); // Forced and closed by the sync thread
+                current = createSegment(nextSequence);
+            }
+            long sequence = nextSequence++;
+            write(current, sequence, record);
+            unsynced.add(record.withSequence(sequence));
+            appended.signal();
+            return sequence;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot roll the journal segment in " + directory, ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a record, and therefore every record before it, has been forced to disk.
+     *
+     * @param sequence the sequence of the record
+     */
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw new UncheckedIOException("The journal cannot be forced to disk", failure);
+                }
+                synced.awaitUninterruptibly(); // The record is applied anyway: waiting is all that is left to do
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments whose records are all persisted elsewhere.
+     *
+     * @param sequence the last sequence persisted, in order
+     */
+    public void releaseUpTo(long sequence) {
+        lock.lock();
+        try {
+            long releasable = Math.min(sequence, durableSequence);
+            while (segments.size() > 1 && segments.get(0).baseSequence + recordsPerSegment - 1 <= releasable) {
+                Segment segment = segments.remove(0);
+                Files.deleteIfExists(segment.file);
+            }
+        } catch (IOException ex) {
+            log.warn("Cannot delete a released journal segment", ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDurableSequence() {
+        lock.lock();
+        try {
+            return durableSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the sync thread once every appended record is durable, then closes the segment files.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+        syncThread.join();
+        closeSegments();
+    }
+
+    /**
+     *  method run by the sync thread: force everything appended since the previous pass, then publish it.
+     */
+    private void syncLoop() {
+        while (true) {
+            long target;
+            List<JournalRecord> records;
+            List<Segment> toForce;
+            lock.lock();
+            try {
+                while (!closed && unsynced.isEmpty()) {
+                    appended.awaitUninterruptibly();
+                }
+                if (unsynced.isEmpty()) {
+                    return; // Closed, and nothing left to force
+                }
+                target = nextSequence - 1;
+                records = unsynced;
+                unsynced = new ArrayList<>();
+                toForce = rolled;
+                rolled = new ArrayList<>();
+                toForce.add(current);
+            } finally {
+                lock.unlock();
+            }
+            try {
+                for (Segment segment : toForce) { // Outside the lock: appends go on while the disk syncs
+                    segmentForce.force(segment.buffer);
+                }
+                for (int i = 0; i < toForce.size() - 1; i++) {
+                    toForce.get(i).channel.close(); // Rolled segments are complete
+                }
+            } catch (IOException ex) {
+                log.error("Cannot force the journal to disk, the ledger stops acknowledging operations", ex);
+                lock.lock();
+                try {
+                    failure = ex;
+                    synced.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+            lock.lock();
+            try {
+                durableSequence = target;
+                synced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            consumer.accept(records);
+        }
+    }
+
+    /**
+     *  method to map the existing segments, find the last valid record and clear what follows it.
+     */
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted() // Zero-padded base sequences sort like numbers
+                    .toList();
+        }
+        boolean torn = false;
+        for (Path file : files) {
+            if (torn) {
+                Files.delete(file); // Written after a torn record: never acknowledged
+                continue;
+            }
+            Segment segment = mapSegment(file, baseSequenceOf(file));
+            segments.add(segment);
+            long end = segment.baseSequence + recordsPerSegment;
+            nextSequence = segment.baseSequence;
+            while (nextSequence < end && isValid(segment, nextSequence)) {
+                nextSequence++;
+            }
+            torn = nextSequence < end;
+        }
+        if (segments.isEmpty()) {
+            createSegment(nextSequence);
+        }
+        current = segments.get(segments.size() - 1);
+        if (nextSequence < current.baseSequence + recordsPerSegment) {
+            // Clear the torn record and anything that might follow it, so that it is never read as valid later
+            int from = offset(current, nextSequence);
+            for (int position = from; position < current.buffer.capacity(); position += Long.BYTES) {
+                current.buffer.putLong(position, 0L);
+            }
+            current.buffer.force();
+        }
+        durableSequence = nextSequence - 1;
+        log.info("Journal opened in {}: {} segment(s), last sequence {}", directory, segments.size(), durableSequence);
+    }
+
+    private Segment createSegment(long baseSequence) throws IOException {
+        Segment segment = mapSegment(directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, baseSequence,
+                SEGMENT_SUFFIX)), baseSequence);
+        segments.add(segment);
+        return segment;
+    }
+
+    private Segment mapSegment(Path file, long baseSequence) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        return new Segment(file, baseSequence, channel, buffer);
+    }
+
+    private void write(Segment segment, long sequence, JournalRecord record) {
+        int offset = offset(segment, sequence);
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.put(offset + TYPE, (byte) (record.type().ordinal() + 1));
+        buffer.put(offset + FLAGS, record.transferReference() == null ? 0 : HAS_REFERENCE);
+        buffer.putShort(offset + FLAGS + 1, (short) 0);
+        buffer.putInt(offset + NANO, record.date().getNano());
+        buffer.putLong(offset + ACCOUNT_ID, record.accountId());
+        buffer.putLong(offset + AMOUNT, record.amount());
+        buffer.putLong(offset + POST_OPERATION_BALANCE, record.postOperationBalance());
+        buffer.putLong(offset + EPOCH_SECOND, record.date().toEpochSecond(ZoneOffset.UTC));
+        UUID reference = record.transferReference() == null ? null : UUID.fromString(record.transferReference());
+        buffer.putLong(offset + REFERENCE_MSB, reference == null ? 0L : reference.getMostSignificantBits());
+        buffer.putLong(offset + REFERENCE_LSB, reference == null ? 0L : reference.getLeastSignificantBits());
+        buffer.putInt(offset + CHECKSUM, checksum(buffer, offset));
+        buffer.putInt(offset + CHECKSUM + Integer.BYTES, 0);
+    }
+
+    private JournalRecord read(Segment segment, long sequence) {
+        int offset = offset(segment, sequence);
+        MappedByteBuffer buffer = segment.buffer;
+        String reference = buffer.get(offset + FLAGS) == HAS_REFERENCE
+                ? new UUID(buffer.getLong(offset + REFERENCE_MSB), buffer.getLong(offset + REFERENCE_LSB)).toString()
+                : null;
+        return new JournalRecord(sequence,
+                buffer.getLong(offset + ACCOUNT_ID),
+                TYPES[buffer.get(offset + TYPE) - 1],
+                buffer.getLong(offset + AMOUNT),
+                buffer.getLong(offset + POST_OPERATION_BALANCE),
+                reference,
+                LocalDateTime.ofEpochSecond(buffer.getLong(offset + EPOCH_SECOND), buffer.getInt(offset + NANO),
+                        ZoneOffset.UTC));
+    }
+
+    private boolean isValid(Segment segment, long sequence) {
+        int offset = offset(segment, sequence);
+        int type = segment.buffer.get(offset + TYPE);
+        return type >= 1 && type <= TYPES.length
+                && segment.buffer.getInt(offset + CHECKSUM) == checksum(segment.buffer, offset);
+    }
+
+    private int offset(Segment segment, long sequence) {
+        return (int) (sequence - segment.baseSequence) * RECORD_SIZE;
+    }
+
+    /**
+     *  method to force a mapped segment to disk; MappedByteBuffer reports the I/O errors as unchecked.
+     *
+     * @param buffer the mapped segment
+     */
+    private static void forceSegment(MappedByteBuffer buffer) throws IOException {
+        try {
+            buffer.force();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static int checksum(MappedByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CHECKSUM));
+        return (int) crc.getValue();
+    }
+
+    private static long baseSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private void closeSegments() {
+        for (Segment segment : segments) {
+            try {
+                segment.channel.close();
+            } catch (IOException ex) {
+                log.warn("Cannot close the journal segment {}", segment.file, ex);
+            }
+        }
+    }
+
+    // Forces a mapped segment to disk
+    @FunctionalInterface
+    interface SegmentForce {
+        void force(MappedByteBuffer buffer) throws IOException;
+    }
+
+    private record Segment(Path file, long baseSequence, FileChannel channel, MappedByteBuffer buffer) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.kata.bankAccount.mapper;
+
+import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.model.Account;
+import com.kata.bankAccount.util.ValidationUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps Account entities to AccountDTOs with plain getter calls: no reflection, no type map to build on first use,
+ * and a single allocation per call (the DTO itself).
+ */
+@Component
+public class AccountMapper {
+
+    /**
+     * Maps an account to its DTO, converting the balance from minor units. The lazy operations collection is not touched.
+     *
+     * @param account the account entity, or null
+     * @return the account DTO, or null if the account is null
+     */
+    public AccountDTO toDto(Account account) {
+        if (account == null) {
+            return null;
+        }
+        return new AccountDTO(account.getId(), ValidationUtils.toMajorUnits(account.getBalance()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.kata.bankAccount.mapper;
+
+import com.kata.bankAccount.dto.OperationDTO;
+import com.kata.bankAccount.dto.OperationExportDTO;
+import com.kata.bankAccount.model.Operation;
+import com.kata.bankAccount.util.ValidationUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps Operation entities to their DTOs with plain getter calls, without reflection.
+ */
+@Component
+public class OperationMapper {
+
+    private final AccountMapper accountMapper;
+
+    // Constructor injection is used to provide the AccountMapper dependency.
+    @Autowired
+    public OperationMapper(AccountMapper accountMapper) {
+        this.accountMapper = accountMapper;
+    }
+
+    /**
+     * Maps an operation to its DTO, including its account (which initializes the lazy account proxy).
+     *
+     * @param operation the operation entity, or null
+     * @return the operation DTO, or null if the operation is null
+     */
+    public OperationDTO toDto(Operation operation) {
+        if (operation == null) {
+            return null;
+        }
+        return new OperationDTO(operation.getId(), operation.getDate(), operation.getOperationType(),
+                ValidationUtils.toMajorUnits(operation.getAmount()),
+                ValidationUtils.toMajorUnits(operation.getPostOperationBalance()),
+                accountMapper.toDto(operation.getAccount()), operation.getTransferReference());
+    }
+
+    /**
+     * Maps an operation to a flat export row. Only the ID of the account is read, which does not
+     * initialize the lazy account proxy.
+     *
+     * @param operation the operation entity
+     * @return the export row
+     */
+    public OperationExportDTO toExportDto(Operation operation) {
+        return new OperationExportDTO(operation.getId(), operation.getAccount().getId(), operation.getDate(),
+                operation.getOperationType(), ValidationUtils.toMajorUnits(operation.getAmount()),
+                ValidationUtils.toMajorUnits(operation.getPostOperationBalance()));
+    }
+}
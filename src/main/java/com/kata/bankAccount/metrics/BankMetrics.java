@@ -0,0 +1,199 @@
+package com.kata.bankAccount.metrics;
+
+import com.kata.bankAccount.exception.AccountFencedException;
+import com.kata.bankAccount.exception.BalanceNotSufficientException;
+import com.kata.bankAccount.exception.ConcurrentUpdateException;
+import com.kata.bankAccount.exception.InvalidTransferException;
+import com.kata.bankAccount.exception.InvalideAmountException;
+import com.kata.bankAccount.exception.NoOperationsForAccountException;
+import com.kata.bankAccount.exception.NoSuchAccountException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters of the money-movement hot path, exposed on /actuator/prometheus.
+ * Tags only take values from fixed sets (operation names and outcomes): account IDs are never used as tags,
+ * so the number of time series does not grow with the number of accounts.
+ */
+@Component
+public class BankMetrics {
+
+    public static final String DEPOSIT = "deposit";
+    public static final String WITHDRAW = "withdraw";
+    public static final String TRANSFER = "transfer";
+    public static final String STATEMENT = "statement";
+    public static final String HISTORY = "history";
+    public static final String BALANCE_AT = "balance_at";
+
+    static final String SUCCESS = "success";
+    static final String INSUFFICIENT_FUNDS = "insufficient_funds";
+    static final String UNKNOWN_ACCOUNT = "unknown_account";
+    static final String INVALID_AMOUNT = "invalid_amount";
+    static final String INVALID_TRANSFER = "invalid_transfer";
+    static final String NO_OPERATIONS = "no_operations";
+    static final String ACCOUNT_FENCED = "account_fenced";
+    static final String OPTIMISTIC_CONFLICT = "optimistic_conflict";
+    static final String SERIALIZATION_FAILURE = "serialization_failure";
+    static final String ERROR = "error";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Counter rejectedWithdrawals;
+    private final Counter optimisticRetries;
+    private final Counter rejectedAdmissions;
+    private final Counter snapshotMismatches;
+    private final DistributionSummary historySize;
+
+    // Constructor injection is used to provide the MeterRegistry dependency.
+    @Autowired
+    public BankMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.rejectedWithdrawals = Counter.builder("bankaccount.withdrawals.rejected")
+                .description("Withdrawals and transfers rejected for insufficient funds")
+                .register(registry);
+        this.optimisticRetries = Counter.builder("bankaccount.transactions.retries")
+                .description("Transactions retried after an optimistic-locking conflict")
+                .register(registry);
+        this.rejectedAdmissions = Counter.builder("bankaccount.admission.rejected")
+                .description("API requests rejected because the admission limit stayed full")
+                .register(registry);
+        this.snapshotMismatches = Counter.builder("bankaccount.snapshot.mismatches")
+                .description("Recovered balances whose operations do not match their post-operation balances")
+                .register(registry);
+        this.historySize = DistributionSummary.builder("bankaccount.history.size")
+                .description("Number of operations returned by a full history read")
+                .baseUnit("operations")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Runs an operation and records its latency in the bankaccount.operation timer, tagged with the operation
+     * and its outcome. A failure also increments the matching counter: rejected withdrawals, unknown accounts,
+     * or rolled back transactions (with the reason of the rollback).
+     *
+     * @param operation the name of the operation (one of the constants of this class)
+     * @param action the operation
+     * @return the result of the operation
+     */
+    public <T> T recordOperation(String operation, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = SUCCESS;
+        try {
+            return action.get();
+        } catch (RuntimeException ex) {
+            outcome = outcomeOf(ex);
+            recordFailure(operation, outcome);
+            throw ex;
+        } finally {
+            sample.stop(timer(operation, outcome));
+        }
+    }
+
+    public void recordOptimisticRetry() {
+        optimisticRetries.increment();
+    }
+
+    public void recordAdmissionRejected() {
+        rejectedAdmissions.increment();
+    }
+
+    public void recordSnapshotMismatch() {
+        snapshotMismatches.increment();
+    }
+
+    public void recordHistorySize(int size) {
+        historySize.record(size);
+    }
+
+    /**
+     * Exposes the number of accounts fenced by the in-memory ledger as the bankaccount.ledger.fenced.accounts
+     * gauge: any value above zero means acknowledged operations are waiting for a persistence failure to be fixed.
+     *
+     * @param fencedAccounts the live set of fenced account IDs
+     */
+    public void registerFencedAccounts(Collection<Long> fencedAccounts) {
+        Gauge.builder("bankaccount.ledger.fenced.accounts", fencedAccounts, Collection::size)
+                .description("Accounts of the in-memory ledger whose operations cannot be persisted")
+                .register(registry);
+    }
+
+    /**
+     *  method to count a failed operation in the counter matching its outcome.
+     *
+     * @param operation the name of the operation
+     * @param outcome the outcome of the failure
+     */
+    private void recordFailure(String operation, String outcome) {
+        switch (outcome) {
+            case INSUFFICIENT_FUNDS -> rejectedWithdrawals.increment();
+            case UNKNOWN_ACCOUNT -> counter("bankaccount.accounts.unknown", "operation", operation).increment();
+            case OPTIMISTIC_CONFLICT, SERIALIZATION_FAILURE, ERROR ->
+                    counter("bankaccount.transactions.rollbacks", "reason", outcome).increment();
+            default -> {
+                // Invalid amounts or transfers and empty histories are not failures of the system: the timer outcome is enough
+            }
+        }
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return timers.computeIfAbsent(operation + '|' + outcome, key -> Timer.builder("bankaccount.operation")
+                .description("Latency of the account operations")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    private Counter counter(String name, String tagKey, String tagValue) {
+        return counters.computeIfAbsent(name + '|' + tagValue,
+                key -> Counter.builder(name).tag(tagKey, tagValue).register(registry));
+    }
+
+    /**
+     *  method to map an exception to a bounded outcome tag.
+     *
+     * @param ex the exception thrown by the operation
+     * @return the outcome
+     */
+    private static String outcomeOf(RuntimeException ex) {
+        if (ex instanceof BalanceNotSufficientException) {
+            return INSUFFICIENT_FUNDS;
+        }
+        if (ex instanceof NoSuchAccountException) {
+            return UNKNOWN_ACCOUNT;
+        }
+        if (ex instanceof NoOperationsForAccountException) {
+            return NO_OPERATIONS;
+        }
+        if (ex instanceof InvalideAmountException) {
+            return INVALID_AMOUNT;
+        }
+        if (ex instanceof InvalidTransferException) {
+            return INVALID_TRANSFER;
+        }
+        if (ex instanceof AccountFencedException) {
+            return ACCOUNT_FENCED;
+        }
+        if (ex instanceof ConcurrentUpdateException || ex instanceof OptimisticLockingFailureException) {
+            return OPTIMISTIC_CONFLICT;
+        }
+        if (ex instanceof ConcurrencyFailureException) { // Deadlock, lock timeout or serialization failure
+            return SERIALIZATION_FAILURE;
+        }
+        return ERROR;
+    }
+}
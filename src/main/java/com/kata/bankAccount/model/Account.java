@@ -16,9 +16,17 @@ public class Account {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private Double balance = 0.0;
+    //Primitive minor units (cents) in a BIGINT column: exact arithmetic, and no boxing on the write path.
+    private long balance;
+
+    //Incremented on every balance change (including the atomic updates of AccountRepository), used for optimistic locking.
+    @Version
+    private Long version;
 
     //An Operation should never exist without an associated Account. Combining cascade = ALL and orphanRemoval = true enforces this constraint.
+    //Excluded from toString/equals/hashCode so that logging or comparing an account never initializes the whole lazy history.
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, orphanRemoval = true)
      private List<Operation> operations;
 }
\ No newline at end of file
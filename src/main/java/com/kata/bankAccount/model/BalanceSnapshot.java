@@ -0,0 +1,30 @@
+package com.kata.bankAccount.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+//Checkpoint of the balance of an account: the balance after lastOperationId, so that a recovery only reads the operations after it.
+//Written in bulk by BalanceSnapshotService with a native MERGE; no association to Account, so that snapshots never load or lock accounts.
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceSnapshot {
+
+    @Id
+    private Long accountId;
+
+    //Primitive minor units (cents), like Account.balance.
+    private long balance;
+
+    private Long lastOperationId;
+
+    private LocalDateTime takenAt;
+}
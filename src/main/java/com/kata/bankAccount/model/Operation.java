@@ -5,19 +5,32 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
+//The (account_id, date, id) index serves the keyset-paginated history: any page is a single index range scan.
+//The (account_id, date desc, id desc) index serves the last operation of an account at a point in time with a single seek: H2 cannot read an ascending index backwards.
+//The (account_id, id) index serves the operations after a balance snapshot.
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_operation_account_date_id", columnList = "account_id, date, id"),
+        @Index(name = "idx_operation_account_date_id_desc", columnList = "account_id, date desc, id desc"),
+        @Index(name = "idx_operation_account_id", columnList = "account_id, id"),
+        @Index(name = "idx_operation_journal_sequence", columnList = "journal_sequence")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Operation {
 
+    //Pooled sequence: Hibernate allocates 50 IDs per round trip and can send the inserts as JDBC batches (impossible with IDENTITY).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "operation_seq")
+    @SequenceGenerator(name = "operation_seq", sequenceName = "operation_seq", allocationSize = 50)
     private Long id;
 
     //LocalDateTime: Ideal for most bank transactions that don't need time zone management.
@@ -26,12 +39,22 @@ public class Operation {
     @Enumerated(EnumType.STRING)
     private OperationType operationType;
 
-    private Double amount;
+    //Amounts and balances are primitive minor units (cents), like Account.balance.
+    private long amount;
 
-    private Double PostOperationBalance;
+    private long PostOperationBalance;
+
+    //Shared by the TRANSFER_OUT and TRANSFER_IN operations of a transfer, which links them; null for other operations.
+    private String transferReference;
+
+    //Sequence of the journal record the operation was persisted from (in-memory ledger with journal only); the highest one tells where to replay the journal from.
+    private Long journalSequence;
 
     //fetch = FetchType.LAZY (default): This optimizes performance by loading the transactions only when explicitly accessed, reducing unnecessary database queries.
     //Non-null constraint on transaction.account: Ensures every transaction must be tied to an account, adhering to business logic where every transaction requires an associated account.
+    //Excluded from toString/equals/hashCode so that the lazy account proxy is not initialized as a side effect.
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "account_id", nullable = false)
     private Account account;
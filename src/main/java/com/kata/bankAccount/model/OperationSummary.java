@@ -0,0 +1,53 @@
+package com.kata.bankAccount.model;
+
+import com.kata.bankAccount.enums.SummaryGranularity;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+//Totals of the operations of an account over one day or one month, so that reports read one row per period instead of every operation.
+//Incremented with a native MERGE by OperationSummaryService, in the transaction that inserts the operations; no association to Account, like BalanceSnapshot.
+@Entity
+@IdClass(OperationSummary.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OperationSummary {
+
+    @Id
+    private Long accountId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private SummaryGranularity granularity;
+
+    //First day of the period: the day itself, or the first day of the month.
+    @Id
+    private LocalDate periodStart;
+
+    //Credits are deposits and incoming transfers, debits are withdrawals and outgoing transfers; primitive minor units (cents).
+    private long totalCredits;
+
+    private long totalDebits;
+
+    private long operationCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long accountId;
+        private SummaryGranularity granularity;
+        private LocalDate periodStart;
+    }
+}
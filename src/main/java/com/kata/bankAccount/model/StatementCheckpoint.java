@@ -0,0 +1,57 @@
+package com.kata.bankAccount.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+//Progress of one partition of a monthly statement run, saved after each chunk of accounts so that a crashed run resumes after the last one.
+//The bounds of the partition are fixed by the first start of the run, so that a resumed run splits the accounts the same way.
+@Entity
+@IdClass(StatementCheckpoint.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatementCheckpoint {
+
+    //Month of the statements, as yyyy-MM.
+    @Id
+    private String period;
+
+    @Id
+    private int partitionIndex;
+
+    private int partitionCount;
+
+    //Account IDs of the partition: fromAccountId inclusive, toAccountId exclusive.
+    private long fromAccountId;
+
+    private long toAccountId;
+
+    //Last account whose statement is in the file, and the size of the file right after it; later bytes are truncated on resume.
+    private long lastAccountId;
+
+    private long fileOffset;
+
+    private long accountsDone;
+
+    private long operationsWritten;
+
+    //Null until every account of the partition is written.
+    private LocalDateTime completedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String period;
+        private int partitionIndex;
+    }
+}
@@ -1,9 +1,136 @@
 package com.kata.bankAccount.repository;
 
 import com.kata.bankAccount.model.Account;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Atomically adds an amount to the balance of an account in a single UPDATE statement.
+     * The version is incremented so that concurrent optimistic writers detect the change.
+     *
+     * @param id the account ID
+     * @param amount the amount to add, in minor units
+     * @return the number of updated rows, 0 if the account does not exist
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance + :amount, a.version = a.version + 1 where a.id = :id")
+    int creditBalance(@Param("id") Long id, @Param("amount") long amount);
+
+    /**
+     * Atomically subtracts an amount from the balance of an account, only if the balance stays positive or zero.
+     * The guard is evaluated by the database on the locked row, so no prior SELECT is needed.
+     *
+     * @param id the account ID
+     * @param amount the amount to subtract, in minor units
+     * @return the number of updated rows, 0 if the account does not exist or the funds are insufficient
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance - :amount, a.version = a.version + 1 "
+            + "where a.id = :id and a.balance >= :amount")
+    int debitBalanceIfSufficient(@Param("id") Long id, @Param("amount") long amount);
+
+    /**
+     * Reads the current balance of an account without loading the entity.
+     * Called right after a guarded update, in the same transaction, it returns the post-operation balance.
+     *
+     * @param id the account ID
+     * @return the balance in minor units, or empty if the account does not exist
+     */
+    @Query("select a.balance from Account a where a.id = :id")
+    Optional<Long> findBalanceById(@Param("id") Long id);
+
+    /**
+     * Reads the current balance of an account and the version of its row without loading the entity.
+     * Called right after a guarded update, in the same transaction, it returns the post-operation state.
+     *
+     * @param id the account ID
+     * @return the balance and version, or empty if the account does not exist
+     */
+    @Query("select new com.kata.bankAccount.repository.VersionedBalance(a.balance, a.version) "
+            + "from Account a where a.id = :id")
+    Optional<VersionedBalance> findVersionedBalanceById(@Param("id") Long id);
+
+    /**
+     * Reads the version of an account row without loading the entity. Every balance change, and so every new
+     * operation of the account, increments it: it is a cheap change marker of the statement and the history.
+     *
+     * @param id the account ID
+     * @return the version, or empty if the account does not exist
+     */
+    @Query("select a.version from Account a where a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Overwrites the balance of an account with a value computed elsewhere (by the in-memory ledger).
+     *
+     * @param id the account ID
+     * @param balance the new balance, in minor units
+     * @return the number of updated rows, 0 if the account does not exist
+     */
+    @Modifying
+    @Query("update Account a set a.balance = :balance, a.version = a.version + 1 where a.id = :id")
+    int updateBalance(@Param("id") Long id, @Param("balance") long balance);
+
+    /**
+     * Loads an account and locks its row (SELECT ... FOR UPDATE) until the end of the transaction.
+     *
+     * @param id the account ID
+     * @return the locked account, or empty if it does not exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Loads several accounts and locks their rows, in ID order, until the end of the transaction.
+     *
+     * @param ids the account IDs
+     * @return the locked accounts that exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id in :ids order by a.id")
+    List<Account> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Balances of a range of accounts, each with the ID of its last operation, read in one statement.
+     * The last operation is found through the (account_id, id) index.
+     *
+     * @param fromId the inclusive lower bound of the account IDs
+     * @param toId the exclusive upper bound of the account IDs
+     * @return the accounts of the range, in ID order
+     */
+    @Query("select new com.kata.bankAccount.repository.ReconciledAccount(a.id, a.balance, "
+            + "(select max(o.id) from Operation o where o.account.id = a.id)) "
+            + "from Account a where a.id >= :fromId and a.id < :toId order by a.id")
+    List<ReconciledAccount> findReconciledAccounts(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Query("select min(a.id) from Account a")
+    Optional<Long> findMinId();
+
+    @Query("select max(a.id) from Account a")
+    Optional<Long> findMaxId();
+
+    /**
+     * IDs of the accounts after a given one and before a bound, in ID order, read through the primary key.
+     *
+     * @param afterId the ID of the last account not to read
+     * @param toId the exclusive upper bound of the account IDs
+     * @param pageable the number of IDs to read (always page 0)
+     * @return the account IDs
+     */
+    @Query("select a.id from Account a where a.id > :afterId and a.id < :toId order by a.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, @Param("toId") Long toId, Pageable pageable);
+}
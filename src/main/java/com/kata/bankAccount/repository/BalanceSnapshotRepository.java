@@ -0,0 +1,38 @@
+package com.kata.bankAccount.repository;
+
+import com.kata.bankAccount.model.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    /**
+     * Moves the snapshot of every account with new operations to its last operation dated before a bound,
+     * in one set-based statement. Only the operations after the highest operation already snapshotted are read,
+     * through the primary key, so the cost of a run follows the activity since the previous run.
+     * A snapshot never moves back to an older operation.
+     *
+     * @param before only the operations dated strictly before this bound are considered
+     * @param takenAt the date recorded in the updated snapshots
+     * @return the number of snapshots inserted or updated
+     */
+    @Modifying
+    @Query(value = "MERGE INTO balance_snapshot s "
+            + "USING (SELECT o.account_id, o.id, o.post_operation_balance FROM operation o "
+            + "       JOIN (SELECT account_id, MAX(id) AS id FROM operation "
+            + "             WHERE id > (SELECT COALESCE(MAX(last_operation_id), 0) FROM balance_snapshot) "
+            + "             AND date < :before GROUP BY account_id) m ON o.id = m.id) latest "
+            + "ON s.account_id = latest.account_id "
+            + "WHEN MATCHED AND s.last_operation_id < latest.id THEN UPDATE SET "
+            + "  balance = latest.post_operation_balance, last_operation_id = latest.id, taken_at = :takenAt "
+            + "WHEN NOT MATCHED THEN INSERT (account_id, balance, last_operation_id, taken_at) "
+            + "  VALUES (latest.account_id, latest.post_operation_balance, latest.id, :takenAt)",
+            nativeQuery = true)
+    int refreshSnapshots(@Param("before") LocalDateTime before, @Param("takenAt") LocalDateTime takenAt);
+}
@@ -1,12 +1,200 @@
 package com.kata.bankAccount.repository;
 
+import com.kata.bankAccount.dto.OperationDTO;
+import com.kata.bankAccount.enums.OperationType;
 import com.kata.bankAccount.model.Operation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OperationRepository extends JpaRepository<Operation, Long> {
+
+    // Number of rows fetched per round trip by the streaming queries
+    String STREAM_FETCH_SIZE = "1000";
+
     List<Operation> findByAccountId(Long accountId);
+
+    /**
+     * Reads the history of an account straight into DTOs, ordered by ID.
+     * The operations and their account are read with a single join: no entity is hydrated or managed,
+     * and the lazy account association is never initialized.
+     *
+     * @param accountId the account ID
+     * @return the operations of the account
+     */
+    @Query("select new com.kata.bankAccount.dto.OperationDTO(o.id, o.date, o.operationType, o.amount, "
+            + "o.PostOperationBalance, o.transferReference, a.id, a.balance) "
+            + "from Operation o join o.account a where a.id = :accountId order by o.id")
+    List<OperationDTO> findDtosByAccountId(@Param("accountId") Long accountId);
+
+    /**
+     * Last operation of an account at or before a point in time, in (date, id) order: its post-operation balance
+     * is the balance of the account at that point in time. A single seek on the (account_id, date desc, id desc)
+     * index, whose order the query follows.
+     *
+     * @param accountId the account ID
+     * @param at the point in time, inclusive
+     * @return the last operation of the account at or before it, empty if there is none
+     */
+    @Query("select o from Operation o where o.account.id = :accountId and o.date <= :at "
+            + "order by o.account.id, o.date desc, o.id desc limit 1")
+    Optional<Operation> findLastOperationAtOrBefore(@Param("accountId") Long accountId, @Param("at") LocalDateTime at);
+
+    /**
+     * Last operation of an account strictly before a point in time, in (date, id) order. A single seek on the
+     * (account_id, date desc, id desc) index, whose order the query follows.
+     *
+     * @param accountId the account ID
+     * @param before the point in time, exclusive
+     * @return the last operation of the account before it, empty if there is none
+     */
+    @Query("select o from Operation o where o.account.id = :accountId and o.date < :before "
+            + "order by o.account.id, o.date desc, o.id desc limit 1")
+    Optional<Operation> findLastOperationBefore(@Param("accountId") Long accountId,
+                                                @Param("before") LocalDateTime before);
+
+    /**
+     * First operation of an account at or after a point in time, in (date, id) order. A single seek on the
+     * (account_id, date, id) index, whose order the query follows.
+     *
+     * @param accountId the account ID
+     * @param from the point in time, inclusive
+     * @return the first operation of the account at or after it, empty if there is none
+     */
+    @Query("select o from Operation o where o.account.id = :accountId and o.date >= :from "
+            + "order by o.account.id, o.date, o.id limit 1")
+    Optional<Operation> findFirstOperationFrom(@Param("accountId") Long accountId, @Param("from") LocalDateTime from);
+
+    /**
+     * Operations of an account after a given operation, in ID order, read through the (account_id, id) index.
+     *
+     * @param accountId the account ID
+     * @param id the ID of the last operation not to read
+     * @return the operations of the account after it
+     */
+    List<Operation> findByAccountIdAndIdGreaterThanOrderByIdAsc(Long accountId, Long id);
+
+    /**
+     * Sequence of the last journal record persisted by the in-memory ledger.
+     *
+     * @return the highest journal sequence of the operation table, empty if none
+     */
+    @Query("select max(o.journalSequence) from Operation o")
+    Optional<Long> findMaxJournalSequence();
+
+    /**
+     * Journal sequences already persisted in a range, to tell which records kept by the journal still need replaying.
+     *
+     * @param from the first sequence of the range
+     * @param to the last sequence of the range
+     * @return the persisted journal sequences of the range
+     */
+    @Query("select o.journalSequence from Operation o where o.journalSequence between :from and :to")
+    List<Long> findJournalSequencesBetween(@Param("from") long from, @Param("to") long to);
+
+    /**
+     * Keyset pagination of the history of an account, ordered by (date, id).
+     * Returns the operations strictly after the (afterDate, afterId) position and strictly before the to date,
+     * optionally of a single type; the page size is given by the pageable (always page 0).
+     * The operations are filtered on their account_id column, without a join, and the redundant date >= afterDate
+     * bound gives the (account_id, date, id) index a range to seek to; ordering by the same columns as the index
+     * lets it deliver the rows already sorted, so every page reads only its own rows, like the first one.
+     * The balance of the account is read once by a primary-key subquery. Rows are projected straight into DTOs.
+     *
+     * @param accountId the account ID
+     * @param afterDate the date of the last operation of the previous page (or the lower bound of the range)
+     * @param afterId the ID of the last operation of the previous page (or 0)
+     * @param to the exclusive upper bound of the dates
+     * @param operationType the type of operations to keep, or null for all of them
+     * @param pageable the page size
+     * @return the operations of the page
+     */
+    @Query("select new com.kata.bankAccount.dto.OperationDTO(o.id, o.date, o.operationType, o.amount, "
+            + "o.PostOperationBalance, o.transferReference, o.account.id, "
+            + "(select a.balance from Account a where a.id = :accountId)) "
+            + "from Operation o where o.account.id = :accountId "
+            + "and o.date >= :afterDate and (o.date > :afterDate or (o.date = :afterDate and o.id > :afterId)) "
+            + "and o.date < :to "
+            + "and (:operationType is null or o.operationType = :operationType) "
+            + "order by o.account.id, o.date, o.id")
+    List<OperationDTO> findPageAfter(@Param("accountId") Long accountId, @Param("afterDate") LocalDateTime afterDate,
+                                     @Param("afterId") Long afterId, @Param("to") LocalDateTime to,
+                                     @Param("operationType") OperationType operationType, Pageable pageable);
+
+    /**
+     * Streams the operations of an account from a database cursor, ordered by ID.
+     * Must be consumed inside a transaction and closed after use.
+     *
+     * @param accountId the account ID
+     * @return a stream over the operations of the account
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select o from Operation o where o.account.id = :accountId order by o.id")
+    Stream<Operation> streamByAccountId(@Param("accountId") Long accountId);
+
+    /**
+     * Streams the operations of a range of accounts from a database cursor, ordered by account then ID,
+     * projected straight into records so that the persistence context does not grow with the stream.
+     * Served by the (account_id, id) index. Must be consumed inside a transaction and closed after use.
+     *
+     * @param fromAccountId the inclusive lower bound of the account IDs
+     * @param toAccountId the exclusive upper bound of the account IDs
+     * @param maxId the highest operation ID to read
+     * @return a stream over the operations of the range
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select new com.kata.bankAccount.repository.ReconciledOperation(o.account.id, o.id, o.operationType, "
+            + "o.amount, o.PostOperationBalance) from Operation o "
+            + "where o.account.id >= :fromAccountId and o.account.id < :toAccountId and o.id <= :maxId "
+            + "order by o.account.id, o.id")
+    Stream<ReconciledOperation> streamForReconciliation(@Param("fromAccountId") Long fromAccountId,
+                                                        @Param("toAccountId") Long toAccountId,
+                                                        @Param("maxId") Long maxId);
+
+    /**
+     * Streams the operations of an account over a date range from a database cursor, ordered by (date, id),
+     * projected straight into records. Served by the (account_id, date, id) index.
+     * Must be consumed inside a transaction and closed after use.
+     *
+     * @param accountId the account ID
+     * @param from the inclusive lower bound of the dates
+     * @param to the exclusive upper bound of the dates
+     * @return a stream over the operations of the account in the range
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select new com.kata.bankAccount.repository.StatementLine(o.id, o.date, o.operationType, o.amount, "
+            + "o.PostOperationBalance) from Operation o "
+            + "where o.account.id = :accountId and o.date >= :from and o.date < :to order by o.date, o.id")
+    Stream<StatementLine> streamStatementLines(@Param("accountId") Long accountId, @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+
+    /**
+     * ID of the last operation dated strictly before a bound.
+     *
+     * @param before the bound
+     * @return the highest ID of the operations dated before it, empty if none
+     */
+    @Query("select max(o.id) from Operation o where o.date < :before")
+    Optional<Long> findMaxIdBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Streams the operations of all accounts from a database cursor, ordered by ID.
+     * Must be consumed inside a transaction and closed after use.
+     *
+     * @return a stream over all the operations
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select o from Operation o order by o.id")
+    Stream<Operation> streamAll();
 }
@@ -0,0 +1,58 @@
+package com.kata.bankAccount.repository;
+
+import com.kata.bankAccount.enums.SummaryGranularity;
+import com.kata.bankAccount.model.OperationSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface OperationSummaryRepository extends JpaRepository<OperationSummary, OperationSummary.Key> {
+
+    /**
+     * Adds totals to the summary of an account over one period, creating it if needed, in one statement.
+     * Must run in the transaction that inserts the operations, which already holds the lock of the account:
+     * the summaries of an account are therefore never incremented concurrently.
+     *
+     * @param accountId the account ID
+     * @param granularity the name of the granularity of the period
+     * @param periodStart the first day of the period
+     * @param credits the amount credited, in minor units
+     * @param debits the amount debited, in minor units
+     * @param count the number of operations
+     * @return the number of summaries inserted or updated
+     */
+    @Modifying
+    @Query(value = "MERGE INTO operation_summary s "
+            + "USING (VALUES (CAST(:accountId AS BIGINT), CAST(:granularity AS VARCHAR(8)), CAST(:periodStart AS DATE))) "
+            + "  AS p(account_id, granularity, period_start) "
+            + "ON s.account_id = p.account_id AND s.granularity = p.granularity AND s.period_start = p.period_start "
+            + "WHEN MATCHED THEN UPDATE SET total_credits = s.total_credits + :credits, "
+            + "  total_debits = s.total_debits + :debits, operation_count = s.operation_count + :count "
+            + "WHEN NOT MATCHED THEN INSERT (account_id, granularity, period_start, total_credits, total_debits, operation_count) "
+            + "  VALUES (p.account_id, p.granularity, p.period_start, :credits, :debits, :count)",
+            nativeQuery = true)
+    int addToSummary(@Param("accountId") Long accountId, @Param("granularity") String granularity,
+                     @Param("periodStart") LocalDate periodStart, @Param("credits") long credits,
+                     @Param("debits") long debits, @Param("count") long count);
+
+    /**
+     * Summaries of an account for the periods starting in a range, read through the primary key.
+     *
+     * @param accountId the account ID
+     * @param granularity the granularity of the periods
+     * @param from the inclusive lower bound of the period starts
+     * @param to the exclusive upper bound of the period starts
+     * @return the summaries, ordered by period
+     */
+    @Query("select s from OperationSummary s where s.accountId = :accountId and s.granularity = :granularity "
+            + "and s.periodStart >= :from and s.periodStart < :to order by s.periodStart")
+    List<OperationSummary> findPeriods(@Param("accountId") Long accountId,
+                                       @Param("granularity") SummaryGranularity granularity,
+                                       @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
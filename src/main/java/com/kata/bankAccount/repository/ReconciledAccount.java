@@ -0,0 +1,11 @@
+package com.kata.bankAccount.repository;
+
+/**
+ * Balance of an account together with its last operation, read in one statement so that both are consistent.
+ *
+ * @param id the ID of the account
+ * @param balance the balance, in minor units
+ * @param lastOperationId the ID of the last operation of the account, null if it has none
+ */
+public record ReconciledAccount(Long id, long balance, Long lastOperationId) {
+}
@@ -0,0 +1,16 @@
+package com.kata.bankAccount.repository;
+
+import com.kata.bankAccount.enums.OperationType;
+
+/**
+ * Fields of an operation checked by a reconciliation run, read without hydrating the entity.
+ *
+ * @param accountId the ID of the account of the operation
+ * @param id the ID of the operation
+ * @param operationType the type of the operation
+ * @param amount the amount, in minor units
+ * @param postOperationBalance the balance of the account right after the operation, in minor units
+ */
+public record ReconciledOperation(Long accountId, Long id, OperationType operationType, long amount,
+                                  long postOperationBalance) {
+}
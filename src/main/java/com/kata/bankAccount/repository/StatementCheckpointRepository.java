@@ -0,0 +1,13 @@
+package com.kata.bankAccount.repository;
+
+import com.kata.bankAccount.model.StatementCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StatementCheckpointRepository extends JpaRepository<StatementCheckpoint, StatementCheckpoint.Key> {
+
+    List<StatementCheckpoint> findByPeriodOrderByPartitionIndex(String period);
+}
@@ -0,0 +1,18 @@
+package com.kata.bankAccount.repository;
+
+import com.kata.bankAccount.enums.OperationType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fields of an operation written to a monthly statement, read without hydrating the entity.
+ *
+ * @param id the ID of the operation
+ * @param date the date of the operation
+ * @param operationType the type of the operation
+ * @param amount the amount, in minor units
+ * @param postOperationBalance the balance of the account right after the operation, in minor units
+ */
+public record StatementLine(Long id, LocalDateTime date, OperationType operationType, long amount,
+                            long postOperationBalance) {
+}
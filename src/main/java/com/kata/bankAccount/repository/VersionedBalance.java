@@ -0,0 +1,10 @@
+package com.kata.bankAccount.repository;
+
+/**
+ * Balance of an account together with the version of its row, read without loading the entity.
+ *
+ * @param balance the balance, in minor units
+ * @param version the version of the account row, incremented by every balance update
+ */
+public record VersionedBalance(long balance, Long version) {
+}
@@ -0,0 +1,118 @@
+package com.kata.bankAccount.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.kata.bankAccount.config.BalanceCacheProperties;
+import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.util.ValidationUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, size- and TTL-evicting cache of account statements, keyed by account ID.
+ * Writers only touch the cache once their transaction has committed, so readers never see an uncommitted
+ * balance. Every entry carries the version of the account row it was read at, and an update only replaces an
+ * older entry: writers committing in one order and updating the cache in the other cannot leave a stale balance.
+ * Hit, miss and eviction statistics are published as the cache.* metrics with the tag cache=accountBalance.
+ */
+@Component
+public class AccountBalanceCache {
+
+    private final Cache<Long, CachedBalance> cache;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param balanceCacheProperties the settings of the cache (maximum size and TTL)
+     * @param meterRegistry the registry the cache statistics are published to
+     */
+    @Autowired
+    public AccountBalanceCache(BalanceCacheProperties balanceCacheProperties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(balanceCacheProperties.getMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(balanceCacheProperties.getTtlSeconds()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "accountBalance");
+    }
+
+    /**
+     * Returns the cached statement of an account, loading it on a miss. Concurrent misses on the same account
+     * share a single load, and a concurrent update or invalidation waits for the load to complete.
+     *
+     * @param accountId the account ID
+     * @param loader reads the committed balance and version of the account
+     * @return the statement of the account and the version of the account row it was read at
+     */
+    public CachedBalance get(Long accountId, Function<Long, CachedBalance> loader) {
+        return cache.get(accountId, loader);
+    }
+
+    /**
+     * Stores the balance written by the current transaction once it has committed, unless the same or a newer
+     * version is already cached. Applied immediately when no transaction is active.
+     *
+     * @param accountId the account ID
+     * @param balance the committed balance, in minor units
+     * @param version the version of the account row holding this balance
+     */
+    public void putAfterCommit(Long accountId, long balance, Long version) {
+        afterCommit(() -> cache.asMap().merge(accountId,
+                new CachedBalance(new AccountDTO(accountId, ValidationUtils.toMajorUnits(balance)), version),
+                (cached, updated) -> cached.isNewerThan(updated) ? cached : updated));
+    }
+
+    /**
+     * Evicts an account once the current transaction has committed, for writers that do not know the
+     * version they wrote. Applied immediately when no transaction is active.
+     *
+     * @param accountId the account ID
+     */
+    public void invalidateAfterCommit(Long accountId) {
+        afterCommit(() -> cache.invalidate(accountId));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     *  method to run an action after the commit of the current transaction, or now if there is none.
+     *  A rolled back transaction never runs the action.
+     *
+     * @param action the cache update
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * A cached statement and the version of the account row it was read at.
+     *
+     * @param account the statement
+     * @param version the version of the account row
+     */
+    public record CachedBalance(AccountDTO account, Long version) {
+
+        private boolean isNewerThan(CachedBalance other) {
+            return version != null && other.version != null && version >= other.version;
+        }
+    }
+}
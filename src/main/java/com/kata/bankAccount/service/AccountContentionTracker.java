@@ -0,0 +1,46 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.dto.AccountContentionDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts, per account, the optimistic-locking conflicts that were retried and the operations
+ * that were aborted after exhausting their retries. Only contended accounts get an entry.
+ */
+@Component
+public class AccountContentionTracker {
+
+    private final Map<Long, Counters> countersByAccount = new ConcurrentHashMap<>();
+
+    public void recordRetry(Long accountId) {
+        countersByAccount.computeIfAbsent(accountId, id -> new Counters()).retries.increment();
+    }
+
+    public void recordAbort(Long accountId) {
+        countersByAccount.computeIfAbsent(accountId, id -> new Counters()).aborts.increment();
+    }
+
+    /**
+     * Returns the contention counters of an account, zero if it never had a conflict.
+     *
+     * @param accountId the account ID
+     * @return the retry and abort counters of the account
+     */
+    public AccountContentionDTO getContention(Long accountId) {
+        Counters counters = countersByAccount.get(accountId);
+        return AccountContentionDTO.builder()
+                .accountId(accountId)
+                .retries(counters == null ? 0 : counters.retries.sum())
+                .aborts(counters == null ? 0 : counters.aborts.sum())
+                .build();
+    }
+
+    private static final class Counters {
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder aborts = new LongAdder();
+    }
+}
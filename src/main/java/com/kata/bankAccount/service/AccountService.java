@@ -1,6 +1,8 @@
 package com.kata.bankAccount.service;
 
+import com.kata.bankAccount.dto.AccountContentionDTO;
 import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.dto.TransferResultDTO;
 
 public interface AccountService {
 
@@ -8,5 +10,11 @@ public interface AccountService {
 
     AccountDTO withdraw(Long id, Double amount);
 
+    TransferResultDTO transfer(Long fromAccountId, Long toAccountId, Double amount);
+
     AccountDTO getAccountStatement(Long id);
-}
\ No newline at end of file
+
+    Long getStatementVersion(Long id);
+
+    AccountContentionDTO getAccountContention(Long id);
+}
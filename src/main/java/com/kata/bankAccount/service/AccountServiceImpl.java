@@ -1,90 +1,193 @@
 package com.kata.bankAccount.service;
 
+import com.kata.bankAccount.config.ConcurrencyProperties;
+import com.kata.bankAccount.dto.AccountContentionDTO;
 import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.dto.TransferResultDTO;
+import com.kata.bankAccount.enums.ConcurrencyMode;
 import com.kata.bankAccount.enums.OperationType;
 import com.kata.bankAccount.exception.BalanceNotSufficientException;
+import com.kata.bankAccount.exception.ConcurrentUpdateException;
+import com.kata.bankAccount.exception.InvalidTransferException;
 import com.kata.bankAccount.exception.NoSuchAccountException;
+import com.kata.bankAccount.jfr.BalanceMutationEvent;
+import com.kata.bankAccount.mapper.AccountMapper;
+import com.kata.bankAccount.metrics.BankMetrics;
 import com.kata.bankAccount.model.Account;
 import com.kata.bankAccount.model.Operation;
 import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.OperationRepository;
+import com.kata.bankAccount.repository.VersionedBalance;
 import com.kata.bankAccount.util.ValidationUtils;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 @Service
 public class AccountServiceImpl implements AccountService {
 
-    private final ModelMapper modelMapper;
+    private final AccountMapper accountMapper;
     private final AccountRepository accountRepository;
+    private final OperationRepository operationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrencyProperties concurrencyProperties;
+    private final AccountContentionTracker contentionTracker;
+    private final OperationCoalescer operationCoalescer;
+    private final BankMetrics bankMetrics;
+    private final AccountBalanceCache balanceCache;
+    private final OperationSummaryService operationSummaryService;
 
     /**
-     * Constructor-based dependency injection for ModelMapper and AccountRepository.
+     * Constructor-based dependency injection.
      *
-     * @param modelMapper the mapper to convert between entities and DTOs
+     * @param accountMapper the mapper to convert accounts to DTOs
      * @param accountRepository the repository to handle database operations for accounts
+     * @param operationRepository the repository used to persist new operations
+     * @param transactionManager the transaction manager used to run (and retry) each balance mutation in its own transaction
+     * @param concurrencyProperties the settings of the concurrency strategy (ATOMIC, OPTIMISTIC or BATCHED)
+     * @param contentionTracker the per-account counters of optimistic retries and aborts
+     * @param operationCoalescer the group commit of concurrent operations used in BATCHED mode
+     * @param bankMetrics the latency timers and failure counters of the operations
+     * @param balanceCache the cache of account statements, updated once the balance mutations have committed
+     * @param operationSummaryService the daily and monthly summaries, incremented with each new operation
      */
     @Autowired
-    public AccountServiceImpl(ModelMapper modelMapper, AccountRepository accountRepository) {
-        this.modelMapper = modelMapper;
+    public AccountServiceImpl(AccountMapper accountMapper, AccountRepository accountRepository,
+                              OperationRepository operationRepository, PlatformTransactionManager transactionManager,
+                              ConcurrencyProperties concurrencyProperties, AccountContentionTracker contentionTracker,
+                              OperationCoalescer operationCoalescer, BankMetrics bankMetrics,
+                              AccountBalanceCache balanceCache, OperationSummaryService operationSummaryService) {
+        this.accountMapper = accountMapper;
         this.accountRepository = accountRepository;
+        this.operationRepository = operationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.concurrencyProperties = concurrencyProperties;
+        this.contentionTracker = contentionTracker;
+        this.operationCoalescer = operationCoalescer;
+        this.bankMetrics = bankMetrics;
+        this.balanceCache = balanceCache;
+        this.operationSummaryService = operationSummaryService;
     }
 
     /**
-     * Deposit a specific amount into an account
-     * with a serializable isolation transaction in case of concurrent transactions.
+     * Deposit a specific amount into an account.
+     * In ATOMIC mode the balance is credited by a single atomic UPDATE, so concurrent deposits on the same account
+     * neither read-modify-write the entity nor need a serializable transaction.
+     * In OPTIMISTIC mode the versioned entity is updated and the deposit is retried on conflict.
+     * In BATCHED mode the deposit is committed together with the concurrent operations on the same account.
      *
      * @param id the account ID
      * @param amount the amount to deposit
      * @return an updated AccountDTO reflecting the new balance
      */
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE) // Ensures serialized transactions for data consistency
     public AccountDTO deposit(Long id, Double amount) {
-        ValidationUtils.validateAmount(amount); // Validate that the amount is positive
-        Account account = findAccount(id); // Fetch the account or throw an exception if not found
-        account.setBalance(account.getBalance() + amount); // Update the account balance
-        addOperation(account, OperationType.DEPOSIT, amount); // Log the deposit operation
-        return modelMapper.map(accountRepository.save(account), AccountDTO.class); // Save and map to DTO
+        return bankMetrics.recordOperation(BankMetrics.DEPOSIT, () -> {
+            long minorAmount = ValidationUtils.toMinorUnits(amount); // Validate the amount and convert it to minor units
+            return applyOperation(id, OperationType.DEPOSIT, minorAmount);
+        });
     }
 
     /**
-     * Withdraw a specific amount from an account,
-     * with a serializable isolation transaction in case of concurrent transactions
-     * ensuring sufficient balance.
+     * Withdraw a specific amount from an account, ensuring sufficient balance.
+     * In ATOMIC mode the balance is debited by a single guarded UPDATE that only applies if the balance stays
+     * positive or zero, so the sufficient-funds check and the debit are atomic without a prior SELECT.
+     * In OPTIMISTIC mode the versioned entity is updated and the withdrawal is retried on conflict.
+     * In BATCHED mode the withdrawal is committed together with the concurrent operations on the same account.
      *
      * @param id the account ID
      * @param amount the amount to withdraw
      * @return an updated AccountDTO reflecting the new balance
      */
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     public AccountDTO withdraw(Long id, Double amount) {
-        ValidationUtils.validateAmount(amount); // Validate that the amount is positive
-        Account account = findAccount(id); // Fetch the account or throw an exception if not found
-        if (account.getBalance() < amount) { // Check for sufficient funds
-            throw new BalanceNotSufficientException("Insufficient funds.");
-        }
-        account.setBalance(account.getBalance() - amount); // Update the account balance
-        addOperation(account, OperationType.WITHDRAWAL, amount); // Log the withdrawal operation
-        return modelMapper.map(accountRepository.save(account), AccountDTO.class); // Save and map to DTO
+        return bankMetrics.recordOperation(BankMetrics.WITHDRAW, () -> {
+            long minorAmount = ValidationUtils.toMinorUnits(amount); // Validate the amount and convert it to minor units
+            return applyOperation(id, OperationType.WITHDRAWAL, minorAmount);
+        });
+    }
+
+    /**
+     * Transfer an amount from one account to another in a single transaction, whatever the concurrency mode.
+     * Both account rows are locked in ID order, so opposite transfers between the same accounts queue on the
+     * first lock instead of deadlocking. The debit and the credit are written as a TRANSFER_OUT and a
+     * TRANSFER_IN operation sharing the same transfer reference.
+     *
+     * @param fromAccountId the ID of the account to debit
+     * @param toAccountId the ID of the account to credit
+     * @param amount the amount to transfer
+     * @return the transfer reference and the post-transfer balances of both accounts
+     */
+    @Override
+    public TransferResultDTO transfer(Long fromAccountId, Long toAccountId, Double amount) {
+        return bankMetrics.recordOperation(BankMetrics.TRANSFER, () -> {
+            long minorAmount = ValidationUtils.toMinorUnits(amount); // Validate the amount and convert it to minor units
+            if (fromAccountId == null || toAccountId == null || fromAccountId.equals(toAccountId)) {
+                throw new InvalidTransferException("A transfer needs two different accounts.");
+            }
+            return transactionTemplate.execute(status -> applyTransfer(fromAccountId, toAccountId, minorAmount));
+        });
     }
 
     /**
      * Retrieve the statement for a specific account.
+     * Served from the balance cache, which only holds committed balances; the account is read from
+     * the database on a miss.
      *
      * @param id the account ID
      * @return the account's details as an AccountDTO
      */
     @Override
-    @Transactional
     public AccountDTO getAccountStatement(Long id) {
-        return modelMapper.map(findAccount(id), AccountDTO.class); // Fetch and map account details
+        return bankMetrics.recordOperation(BankMetrics.STATEMENT, () -> getCachedBalance(id).account());
+    }
+
+    /**
+     * Retrieve the version of the statement of an account, used as its ETag.
+     * Read from the balance cache like the statement itself: it is the version of the account row the cached
+     * balance was read at, and it changes with every deposit or withdrawal.
+     *
+     * @param id the account ID
+     * @return the version of the account's statement
+     */
+    @Override
+    public Long getStatementVersion(Long id) {
+        return getCachedBalance(id).version();
+    }
+
+    /**
+     * Retrieve the optimistic-locking retry and abort counters of an account.
+     *
+     * @param id the account ID
+     * @return the contention counters of the account
+     */
+    @Override
+    public AccountContentionDTO getAccountContention(Long id) {
+        return contentionTracker.getContention(id);
+    }
+
+    /**
+     *  method to read the committed statement of an account and its version from the balance cache,
+     *  reading the account from the database on a miss.
+     *
+     * @param id the account ID
+     * @return the cached statement and the version of the account row it was read at
+     */
+    private AccountBalanceCache.CachedBalance getCachedBalance(Long id) {
+        return balanceCache.get(id, accountId -> {
+            Account account = findAccount(accountId); // Fetch and map account details
+            return new AccountBalanceCache.CachedBalance(accountMapper.toDto(account), account.getVersion());
+        });
     }
 
     /**
@@ -99,24 +202,242 @@ public class AccountServiceImpl implements AccountService {
     }
 
     /**
-     *  method to log operations (deposit or withdrawal) for an account.
+     *  method to apply a deposit or a withdrawal with the configured concurrency strategy.
+     *  Emits a BalanceMutationEvent when the event is enabled in a running JFR recording.
+     *
+     * @param id the account ID
+     * @param type the type of operation (DEPOSIT or WITHDRAWAL)
+     * @param amount the validated amount, in minor units
+     * @return an AccountDTO reflecting the post-operation balance
+     */
+    private AccountDTO applyOperation(Long id, OperationType type, long amount) {
+        ConcurrencyMode mode = concurrencyProperties.getMode();
+        BalanceMutationEvent event = new BalanceMutationEvent();
+        event.start();
+        try {
+            AccountDTO result = switch (mode) {
+                case OPTIMISTIC -> applyWithOptimisticRetry(id, type, amount, event);
+                case BATCHED -> operationCoalescer.submit(id, type, amount); // Timed as a whole: no per-request transaction
+                case ATOMIC -> executeAttempt(event, () -> applyAtomically(id, type, amount, event));
+            };
+            event.outcome = "SUCCESS";
+            return result;
+        } catch (RuntimeException ex) {
+            event.outcome = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            if (event.shouldCommit()) { // False unless the event is enabled in a running recording
+                event.accountId = id;
+                event.operationType = type.name();
+                event.concurrencyMode = mode.name();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     *  method to run one attempt of a mutation in its own transaction, timing it for the JFR event.
+     *
+     * @param event the JFR event of the mutation
+     * @param attempt the mutation, run inside the transaction
+     * @return an AccountDTO reflecting the post-operation balance
+     */
+    private AccountDTO executeAttempt(BalanceMutationEvent event, Supplier<AccountDTO> attempt) {
+        event.attemptStarted();
+        AccountDTO result = transactionTemplate.execute(status -> {
+            event.transactionStarted();
+            return attempt.get();
+        });
+        event.transactionCommitted();
+        return result;
+    }
+
+    /**
+     *  method to apply an operation with a single-statement guarded UPDATE (ATOMIC mode).
+     *
+     * @param id the account ID
+     * @param type the type of operation (DEPOSIT or WITHDRAWAL)
+     * @param amount the validated amount, in minor units
+     * @param event the JFR event of the mutation
+     * @return an AccountDTO reflecting the post-operation balance
+     */
+    private AccountDTO applyAtomically(Long id, OperationType type, long amount, BalanceMutationEvent event) {
+        int updatedRows = type == OperationType.DEPOSIT
+                ? accountRepository.creditBalance(id, amount)
+                : accountRepository.debitBalanceIfSufficient(id, amount);
+        event.lockAcquired(); // The guarded UPDATE holds the row lock until commit
+        if (updatedRows == 0) {
+            // No row updated: either the account does not exist or (for a withdrawal) the funds are insufficient
+            if (type == OperationType.DEPOSIT || !accountRepository.existsById(id)) {
+                throw new NoSuchAccountException("No such account with ID: " + id);
+            }
+            throw new BalanceNotSufficientException("Insufficient funds.");
+        }
+        return recordOperation(id, type, amount);
+    }
+
+    /**
+     *  method to apply an operation on the versioned entity (OPTIMISTIC mode).
+     *  Each attempt runs in its own transaction; on a version conflict the operation is retried after a
+     *  jittered exponential backoff, up to the configured number of retries.
      *
-     * @param account the account where the operation is performed
+     * @param id the account ID
      * @param type the type of operation (DEPOSIT or WITHDRAWAL)
-     * @param amount the amount involved in the operation
+     * @param amount the validated amount, in minor units
+     * @param event the JFR event of the mutation
+     * @return an AccountDTO reflecting the post-operation balance
+     */
+    private AccountDTO applyWithOptimisticRetry(Long id, OperationType type, long amount, BalanceMutationEvent event) {
+        ConcurrencyProperties.Optimistic settings = concurrencyProperties.getOptimistic();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return executeAttempt(event, () -> applyOptimistically(id, type, amount, event));
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= settings.getMaxRetries()) {
+                    contentionTracker.recordAbort(id);
+                    throw new ConcurrentUpdateException("Too many concurrent updates on account with ID: " + id);
+                }
+                contentionTracker.recordRetry(id);
+                bankMetrics.recordOptimisticRetry();
+                event.retries++;
+                backOff(id, attempt, settings.getBackoffMs());
+            }
+        }
+    }
+
+    /**
+     *  method to apply one optimistic attempt: the version check happens when the entity is flushed.
+     *
+     * @param id the account ID
+     * @param type the type of operation (DEPOSIT or WITHDRAWAL)
+     * @param amount the validated amount, in minor units
+     * @param event the JFR event of the mutation
+     * @return an AccountDTO reflecting the post-operation balance
+     */
+    private AccountDTO applyOptimistically(Long id, OperationType type, long amount, BalanceMutationEvent event) {
+        Account account = findAccount(id); // Fetch the account or throw an exception if not found
+        if (type == OperationType.WITHDRAWAL && account.getBalance() < amount) { // Check for sufficient funds
+            throw new BalanceNotSufficientException("Insufficient funds.");
+        }
+        account.setBalance(type == OperationType.DEPOSIT
+                ? account.getBalance() + amount
+                : account.getBalance() - amount); // Update the account balance
+        accountRepository.saveAndFlush(account); // Fails with an OptimisticLockingFailureException on a version conflict
+        event.lockAcquired(); // The versioned UPDATE holds the row lock until commit
+        addOperation(account, type, amount, account.getBalance(), null);
+        balanceCache.putAfterCommit(id, account.getBalance(), account.getVersion());
+        return AccountDTO.builder()
+                .id(id)
+                .balance(ValidationUtils.toMajorUnits(account.getBalance()))
+                .build();
+    }
+
+    /**
+     *  method to apply a transfer on both locked accounts, inside the transaction of the transfer.
+     *
+     * @param fromAccountId the ID of the account to debit
+     * @param toAccountId the ID of the account to credit
+     * @param amount the validated amount, in minor units
+     * @return the transfer reference and the post-transfer balances of both accounts
+     */
+    private TransferResultDTO applyTransfer(Long fromAccountId, Long toAccountId, long amount) {
+        // Lock in ID order, whatever the direction of the transfer, so that concurrent transfers cannot deadlock
+        Account first = lockAccount(Math.min(fromAccountId, toAccountId));
+        Account second = lockAccount(Math.max(fromAccountId, toAccountId));
+        Account from = first.getId().equals(fromAccountId) ? first : second;
+        Account to = from == first ? second : first;
+        if (from.getBalance() < amount) { // Check for sufficient funds on the locked row
+            throw new BalanceNotSufficientException("Insufficient funds.");
+        }
+        from.setBalance(from.getBalance() - amount);
+        to.setBalance(to.getBalance() + amount); // Both balances are flushed at commit
+        String transferReference = UUID.randomUUID().toString();
+        addOperation(from, OperationType.TRANSFER_OUT, amount, from.getBalance(), transferReference);
+        addOperation(to, OperationType.TRANSFER_IN, amount, to.getBalance(), transferReference);
+        balanceCache.invalidateAfterCommit(fromAccountId); // The new versions are only assigned at flush
+        balanceCache.invalidateAfterCommit(toAccountId);
+        return TransferResultDTO.builder()
+                .transferReference(transferReference)
+                .fromAccount(accountMapper.toDto(from))
+                .toAccount(accountMapper.toDto(to))
+                .build();
+    }
+
+    /**
+     *  method to load an account and lock its row until the end of the transaction, or throw an exception if
+     *  not found.
+     *
+     * @param id the account ID
+     * @return the locked Account entity
      */
-    private void addOperation(Account account, OperationType type, Double amount) {
-        if (account.getOperations() == null) { // Initialize operations list if null
-            account.setOperations(new ArrayList<>());
+    private Account lockAccount(Long id) {
+        return accountRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new NoSuchAccountException("No such account with ID: " + id));
+    }
+
+    /**
+     *  method to wait before retrying a conflicting operation, for a random delay up to backoffMs * 2^attempt.
+     *
+     * @param id the account ID
+     * @param attempt the number of the failed attempt, starting at 0
+     * @param backoffMs the base delay in milliseconds
+     */
+    private void backOff(Long id, int attempt, long backoffMs) {
+        long maxDelay = backoffMs << Math.min(attempt, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelay + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            contentionTracker.recordAbort(id);
+            throw new ConcurrentUpdateException("Interrupted while retrying an update on account with ID: " + id);
         }
+    }
+
+    /**
+     *  method to read the post-operation balance of an updated account, log the operation and schedule the
+     *  update of the balance cache after commit.
+     *  Must run in the transaction of the balance update, which still holds the row lock.
+     *
+     * @param id the account ID
+     * @param type the type of operation (DEPOSIT or WITHDRAWAL)
+     * @param amount the amount involved in the operation, in minor units
+     * @return an AccountDTO reflecting the post-operation balance
+     */
+    private AccountDTO recordOperation(Long id, OperationType type, long amount) {
+        VersionedBalance updated = accountRepository.findVersionedBalanceById(id)
+                .orElseThrow(() -> new NoSuchAccountException("No such account with ID: " + id));
+        addOperation(accountRepository.getReferenceById(id), type, amount, updated.balance(), null);
+        balanceCache.putAfterCommit(id, updated.balance(), updated.version());
+        return AccountDTO.builder()
+                .id(id)
+                .balance(ValidationUtils.toMajorUnits(updated.balance()))
+                .build();
+    }
+
+    /**
+     *  method to log operations (deposit, withdrawal or transfer leg) for an account.
+     *  The operation row is inserted directly through the OperationRepository: the lazy
+     *  Account.operations collection is never touched, so the cost of a write does not grow
+     *  with the size of the account history.
+     *
+     * @param account the account where the operation is performed (a reference is enough)
+     * @param type the type of operation
+     * @param amount the amount involved in the operation, in minor units
+     * @param postOperationBalance the balance of the account once the operation is applied, in minor units
+     * @param transferReference the reference linking the two operations of a transfer, or null
+     */
+    private void addOperation(Account account, OperationType type, long amount, long postOperationBalance,
+                              String transferReference) {
         // Create a new operation object
         Operation operation = Operation.builder()
                 .operationType(type)
                 .amount(amount)
-                .PostOperationBalance(account.getBalance())
+                .PostOperationBalance(postOperationBalance)
+                .transferReference(transferReference)
                 .account(account)
                 .date(LocalDateTime.now())
                 .build();
-        account.getOperations().add(operation);
+        operationRepository.save(operation); // Insert the operation row without loading the history
+        operationSummaryService.record(List.of(operation)); // The account is already locked or updated
     }
 }
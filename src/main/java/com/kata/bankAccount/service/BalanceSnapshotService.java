@@ -0,0 +1,141 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.SnapshotProperties;
+import com.kata.bankAccount.exception.NoSuchAccountException;
+import com.kata.bankAccount.metrics.BankMetrics;
+import com.kata.bankAccount.model.BalanceSnapshot;
+import com.kata.bankAccount.model.Operation;
+import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.BalanceSnapshotRepository;
+import com.kata.bankAccount.repository.OperationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodic per-account balance checkpoints, and balance recovery from them.
+ * A snapshot holds the balance of an account after a given operation; recovering a balance reads the snapshot,
+ * then only the operations after it, whose amounts are replayed and checked against their PostOperationBalance.
+ * Recovery time therefore follows the recent activity of an account, not the size of its history.
+ */
+@Slf4j
+@Service
+public class BalanceSnapshotService {
+
+    private final BalanceSnapshotRepository snapshotRepository;
+    private final OperationRepository operationRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SnapshotProperties snapshotProperties;
+    private final BankMetrics bankMetrics;
+    private final ScheduledExecutorService scheduler; // Null when snapshots are disabled
+
+    // Bound used to read the last operation of an account, whatever its date
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    /**
+     * Constructor-based dependency injection; starts the periodic snapshots unless disabled.
+     *
+     * @param snapshotRepository the repository of the snapshots
+     * @param operationRepository the repository used to read the operations after a snapshot
+     * @param accountRepository the repository used to read the balance of an account without operations
+     * @param transactionManager the transaction manager used for each snapshot run
+     * @param snapshotProperties the settings of the snapshots (interval and lag)
+     * @param bankMetrics the counter of balances that do not match their operations
+     */
+    @Autowired
+    public BalanceSnapshotService(BalanceSnapshotRepository snapshotRepository, OperationRepository operationRepository,
+                                  AccountRepository accountRepository, PlatformTransactionManager transactionManager,
+                                  SnapshotProperties snapshotProperties, BankMetrics bankMetrics) {
+        this.snapshotRepository = snapshotRepository;
+        this.operationRepository = operationRepository;
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotProperties = snapshotProperties;
+        this.bankMetrics = bankMetrics;
+        long interval = snapshotProperties.getIntervalMs();
+        if (interval > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> new Thread(task, "balance-snapshot"));
+            this.scheduler.scheduleWithFixedDelay(this::takeSnapshotsSafely, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Moves the snapshots of the accounts with new operations to their last operation older than the lag.
+     *
+     * @return the number of snapshots inserted or updated
+     */
+    public int takeSnapshots() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime before = now.minusSeconds(snapshotProperties.getLagSeconds());
+        return transactionTemplate.execute(status -> snapshotRepository.refreshSnapshots(before, now));
+    }
+
+    /**
+     * Rebuilds the balance of an account from its snapshot and the operations after it. Without a snapshot,
+     * the balance is the post-operation balance of its last operation, or the balance of the account row if it
+     * has no operation yet. If the replayed amounts do not match the recorded post-operation balances, the last
+     * recorded one wins and the mismatch is logged and counted.
+     *
+     * @param accountId the account ID
+     * @return the recovered balance, in minor units
+     */
+    public long recoverBalance(Long accountId) {
+        Optional<BalanceSnapshot> snapshot = snapshotRepository.findById(accountId);
+        if (snapshot.isEmpty()) {
+            return operationRepository.findLastOperationAtOrBefore(accountId, MAX_DATE)
+                    .map(Operation::getPostOperationBalance)
+                    .or(() -> accountRepository.findBalanceById(accountId))
+                    .orElseThrow(() -> new NoSuchAccountException("No such account with ID: " + accountId));
+        }
+        List<Operation> operations = operationRepository.findByAccountIdAndIdGreaterThanOrderByIdAsc(accountId,
+                snapshot.get().getLastOperationId());
+        long balance = snapshot.get().getBalance();
+        boolean consistent = true;
+        for (Operation operation : operations) {
+            balance = operation.getOperationType().isCredit()
+                    ? balance + operation.getAmount()
+                    : balance - operation.getAmount();
+            consistent &= balance == operation.getPostOperationBalance();
+        }
+        if (!consistent) {
+            long recorded = operations.get(operations.size() - 1).getPostOperationBalance();
+            log.error("Balance of account {} replayed from its snapshot is {} but its last operation records {}",
+                    accountId, balance, recorded);
+            bankMetrics.recordSnapshotMismatch();
+            return recorded;
+        }
+        return balance;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     *  method used by the periodic snapshots: a failed run is logged and the next one catches up.
+     */
+    private void takeSnapshotsSafely() {
+        try {
+            int updated = takeSnapshots();
+            log.debug("Balance snapshots updated for {} accounts", updated);
+        } catch (RuntimeException ex) {
+            log.error("Failed to take balance snapshots", ex);
+        }
+    }
+}
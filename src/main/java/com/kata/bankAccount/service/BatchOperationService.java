@@ -0,0 +1,8 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.dto.BatchOperationRequestDTO;
+import com.kata.bankAccount.dto.BatchOperationResultDTO;
+
+public interface BatchOperationService {
+    BatchOperationResultDTO processBatch(BatchOperationRequestDTO request);
+}
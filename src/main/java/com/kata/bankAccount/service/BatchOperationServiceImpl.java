@@ -0,0 +1,181 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.BatchProperties;
+import com.kata.bankAccount.dto.BatchOperationItemDTO;
+import com.kata.bankAccount.dto.BatchOperationItemResultDTO;
+import com.kata.bankAccount.dto.BatchOperationRequestDTO;
+import com.kata.bankAccount.dto.BatchOperationResultDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.exception.InvalidBatchException;
+import com.kata.bankAccount.exception.InvalideAmountException;
+import com.kata.bankAccount.model.Account;
+import com.kata.bankAccount.model.Operation;
+import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.OperationRepository;
+import com.kata.bankAccount.util.ValidationUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@ConditionalOnProperty(prefix = "bankaccount.ledger", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class BatchOperationServiceImpl implements BatchOperationService {
+
+    private final AccountRepository accountRepository;
+    private final OperationRepository operationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BatchProperties batchProperties;
+    private final AccountBalanceCache balanceCache;
+    private final OperationSummaryService operationSummaryService;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param accountRepository the repository used to lock and update the accounts of a batch
+     * @param operationRepository the repository used to insert the operations of a batch
+     * @param transactionManager the transaction manager used for each batch
+     * @param batchProperties the settings of the batch endpoint (maximum size)
+     * @param balanceCache the cache of account statements, invalidated once a batch has committed
+     * @param operationSummaryService the daily and monthly summaries, incremented with each batch
+     */
+    @Autowired
+    public BatchOperationServiceImpl(AccountRepository accountRepository, OperationRepository operationRepository,
+                                     PlatformTransactionManager transactionManager, BatchProperties batchProperties,
+                                     AccountBalanceCache balanceCache,
+                                     OperationSummaryService operationSummaryService) {
+        this.accountRepository = accountRepository;
+        this.operationRepository = operationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.batchProperties = batchProperties;
+        this.balanceCache = balanceCache;
+        this.operationSummaryService = operationSummaryService;
+    }
+
+    /**
+     * Apply a batch of deposits and withdrawals spanning any number of accounts, in a single transaction.
+     * Every involved account is locked and loaded once; each operation is validated and applied in request order
+     * and reported individually, so an invalid operation does not fail the others. The new operations are
+     * inserted with saveAll, which Hibernate sends as JDBC batches thanks to the pooled operation sequence.
+     *
+     * @param request the operations to apply
+     * @return the per-operation outcome, in request order
+     */
+    @Override
+    public BatchOperationResultDTO processBatch(BatchOperationRequestDTO request) {
+        List<BatchOperationItemDTO> items = Optional.ofNullable(request.getOperations()).orElse(List.of());
+        if (items.isEmpty() || items.size() > batchProperties.getMaxOperations()) {
+            throw new InvalidBatchException("A batch must contain between 1 and "
+                    + batchProperties.getMaxOperations() + " operations.");
+        }
+        List<BatchOperationItemResultDTO> results = transactionTemplate.execute(status -> applyBatch(items));
+        int succeeded = (int) results.stream().filter(BatchOperationItemResultDTO::isSuccess).count();
+        return BatchOperationResultDTO.builder()
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .results(results)
+                .build();
+    }
+
+    /**
+     *  method to apply all the operations of a batch on the locked accounts.
+     *
+     * @param items the operations of the batch
+     * @return the outcome of each operation
+     */
+    private List<BatchOperationItemResultDTO> applyBatch(List<BatchOperationItemDTO> items) {
+        // Lock every involved account once, in ID order, so that concurrent batches cannot deadlock
+        List<Long> accountIds = items.stream()
+                .filter(Objects::nonNull) // A null item (JSON null in the array) is reported as invalid below
+                .map(BatchOperationItemDTO::getAccountId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+        Map<Long, Account> accounts = accountRepository.findAllByIdForUpdate(accountIds).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+
+        List<BatchOperationItemResultDTO> results = new ArrayList<>(items.size());
+        List<Operation> operations = new ArrayList<>(items.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int index = 0; index < items.size(); index++) {
+            BatchOperationItemDTO item = items.get(index);
+            String error = item == null
+                    ? "Operation must not be null."
+                    : validate(item, accounts.get(item.getAccountId()));
+            if (error != null) {
+                results.add(failure(index, item, error));
+                continue;
+            }
+            Account account = accounts.get(item.getAccountId());
+            long amount = ValidationUtils.toMinorUnits(item.getAmount()); // Already validated
+            account.setBalance(item.getOperationType() == OperationType.DEPOSIT
+                    ? account.getBalance() + amount
+                    : account.getBalance() - amount); // Flushed once per account at commit
+            operations.add(Operation.builder()
+                    .operationType(item.getOperationType())
+                    .amount(amount)
+                    .PostOperationBalance(account.getBalance())
+                    .account(account)
+                    .date(now)
+                    .build());
+            results.add(BatchOperationItemResultDTO.builder()
+                    .index(index)
+                    .accountId(item.getAccountId())
+                    .success(true)
+                    .balance(ValidationUtils.toMajorUnits(account.getBalance()))
+                    .build());
+        }
+        operationRepository.saveAll(operations);
+        operationSummaryService.record(operations);
+        accounts.keySet().forEach(balanceCache::invalidateAfterCommit);
+        return results;
+    }
+
+    /**
+     *  method to check one operation of a batch against the current state of its account.
+     *
+     * @param item the operation
+     * @param account the locked account, or null if it does not exist
+     * @return the reason why the operation cannot be applied, or null if it can
+     */
+    private String validate(BatchOperationItemDTO item, Account account) {
+        if (account == null) {
+            return "No such account with ID: " + item.getAccountId();
+        }
+        if (item.getOperationType() != OperationType.DEPOSIT && item.getOperationType() != OperationType.WITHDRAWAL) {
+            return "Operation type must be DEPOSIT or WITHDRAWAL.";
+        }
+        long amount;
+        try {
+            amount = ValidationUtils.toMinorUnits(item.getAmount());
+        } catch (InvalideAmountException ex) {
+            return ex.getMessage();
+        }
+        if (item.getOperationType() == OperationType.WITHDRAWAL && account.getBalance() < amount) {
+            return "Insufficient funds.";
+        }
+        return null;
+    }
+
+    private static BatchOperationItemResultDTO failure(int index, BatchOperationItemDTO item, String error) {
+        return BatchOperationItemResultDTO.builder()
+                .index(index)
+                .accountId(item == null ? null : item.getAccountId())
+                .success(false)
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.JfrProperties;
+import com.kata.bankAccount.dto.RecordingDTO;
+import com.kata.bankAccount.exception.RecordingInProgressException;
+import com.kata.bankAccount.jfr.BalanceMutationEvent;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Starts bounded Java Flight Recorder recordings on demand. A recording uses the configured JFR settings
+ * plus the BalanceMutationEvent, stops by itself after its duration and is then dumped to a file of the
+ * configured directory. Only one recording runs at a time.
+ * Guarded by a ReentrantLock rather than synchronized, which would pin a virtual thread to its carrier
+ * while the recording writes to disk.
+ */
+@Service
+public class FlightRecorderService {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final JfrProperties jfrProperties;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Recording current; // Guarded by lock
+
+    // Constructor injection is used to provide the JfrProperties dependency.
+    @Autowired
+    public FlightRecorderService(JfrProperties jfrProperties) {
+        this.jfrProperties = jfrProperties;
+    }
+
+    /**
+     * Starts a recording, dumped to a local file once its duration has elapsed.
+     *
+     * @param durationSeconds the duration of the recording, or null for the default one; capped by the configured maximum
+     * @return the recording and the file it will be dumped to
+     */
+    public RecordingDTO startRecording(Integer durationSeconds) {
+        lock.lock();
+        try {
+            return start(durationSeconds);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the running recording, if any, which dumps it to its file.
+     */
+    @PreDestroy
+    public void stopRecording() {
+        lock.lock();
+        try {
+            if (current != null && current.getState() == RecordingState.RUNNING) {
+                current.stop();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     *  method to start a recording, while holding the lock.
+     *
+     * @param durationSeconds the duration of the recording, or null for the default one
+     * @return the recording and the file it will be dumped to
+     */
+    private RecordingDTO start(Integer durationSeconds) {
+        if (current != null && current.getState() != RecordingState.STOPPED && current.getState() != RecordingState.CLOSED) {
+            throw new RecordingInProgressException("A recording is already running until " + current.getStopTime() + ".");
+        }
+        long seconds = durationSeconds == null ? jfrProperties.getDefaultDurationSeconds()
+                : Math.max(1, Math.min(durationSeconds, jfrProperties.getMaxDurationSeconds()));
+        Path file = Path.of(jfrProperties.getDirectory())
+                .resolve("bankaccount-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+        try {
+            Files.createDirectories(file.getParent());
+            Recording recording = new Recording(Configuration.getConfiguration(jfrProperties.getSettings()));
+            recording.setName("bankaccount-admin");
+            recording.enable(BalanceMutationEvent.class);
+            recording.setToDisk(true);
+            recording.setMaxSize(jfrProperties.getMaxSizeMb() * 1024 * 1024);
+            recording.setDuration(Duration.ofSeconds(seconds)); // Stops, then dumps to the destination
+            recording.setDestination(file);
+            recording.start();
+            current = recording;
+            return RecordingDTO.builder()
+                    .id(recording.getId())
+                    .file(file.toAbsolutePath().toString())
+                    .durationSeconds(seconds)
+                    .startTime(recording.getStartTime())
+                    .build();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (ParseException ex) {
+            throw new IllegalStateException("Invalid JFR settings: " + jfrProperties.getSettings(), ex);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.dto.AccountContentionDTO;
+import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.dto.TransferResultDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.exception.InvalidTransferException;
+import com.kata.bankAccount.metrics.BankMetrics;
+import com.kata.bankAccount.util.ValidationUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+/**
+ * AccountService backed by the in-memory LedgerEngine, enabled with {@code bankaccount.ledger.enabled=true}.
+ * It takes precedence over the database-backed AccountServiceImpl.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "bankaccount.ledger", name = "enabled", havingValue = "true")
+public class LedgerAccountServiceImpl implements AccountService {
+
+    private final LedgerEngine ledgerEngine;
+    private final BankMetrics bankMetrics;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param ledgerEngine the in-memory ledger owning the balances
+     * @param bankMetrics the latency timers and failure counters of the operations
+     */
+    @Autowired
+    public LedgerAccountServiceImpl(LedgerEngine ledgerEngine, BankMetrics bankMetrics) {
+        this.ledgerEngine = ledgerEngine;
+        this.bankMetrics = bankMetrics;
+    }
+
+    /**
+     * Deposit a specific amount into an account, applied in memory by the shard owning the account.
+     *
+     * @param id the account ID
+     * @param amount the amount to deposit
+     * @return an updated AccountDTO reflecting the new balance
+     */
+    @Override
+    public AccountDTO deposit(Long id, Double amount) {
+        return bankMetrics.recordOperation(BankMetrics.DEPOSIT, () -> {
+            long minorAmount = ValidationUtils.toMinorUnits(amount); // Validate the amount and convert it to minor units
+            return ledgerEngine.apply(id, OperationType.DEPOSIT, minorAmount);
+        });
+    }
+
+    /**
+     * Withdraw a specific amount from an account, applied in memory by the shard owning the account.
+     *
+     * @param id the account ID
+     * @param amount the amount to withdraw
+     * @return an updated AccountDTO reflecting the new balance
+     */
+    @Override
+    public AccountDTO withdraw(Long id, Double amount) {
+        return bankMetrics.recordOperation(BankMetrics.WITHDRAW, () -> {
+            long minorAmount = ValidationUtils.toMinorUnits(amount); // Validate the amount and convert it to minor units
+            return ledgerEngine.apply(id, OperationType.WITHDRAWAL, minorAmount);
+        });
+    }
+
+    /**
+     * Transfer an amount between two accounts, each leg applied by the shard owning its account.
+     * Unlike the database-backed transfer, the two legs are neither isolated nor persisted in one transaction.
+     *
+     * @param fromAccountId the ID of the account to debit
+     * @param toAccountId the ID of the account to credit
+     * @param amount the amount to transfer
+     * @return the transfer reference and the post-transfer balances of both accounts
+     */
+    @Override
+    public TransferResultDTO transfer(Long fromAccountId, Long toAccountId, Double amount) {
+        return bankMetrics.recordOperation(BankMetrics.TRANSFER, () -> {
+            long minorAmount = ValidationUtils.toMinorUnits(amount); // Validate the amount and convert it to minor units
+            if (fromAccountId == null || toAccountId == null || fromAccountId.equals(toAccountId)) {
+                throw new InvalidTransferException("A transfer needs two different accounts.");
+            }
+            return ledgerEngine.transfer(fromAccountId, toAccountId, minorAmount);
+        });
+    }
+
+    /**
+     * Retrieve the statement for a specific account from the in-memory ledger.
+     *
+     * @param id the account ID
+     * @return the account's details as an AccountDTO
+     */
+    @Override
+    public AccountDTO getAccountStatement(Long id) {
+        return bankMetrics.recordOperation(BankMetrics.STATEMENT, () -> ledgerEngine.getAccount(id));
+    }
+
+    /**
+     * The balances of the ledger are ahead of the version of the account rows, which only changes when the
+     * ledger is flushed, so the statement has no cheap version and is never answered with 304 Not Modified.
+     *
+     * @param id the account ID
+     * @return null
+     */
+    @Override
+    public Long getStatementVersion(Long id) {
+        return null;
+    }
+
+    /**
+     * The ledger applies the operations of an account one at a time, so there is never any conflict.
+     *
+     * @param id the account ID
+     * @return zero contention counters
+     */
+    @Override
+    public AccountContentionDTO getAccountContention(Long id) {
+        return AccountContentionDTO.builder()
+                .accountId(id)
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.BatchProperties;
+import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.dto.BatchOperationItemDTO;
+import com.kata.bankAccount.dto.BatchOperationItemResultDTO;
+import com.kata.bankAccount.dto.BatchOperationRequestDTO;
+import com.kata.bankAccount.dto.BatchOperationResultDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.exception.AccountFencedException;
+import com.kata.bankAccount.exception.BalanceNotSufficientException;
+import com.kata.bankAccount.exception.InvalidBatchException;
+import com.kata.bankAccount.exception.InvalideAmountException;
+import com.kata.bankAccount.exception.NoSuchAccountException;
+import com.kata.bankAccount.util.ValidationUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * BatchOperationService backed by the in-memory LedgerEngine, enabled with {@code bankaccount.ledger.enabled=true}.
+ * Each operation is applied by the shard owning its account; the ledger then persists them in batches.
+ */
+@Service
+@ConditionalOnProperty(prefix = "bankaccount.ledger", name = "enabled", havingValue = "true")
+public class LedgerBatchOperationServiceImpl implements BatchOperationService {
+
+    private final LedgerEngine ledgerEngine;
+    private final BatchProperties batchProperties;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param ledgerEngine the in-memory ledger owning the balances
+     * @param batchProperties the settings of the batch endpoint (maximum size)
+     */
+    @Autowired
+    public LedgerBatchOperationServiceImpl(LedgerEngine ledgerEngine, BatchProperties batchProperties) {
+        this.ledgerEngine = ledgerEngine;
+        this.batchProperties = batchProperties;
+    }
+
+    /**
+     * Apply a batch of deposits and withdrawals, each one reported individually: an invalid operation, including
+     * a null one or one without account ID, is reported as failed without failing the others.
+     *
+     * @param request the operations to apply
+     * @return the per-operation outcome, in request order
+     */
+    @Override
+    public BatchOperationResultDTO processBatch(BatchOperationRequestDTO request) {
+        List<BatchOperationItemDTO> items = Optional.ofNullable(request.getOperations()).orElse(List.of());
+        if (items.isEmpty() || items.size() > batchProperties.getMaxOperations()) {
+            throw new InvalidBatchException("A batch must contain between 1 and "
+                    + batchProperties.getMaxOperations() + " operations.");
+        }
+        List<BatchOperationItemResultDTO> results = new ArrayList<>(items.size());
+        int succeeded = 0;
+        for (int index = 0; index < items.size(); index++) {
+            BatchOperationItemDTO item = items.get(index);
+            BatchOperationItemResultDTO.BatchOperationItemResultDTOBuilder result = BatchOperationItemResultDTO.builder()
+                    .index(index);
+            try {
+                if (item == null) { // A JSON null in the operations array
+                    throw new InvalideAmountException("Operation must not be null.");
+                }
+                result.accountId(item.getAccountId());
+                if (item.getAccountId() == null) { // The ledger shards accounts by ID
+                    throw new NoSuchAccountException("No such account with ID: null");
+                }
+                if (item.getOperationType() != OperationType.DEPOSIT && item.getOperationType() != OperationType.WITHDRAWAL) {
+                    throw new InvalideAmountException("Operation type must be DEPOSIT or WITHDRAWAL.");
+                }
+                long amount = ValidationUtils.toMinorUnits(item.getAmount());
+                AccountDTO account = ledgerEngine.apply(item.getAccountId(), item.getOperationType(), amount);
+                results.add(result.success(true).balance(account.getBalance()).build());
+                succeeded++;
+            } catch (InvalideAmountException | NoSuchAccountException | BalanceNotSufficientException
+                     | AccountFencedException ex) {
+                results.add(result.success(false).error(ex.getMessage()).build());
+            }
+        }
+        return BatchOperationResultDTO.builder()
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .results(results)
+                .build();
+    }
+}
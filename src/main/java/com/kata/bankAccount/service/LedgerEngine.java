@@ -0,0 +1,547 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.LedgerProperties;
+import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.dto.TransferResultDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.exception.AccountFencedException;
+import com.kata.bankAccount.exception.BalanceNotSufficientException;
+import com.kata.bankAccount.journal.JournalRecord;
+import com.kata.bankAccount.journal.OperationJournal;
+import com.kata.bankAccount.metrics.BankMetrics;
+import com.kata.bankAccount.model.Operation;
+import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.OperationRepository;
+import com.kata.bankAccount.util.ValidationUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * In-memory ledger partitioning accounts by ID across single-threaded shards.
+ * Each shard owns the balances of its accounts: operations on an account are applied in order by a single
+ * thread, without any database lock or round trip. The resulting operations are persisted asynchronously,
+ * in batches, through the OperationRepository; the balance of an account is rebuilt from its persisted
+ * operations the first time a shard touches it, which is also how balances are recovered after a crash.
+ * Operations acknowledged but not flushed yet when the process crashes are lost, unless the journal is enabled:
+ * each operation is then appended to the memory-mapped OperationJournal and acknowledged once forced to disk,
+ * and only durable operations are handed to the flusher. The journal is replayed from the last persisted
+ * record when the engine starts.
+ * A batch that keeps failing to persist is split in halves, recursively, so that the operations that can be
+ * persisted are. An operation that cannot is never dropped: its account is fenced, and the operation is kept
+ * pending together with the later ones of the account, which are retried until they persist. A fenced account
+ * rejects new deposits, withdrawals and outgoing transfers, so that its acknowledged balance does not drift further
+ * from the persisted one.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bankaccount.ledger", name = "enabled", havingValue = "true")
+public class LedgerEngine {
+
+    private final AccountRepository accountRepository;
+    private final OperationRepository operationRepository;
+    private final BalanceSnapshotService snapshotService;
+    private final OperationSummaryService operationSummaryService;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushBatchSize;
+    private final int flushMaxAttempts;
+    private final Shard[] shards;
+    private final BlockingDeque<JournalRecord> pendingEntries = new LinkedBlockingDeque<>();
+    private final OperationJournal journal; // Null when the journal is disabled
+    private final ScheduledExecutorService flusher;
+    private int failedFlushes; // Consecutive failures of the batch at the head of the queue, only used by flush()
+    private final long fencedRetryIntervalNanos;
+    private final Set<Long> fencedAccounts = ConcurrentHashMap.newKeySet();
+    // Pending operations of the fenced accounts, in the order they were applied, only used by the flusher
+    private final Map<Long, List<JournalRecord>> parkedEntries = new LinkedHashMap<>();
+    private long nextParkedRetry; // System.nanoTime() of the next retry of the parked operations
+
+    /**
+     * Constructor-based dependency injection; replays the journal if enabled, then starts the shard workers
+     * and the periodic flusher.
+     *
+     * @param accountRepository the repository used to recover opening balances and persist balances
+     * @param operationRepository the repository used to recover balances and persist operations
+     * @param snapshotService the service recovering balances from their snapshot
+     * @param operationSummaryService the daily and monthly summaries, incremented with each flushed batch
+     * @param transactionManager the transaction manager used for each flushed batch
+     * @param ledgerProperties the settings of the ledger (number of shards, flush interval, batch size and attempts,
+     *                         fenced retry interval, journal)
+     * @param bankMetrics the metrics exposing the number of fenced accounts
+     */
+    @Autowired
+    public LedgerEngine(AccountRepository accountRepository, OperationRepository operationRepository,
+                        BalanceSnapshotService snapshotService, OperationSummaryService operationSummaryService,
+                        PlatformTransactionManager transactionManager, LedgerProperties ledgerProperties,
+                        BankMetrics bankMetrics) {
+        this.accountRepository = accountRepository;
+        this.operationRepository = operationRepository;
+        this.snapshotService = snapshotService;
+        this.operationSummaryService = operationSummaryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushBatchSize = ledgerProperties.getFlushBatchSize();
+        this.flushMaxAttempts = ledgerProperties.getFlushMaxAttempts();
+        this.fencedRetryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(ledgerProperties.getFencedRetryIntervalMs());
+        bankMetrics.registerFencedAccounts(fencedAccounts);
+        this.journal = ledgerProperties.getJournal().isEnabled() ? openJournal(ledgerProperties.getJournal()) : null;
+        this.shards = new Shard[ledgerProperties.getEffectiveShards()];
+        for (int i = 0; i < shards.length; i++) {
+            String threadName = "ledger-shard-" + i;
+            shards[i] = new Shard(Executors.newSingleThreadExecutor(task -> new Thread(task, threadName)));
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(task -> new Thread(task, "ledger-flusher"));
+        long interval = ledgerProperties.getFlushIntervalMs();
+        this.flusher.scheduleWithFixedDelay(this::flushSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Applies a deposit or a withdrawal on the shard owning the account.
+     *
+     * @param accountId the account ID
+     * @param type the type of operation (DEPOSIT or WITHDRAWAL)
+     * @param amount the validated amount, in minor units
+     * @return an AccountDTO reflecting the post-operation balance
+     */
+    public AccountDTO apply(Long accountId, OperationType type, long amount) {
+        return apply(accountId, type, amount, null);
+    }
+
+    /**
+     * Transfers an amount between two accounts. The credited account is recovered and checked not to be fenced
+     * first, so that the credit cannot fail once the debit is applied; each leg is then applied by the shard owning
+     * its account.
+     * The two legs are not isolated: a reader may see the debit before the credit, and they are persisted
+     * like any other operation, possibly by two consecutive flushes.
+     *
+     * @param fromAccountId the ID of the account to debit
+     * @param toAccountId the ID of the account to credit
+     * @param amount the validated amount, in minor units
+     * @return the transfer reference and the post-transfer balances of both accounts
+     */
+    public TransferResultDTO transfer(Long fromAccountId, Long toAccountId, long amount) {
+        onShard(toAccountId, () -> { // Fails on an unknown or fenced account before any debit
+            checkNotFenced(toAccountId);
+            return loadAccount(toAccountId);
+        });
+        String transferReference = UUID.randomUUID().toString();
+        AccountDTO from = apply(fromAccountId, OperationType.TRANSFER_OUT, amount, transferReference);
+        AccountDTO to = apply(toAccountId, OperationType.TRANSFER_IN, amount, transferReference);
+        return TransferResultDTO.builder()
+                .transferReference(transferReference)
+                .fromAccount(from)
+                .toAccount(to)
+                .build();
+    }
+
+    /**
+     * Reads the in-memory balance of an account, including the operations not flushed yet.
+     *
+     * @param accountId the account ID
+     * @return the account's details as an AccountDTO
+     */
+    public AccountDTO getAccount(Long accountId) {
+        return onShard(accountId, () -> toDto(accountId, loadAccount(accountId)));
+    }
+
+    /**
+     * Rebuilds the balance of an account from the persisted state: its balance snapshot plus the operations
+     * persisted after it.
+     *
+     * @param accountId the account ID
+     * @return the recovered balance, in minor units
+     */
+    public long recoverBalance(Long accountId) {
+        return snapshotService.recoverBalance(accountId);
+    }
+
+    /**
+     * Persists all pending operations, in batches of at most flushBatchSize operations per transaction.
+     * Each batch inserts its operations and writes the last balance of every account it touches.
+     * A failed batch is retried by the next flushes; after flushMaxAttempts failures in a row it is persisted in
+     * parts, and the account of an operation that still fails on its own is fenced. The operations of the fenced
+     * accounts are kept apart and retried every fencedRetryIntervalMs; the journal keeps them until they persist.
+     */
+    public void flush() {
+        retryParked();
+        List<JournalRecord> batch = new ArrayList<>(flushBatchSize);
+        while (pendingEntries.drainTo(batch, flushBatchSize) > 0) {
+            List<JournalRecord> unfenced = park(batch);
+            try {
+                if (!unfenced.isEmpty()) {
+                    persist(unfenced);
+                }
+            } catch (RuntimeException ex) {
+                if (++failedFlushes < flushMaxAttempts) {
+                    // Put the batch back in front of the queue, in its original order, to retry it on the next flush
+                    for (int i = batch.size() - 1; i >= 0; i--) {
+                        pendingEntries.addFirst(batch.get(i));
+                    }
+                    throw ex;
+                }
+                log.warn("Persisting a batch of {} ledger operations failed {} times, persisting it in parts",
+                        unfenced.size(), failedFlushes, ex);
+                persistInParts(unfenced);
+            }
+            failedFlushes = 0;
+            if (journal != null) {
+                // Durable records arrive in sequence order
+                journal.releaseUpTo(releasableSequence(batch.get(batch.size() - 1).sequence()));
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Stops the shard workers, then persists the operations they produced.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+        for (Shard shard : shards) {
+            shard.executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        if (journal != null) {
+            journal.close(); // Forces and hands over the last records
+        }
+        flush();
+        if (!parkedEntries.isEmpty()) {
+            log.error("Stopping with the operations of fenced accounts {} not persisted{}", parkedEntries.keySet(),
+                    journal != null ? ", they stay in the journal" : ", they are lost");
+        }
+    }
+
+    /**
+     *  method to run a task on the single thread of the shard owning an account and wait for its result.
+     *
+     * @param accountId the account ID
+     * @param task the task to run
+     * @return the result of the task
+     */
+    private <T> T onShard(Long accountId, Supplier<T> task) {
+        Shard shard = shards[Math.floorMod(Long.hashCode(accountId), shards.length)];
+        try {
+            return CompletableFuture.supplyAsync(task, shard.executor).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause; // Surface the business exception (insufficient funds, unknown account) as is
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     *  method to apply one operation on the shard owning the account and queue it for persistence.
+     *
+     * @param accountId the account ID
+     * @param type the type of operation
+     * @param amount the validated amount, in minor units
+     * @param transferReference the reference linking the two operations of a transfer, or null
+     * @return an AccountDTO reflecting the post-operation balance
+     */
+    private AccountDTO apply(Long accountId, OperationType type, long amount, String transferReference) {
+        Applied applied = onShard(accountId, () -> {
+            if (type != OperationType.TRANSFER_IN) { // The credit of a transfer whose debit is applied is kept pending
+                checkNotFenced(accountId);
+            }
+            LedgerAccount account = loadAccount(accountId);
+            if (!type.isCredit() && account.balance < amount) { // Check for sufficient funds
+                throw new BalanceNotSufficientException("Insufficient funds.");
+            }
+            long balance = type.isCredit() ? account.balance + amount : account.balance - amount;
+            JournalRecord entry = new JournalRecord(0, accountId, type, amount, balance, transferReference,
+                    LocalDateTime.now());
+            long sequence = 0;
+            if (journal == null) {
+                pendingEntries.add(entry);
+            } else {
+                // Handed to the flusher by the journal once durable. Appended before the balance changes,
+                // so that an operation rejected by a failed journal leaves the account as it was.
+                sequence = journal.append(entry);
+            }
+            account.balance = balance;
+            return new Applied(toDto(accountId, account), sequence);
+        });
+        if (journal != null) {
+            journal.awaitDurable(applied.sequence()); // Waits off the shard thread, which applies the next operations
+        }
+        return applied.account();
+    }
+
+    /**
+     *  method to reject an operation on an account whose earlier operations cannot be persisted.
+     *
+     * @param accountId the account ID
+     */
+    private void checkNotFenced(Long accountId) {
+        if (fencedAccounts.contains(accountId)) {
+            throw new AccountFencedException("Account " + accountId
+                    + " is temporarily unavailable: its last operations are not persisted yet.");
+        }
+    }
+
+    /**
+     *  method to get the in-memory state of an account, recovering it on first access.
+     *  Must be called on the thread of the shard owning the account.
+     *
+     * @param accountId the account ID
+     * @return the in-memory state of the account
+     */
+    private LedgerAccount loadAccount(Long accountId) {
+        Shard shard = shards[Math.floorMod(Long.hashCode(accountId), shards.length)];
+        LedgerAccount account = shard.accounts.get(accountId);
+        if (account == null) {
+            account = new LedgerAccount(recoverBalance(accountId));
+            shard.accounts.put(accountId, account);
+        }
+        return account;
+    }
+
+    /**
+     *  method to persist one batch of operations in a single transaction.
+     *
+     * @param batch the entries to persist, in the order they were applied
+     */
+    private void persist(List<JournalRecord> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Operation> operations = new ArrayList<>(batch.size());
+            Map<Long, Long> lastBalances = new LinkedHashMap<>();
+            for (JournalRecord entry : batch) {
+                operations.add(Operation.builder()
+                        .operationType(entry.type())
+                        .amount(entry.amount())
+                        .PostOperationBalance(entry.postOperationBalance())
+                        .transferReference(entry.transferReference())
+                        .journalSequence(entry.sequence() > 0 ? entry.sequence() : null)
+                        .account(accountRepository.getReferenceById(entry.accountId()))
+                        .date(entry.date())
+                        .build());
+                lastBalances.put(entry.accountId(), entry.postOperationBalance());
+            }
+            operationRepository.saveAll(operations);
+            operationSummaryService.record(operations);
+            lastBalances.forEach(accountRepository::updateBalance);
+        });
+    }
+
+    /**
+     *  method to persist a batch that keeps failing: its halves are persisted on their own, recursively, so that
+     *  only the operations failing alone are left out; the account of each of them is fenced.
+     *
+     * @param batch the entries to persist, in the order they were applied
+     */
+    private void persistInParts(List<JournalRecord> batch) {
+        List<JournalRecord> unfenced = park(batch); // An earlier part may have fenced some of its accounts
+        if (unfenced.isEmpty()) {
+            return;
+        }
+        try {
+            persist(unfenced);
+        } catch (RuntimeException ex) {
+            if (unfenced.size() == 1) {
+                fence(unfenced.get(0), ex);
+                return;
+            }
+            int middle = unfenced.size() / 2;
+            persistInParts(unfenced.subList(0, middle));
+            persistInParts(unfenced.subList(middle, unfenced.size()));
+        }
+    }
+
+    /**
+     *  method to fence the account of an operation that cannot be persisted, and keep the operation pending.
+     *
+     * @param entry the entry that failed to persist on its own
+     * @param cause the persistence failure
+     */
+    private void fence(JournalRecord entry, RuntimeException cause) {
+        log.error("Fencing account {}: its ledger operation cannot be persisted and is kept pending: {}",
+                entry.accountId(), entry, cause);
+        fencedAccounts.add(entry.accountId());
+        parkedEntries.computeIfAbsent(entry.accountId(), id -> new ArrayList<>()).add(entry);
+        if (parkedEntries.size() == 1) {
+            nextParkedRetry = System.nanoTime() + fencedRetryIntervalNanos;
+        }
+    }
+
+    /**
+     *  method to set aside the entries of the fenced accounts, behind their operation that cannot be persisted.
+     *
+     * @param batch the entries to persist, in the order they were applied
+     * @return the entries of the accounts that are not fenced, in the same order
+     */
+    private List<JournalRecord> park(List<JournalRecord> batch) {
+        if (fencedAccounts.isEmpty()) {
+            return batch;
+        }
+        List<JournalRecord> unfenced = new ArrayList<>(batch.size());
+        for (JournalRecord entry : batch) {
+            if (fencedAccounts.contains(entry.accountId())) {
+                parkedEntries.get(entry.accountId()).add(entry);
+            } else {
+                unfenced.add(entry);
+            }
+        }
+        return unfenced;
+    }
+
+    /**
+     *  method to retry, at most every fencedRetryIntervalMs, the pending operations of each fenced account in one
+     *  transaction; an account whose operations are all persisted accepts operations again.
+     */
+    private void retryParked() {
+        if (parkedEntries.isEmpty() || System.nanoTime() - nextParkedRetry < 0) {
+            return;
+        }
+        nextParkedRetry = System.nanoTime() + fencedRetryIntervalNanos;
+        var accounts = parkedEntries.entrySet().iterator();
+        while (accounts.hasNext()) {
+            Map.Entry<Long, List<JournalRecord>> account = accounts.next();
+            try {
+                persist(account.getValue());
+            } catch (RuntimeException ex) {
+                log.warn("The {} pending operations of fenced account {} still cannot be persisted",
+                        account.getValue().size(), account.getKey(), ex);
+                continue;
+            }
+            accounts.remove();
+            fencedAccounts.remove(account.getKey());
+            log.info("Account {} is no longer fenced: its pending operations are persisted", account.getKey());
+        }
+    }
+
+    /**
+     *  method to get the last journal sequence that can be released: the journal keeps the oldest operation of the
+     *  fenced accounts, so that it is replayed if the application stops before it is persisted.
+     *
+     * @param persistedUpTo the last sequence of the batch just flushed
+     * @return the sequence up to which the journal segments can be deleted
+     */
+    private long releasableSequence(long persistedUpTo) {
+        long releasable = persistedUpTo;
+        for (List<JournalRecord> entries : parkedEntries.values()) {
+            releasable = Math.min(releasable, entries.get(0).sequence() - 1);
+        }
+        return releasable;
+    }
+
+    /**
+     *  method to open the journal and persist the records it holds that are not persisted yet: they were
+     *  acknowledged before the previous stop. They are the records beyond the last persisted one, and possibly older
+     *  ones kept by the journal because their account was fenced; a record that still cannot be persisted fences its
+     *  account again.
+     *  An empty journal continues after the highest persisted sequence. A journal ending before it does not belong
+     *  to this database, or lost records: its next sequences would be taken for persisted ones and never replayed,
+     *  so the ledger refuses to start.
+     *
+     * @param settings the settings of the journal
+     * @return the opened journal, handing its records to the flusher once durable
+     */
+    private OperationJournal openJournal(LedgerProperties.Journal settings) {
+        if (settings.getDirectory() == null || settings.getDirectory().isBlank()) {
+            throw new IllegalStateException("bankaccount.ledger.journal.directory must be set when the journal is enabled.");
+        }
+        long persisted = operationRepository.findMaxJournalSequence().orElse(0L);
+        OperationJournal opened = OperationJournal.open(Path.of(settings.getDirectory()),
+                settings.getSegmentSizeMb() * 1024L * 1024L, persisted + 1, pendingEntries::addAll);
+        if (opened.getDurableSequence() < persisted) {
+            try {
+                opened.close();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("The journal in " + settings.getDirectory() + " ends at sequence "
+                    + opened.getDurableSequence() + " but the database already holds sequence " + persisted + ".");
+        }
+        List<JournalRecord> retained = opened.replay(0);
+        Set<Long> alreadyPersisted = new HashSet<>();
+        if (!retained.isEmpty() && retained.get(0).sequence() <= persisted) {
+            alreadyPersisted.addAll(operationRepository.findJournalSequencesBetween(retained.get(0).sequence(),
+                    persisted));
+        }
+        List<JournalRecord> replayed = retained.stream()
+                .filter(entry -> !alreadyPersisted.contains(entry.sequence()))
+                .toList();
+        pendingEntries.addAll(replayed);
+        while (!pendingEntries.isEmpty()) { // Persisted before any balance is recovered
+            try {
+                flush();
+            } catch (RuntimeException ex) {
+                log.warn("Failed to persist replayed journal records, {} pending", pendingEntries.size(), ex);
+            }
+        }
+        if (!retained.isEmpty()) {
+            opened.releaseUpTo(releasableSequence(retained.get(retained.size() - 1).sequence()));
+        }
+        log.info("Replayed {} journal records, {} accounts fenced", replayed.size(), fencedAccounts.size());
+        return opened;
+    }
+
+    /**
+     *  method used by the periodic flusher: a failed flush is logged and retried on the next run.
+     */
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.error("Failed to persist ledger operations, {} pending", pendingEntries.size(), ex);
+        }
+    }
+
+    private static AccountDTO toDto(Long accountId, LedgerAccount account) {
+        return AccountDTO.builder()
+                .id(accountId)
+                .balance(ValidationUtils.toMajorUnits(account.balance))
+                .build();
+    }
+
+    // The result of an operation applied on its shard, and its journal sequence (0 without journal)
+    private record Applied(AccountDTO account, long sequence) {
+    }
+
+    // The in-memory state of an account, only accessed by the thread of its shard
+    private static final class LedgerAccount {
+        private long balance; // In minor units
+
+        private LedgerAccount(long balance) {
+            this.balance = balance;
+        }
+    }
+
+    private static final class Shard {
+        private final ExecutorService executor;
+        private final Map<Long, LedgerAccount> accounts = new HashMap<>();
+
+        private Shard(ExecutorService executor) {
+            this.executor = executor;
+        }
+    }
+}
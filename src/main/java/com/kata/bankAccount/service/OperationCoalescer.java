@@ -0,0 +1,205 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.ConcurrencyProperties;
+import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.exception.BalanceNotSufficientException;
+import com.kata.bankAccount.exception.NoSuchAccountException;
+import com.kata.bankAccount.model.Account;
+import com.kata.bankAccount.model.Operation;
+import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.OperationRepository;
+import com.kata.bankAccount.util.ValidationUtils;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group commit of concurrent operations on the same account (BATCHED concurrency mode).
+ * The operations submitted for an account within a short window are applied in a single transaction:
+ * the account row is locked once, every operation is checked against the running balance and gets its own
+ * Operation row, and the balance is updated once. Each caller is completed with its own post-operation
+ * balance, or with its own BalanceNotSufficientException, once the transaction has committed.
+ */
+@Component
+public class OperationCoalescer {
+
+    private final AccountRepository accountRepository;
+    private final OperationRepository operationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrencyProperties.Batching settings;
+    private final AccountBalanceCache balanceCache;
+    private final OperationSummaryService operationSummaryService;
+    private final Map<Long, PendingBatch> openBatches = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor committer;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param accountRepository the repository used to lock and update the account
+     * @param operationRepository the repository used to insert the operations of a batch
+     * @param transactionManager the transaction manager used for each batch
+     * @param concurrencyProperties the settings of the batching window, batch size and number of workers
+     * @param balanceCache the cache of account statements, invalidated once a batch has committed
+     * @param operationSummaryService the daily and monthly summaries, incremented with each batch
+     */
+    @Autowired
+    public OperationCoalescer(AccountRepository accountRepository, OperationRepository operationRepository,
+                              PlatformTransactionManager transactionManager, ConcurrencyProperties concurrencyProperties,
+                              AccountBalanceCache balanceCache, OperationSummaryService operationSummaryService) {
+        this.accountRepository = accountRepository;
+        this.operationRepository = operationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.settings = concurrencyProperties.getBatching();
+        this.balanceCache = balanceCache;
+        this.operationSummaryService = operationSummaryService;
+        AtomicInteger threadCount = new AtomicInteger();
+        // Threads are only started when the first batch is scheduled
+        this.committer = new ScheduledThreadPoolExecutor(settings.getWorkers(),
+                task -> new Thread(task, "operation-coalescer-" + threadCount.incrementAndGet()));
+    }
+
+    /**
+     * Submits a deposit or a withdrawal and waits until the batch it joined has been committed.
+     *
+     * @param accountId the account ID
+     * @param type the type of operation (DEPOSIT or WITHDRAWAL)
+     * @param amount the validated amount, in minor units
+     * @return an AccountDTO reflecting the balance right after this operation
+     */
+    public AccountDTO submit(Long accountId, OperationType type, long amount) {
+        PendingRequest request = new PendingRequest(type, amount);
+        PendingBatch[] fullBatch = new PendingBatch[1];
+        openBatches.compute(accountId, (id, batch) -> {
+            if (batch == null) { // First operation of the window: open a batch and schedule its commit
+                PendingBatch newBatch = new PendingBatch();
+                committer.schedule(() -> commitIfOpen(id, newBatch), settings.getWindowMs(), TimeUnit.MILLISECONDS);
+                batch = newBatch;
+            }
+            batch.requests.add(request);
+            if (batch.requests.size() >= settings.getMaxBatchSize()) { // Full: close it now
+                fullBatch[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+        if (fullBatch[0] != null) {
+            committer.execute(() -> commit(accountId, fullBatch[0]));
+        }
+        try {
+            return request.result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause; // Surface the business exception (insufficient funds, unknown account) as is
+            }
+            throw ex;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        committer.shutdown(); // Batches already scheduled are still committed
+    }
+
+    /**
+     *  method run at the end of a window: commits the batch unless it was already closed because it was full.
+     *
+     * @param accountId the account ID
+     * @param batch the batch opened at the start of the window
+     */
+    private void commitIfOpen(Long accountId, PendingBatch batch) {
+        if (openBatches.remove(accountId, batch)) {
+            commit(accountId, batch);
+        }
+    }
+
+    /**
+     *  method to commit a closed batch and complete its callers, only once the transaction has committed.
+     *
+     * @param accountId the account ID
+     * @param batch the closed batch
+     */
+    private void commit(Long accountId, PendingBatch batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyBatch(accountId, batch.requests));
+        } catch (RuntimeException ex) {
+            batch.requests.forEach(request -> request.result.completeExceptionally(ex));
+            return;
+        }
+        for (PendingRequest request : batch.requests) {
+            if (request.failure != null) {
+                request.result.completeExceptionally(request.failure);
+            } else {
+                request.result.complete(request.outcome);
+            }
+        }
+    }
+
+    /**
+     *  method to apply all the operations of a batch on the locked account, in submission order.
+     *
+     * @param accountId the account ID
+     * @param requests the operations of the batch
+     */
+    private void applyBatch(Long accountId, List<PendingRequest> requests) {
+        Account account = accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new NoSuchAccountException("No such account with ID: " + accountId));
+        long balance = account.getBalance();
+        List<Operation> operations = new ArrayList<>(requests.size());
+        for (PendingRequest request : requests) {
+            if (request.type == OperationType.WITHDRAWAL && balance < request.amount) { // Checked per request
+                request.failure = new BalanceNotSufficientException("Insufficient funds.");
+                continue;
+            }
+            balance = request.type == OperationType.DEPOSIT ? balance + request.amount : balance - request.amount;
+            operations.add(Operation.builder()
+                    .operationType(request.type)
+                    .amount(request.amount)
+                    .PostOperationBalance(balance)
+                    .account(account)
+                    .date(LocalDateTime.now())
+                    .build());
+            request.outcome = AccountDTO.builder()
+                    .id(accountId)
+                    .balance(ValidationUtils.toMajorUnits(balance))
+                    .build();
+        }
+        account.setBalance(balance); // A single UPDATE of the balance, flushed at commit
+        operationRepository.saveAll(operations);
+        operationSummaryService.record(operations);
+        balanceCache.invalidateAfterCommit(accountId); // The new version is only assigned at flush
+    }
+
+    // Operations collected for one account during one window; only mutated under the map's lock until closed
+    private static final class PendingBatch {
+        private final List<PendingRequest> requests = new ArrayList<>();
+    }
+
+    private static final class PendingRequest {
+        private final OperationType type;
+        private final long amount;
+        private final CompletableFuture<AccountDTO> result = new CompletableFuture<>();
+        private AccountDTO outcome;
+        private RuntimeException failure;
+
+        private PendingRequest(OperationType type, long amount) {
+            this.type = type;
+            this.amount = amount;
+        }
+    }
+}
@@ -1,10 +1,28 @@
 package com.kata.bankAccount.service;
 
+import com.kata.bankAccount.dto.BalanceAtDTO;
+import com.kata.bankAccount.dto.BalanceQueryDTO;
 import com.kata.bankAccount.dto.OperationDTO;
+import com.kata.bankAccount.dto.OperationPageDTO;
+import com.kata.bankAccount.enums.ExportFormat;
+import com.kata.bankAccount.enums.OperationType;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 
 public interface OperationService {
     List<OperationDTO> getAllAccountOperations(Long id);
-}
\ No newline at end of file
+
+    Long getHistoryVersion(Long id);
+
+    OperationPageDTO getAccountOperationsPage(Long id, String cursor, Integer size, LocalDateTime from,
+                                              LocalDateTime to, OperationType operationType);
+
+    void exportOperations(Long accountId, ExportFormat format, OutputStream outputStream);
+
+    BalanceAtDTO getBalanceAt(Long accountId, LocalDateTime at);
+
+    List<BalanceAtDTO> getBalancesAt(List<BalanceQueryDTO> queries);
+}
@@ -1,54 +1,353 @@
 package com.kata.bankAccount.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kata.bankAccount.config.HistoryProperties;
+import com.kata.bankAccount.dto.BalanceAtDTO;
+import com.kata.bankAccount.dto.BalanceQueryDTO;
 import com.kata.bankAccount.dto.OperationDTO;
+import com.kata.bankAccount.dto.OperationExportDTO;
+import com.kata.bankAccount.dto.OperationPageDTO;
+import com.kata.bankAccount.enums.ExportFormat;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.exception.InvalidBatchException;
+import com.kata.bankAccount.exception.InvalidPageRequestException;
 import com.kata.bankAccount.exception.NoOperationsForAccountException;
+import com.kata.bankAccount.exception.NoSuchAccountException;
+import com.kata.bankAccount.mapper.OperationMapper;
+import com.kata.bankAccount.metrics.BankMetrics;
 import com.kata.bankAccount.model.Operation;
+import com.kata.bankAccount.repository.AccountRepository;
 import com.kata.bankAccount.repository.OperationRepository;
-import org.modelmapper.ModelMapper;
+import com.kata.bankAccount.util.ValidationUtils;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class OperationServiceImpl implements OperationService {
 
-    private final ModelMapper modelMapper;
     private final OperationRepository operationRepository;
+    private final AccountRepository accountRepository;
+    private final HistoryProperties historyProperties;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final OperationMapper operationMapper;
+    private final BankMetrics bankMetrics;
+
+    // Bounds used when the client does not restrict the date range
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
 
     /**
-     * Constructor-based dependency injection for ModelMapper and OperationRepository.
+     * Constructor-based dependency injection.
      *
-     * @param modelMapper the mapper to convert between entities and DTOs
      * @param operationRepository the repository to handle database operations for account operations
+     * @param accountRepository the repository used to read the version of an account, the ETag of its history
+     * @param historyProperties the settings of the paginated history (default and maximum page size)
+     * @param transactionManager the transaction manager used to keep the export cursor open
+     * @param entityManager the persistence context, from which exported operations are detached
+     * @param objectMapper the JSON mapper used by the NDJSON export
+     * @param operationMapper the mapper to convert operations to export rows
+     * @param bankMetrics the latency timer of the history reads and the distribution of their sizes
      */
     @Autowired
-    public OperationServiceImpl(ModelMapper modelMapper, OperationRepository operationRepository) {
-        this.modelMapper = modelMapper;
+    public OperationServiceImpl(OperationRepository operationRepository, AccountRepository accountRepository,
+                                HistoryProperties historyProperties, PlatformTransactionManager transactionManager,
+                                EntityManager entityManager, ObjectMapper objectMapper,
+                                OperationMapper operationMapper, BankMetrics bankMetrics) {
         this.operationRepository = operationRepository;
+        this.accountRepository = accountRepository;
+        this.historyProperties = historyProperties;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.operationMapper = operationMapper;
+        this.bankMetrics = bankMetrics;
     }
 
     /**
      * Retrieve all operations for a specific account.
+     * The DTOs are built by the query itself, so no Operation entity is hydrated and the account is read
+     * in the same statement rather than through its lazy proxy.
      *
      * @param id the ID of the account
      * @return a list of OperationDTOs representing the account's operation history
      */
     @Override
     public List<OperationDTO> getAllAccountOperations(Long id) {
-        // Fetch all operations for the given account ID
-        List<Operation> accountOperations = operationRepository.findByAccountId(id);
-
-        // Check if the list of operations is empty, and throw an exception if no operations are found
-        Optional.ofNullable(accountOperations)
-                .filter(operations -> !operations.isEmpty()) // Ensure the list is not empty
-                .orElseThrow(() -> new NoOperationsForAccountException("No operations found for account ID: " + id));
-
-        // Convert the list of Operation entities to OperationDTOs and return the result
-        return accountOperations.stream()
-                .map(operation -> modelMapper.map(operation, OperationDTO.class)) // Map each operation to a DTO
-                .collect(Collectors.toList()); // Collect the DTOs into a list
+        return bankMetrics.recordOperation(BankMetrics.HISTORY, () -> {
+            // Fetch all operations for the given account ID, already mapped to DTOs
+            List<OperationDTO> accountOperations = operationRepository.findDtosByAccountId(id);
+
+            // Check if the list of operations is empty, and throw an exception if no operations are found
+            List<OperationDTO> operations = Optional.ofNullable(accountOperations)
+                    .filter(list -> !list.isEmpty()) // Ensure the list is not empty
+                    .orElseThrow(() -> new NoOperationsForAccountException("No operations found for account ID: " + id));
+            bankMetrics.recordHistorySize(operations.size());
+            return operations;
+        });
+    }
+
+    /**
+     * Retrieve the version of the history of an account, used as its ETag.
+     * Every new operation changes the balance of its account in the same transaction, which increments the
+     * version of the account row: a single primary-key lookup tells whether the history has changed.
+     *
+     * @param id the ID of the account
+     * @return the version of the account row
+     */
+    @Override
+    public Long getHistoryVersion(Long id) {
+        return accountRepository.findVersionById(id)
+                .orElseThrow(() -> new NoSuchAccountException("No such account with ID: " + id));
+    }
+
+    /**
+     * Retrieve one page of the operations of an account, ordered by date then ID, using keyset pagination:
+     * the cursor holds the (date, id) of the last operation of the previous page, so page N is read
+     * with the same index range scan as page 1.
+     *
+     * @param id the ID of the account
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the page size, or null for the default one; capped by the configured maximum
+     * @param from the inclusive lower bound of the dates, or null
+     * @param to the exclusive upper bound of the dates, or null
+     * @param operationType the type of operations to keep, or null for all of them
+     * @return the operations of the page and the cursor of the next page (null on the last page)
+     */
+    @Override
+    public OperationPageDTO getAccountOperationsPage(Long id, String cursor, Integer size, LocalDateTime from,
+                                                     LocalDateTime to, OperationType operationType) {
+        int pageSize = size == null ? historyProperties.getDefaultPageSize() : size;
+        if (pageSize <= 0 || pageSize > historyProperties.getMaxPageSize()) {
+            throw new InvalidPageRequestException("Page size must be between 1 and " + historyProperties.getMaxPageSize() + ".");
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidPageRequestException("The 'from' date must be before the 'to' date.");
+        }
+
+        // Position after which to read: decoded from the cursor, or just before the start of the range
+        LocalDateTime afterDate = from == null ? MIN_DATE : from;
+        Long afterId = 0L;
+        if (cursor != null) {
+            String[] position = decodeCursor(cursor);
+            afterDate = LocalDateTime.parse(position[0]);
+            afterId = Long.parseLong(position[1]);
+        }
+
+        // Fetch one extra operation to know whether there is a next page
+        List<OperationDTO> operations = operationRepository.findPageAfter(id, afterDate, afterId,
+                to == null ? MAX_DATE : to, operationType, PageRequest.of(0, pageSize + 1));
+        boolean hasNext = operations.size() > pageSize;
+        List<OperationDTO> page = hasNext ? List.copyOf(operations.subList(0, pageSize)) : operations;
+
+        return OperationPageDTO.builder()
+                .content(page)
+                .nextCursor(hasNext ? encodeCursor(page.getLast()) : null)
+                .build();
+    }
+
+    /**
+     * Write the operations of an account, or of all accounts, to an output stream as NDJSON or CSV.
+     * Operations are read from a database cursor in a read-only transaction and each one is detached from the
+     * persistence context once written, so memory use stays constant whatever the size of the export.
+     *
+     * @param accountId the ID of the account, or null to export the operations of all accounts
+     * @param format the output format
+     * @param outputStream the stream to write to (not closed)
+     */
+    @Override
+    public void exportOperations(Long accountId, ExportFormat format, OutputStream outputStream) {
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Operation> operations = accountId == null
+                    ? operationRepository.streamAll()
+                    : operationRepository.streamByAccountId(accountId)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                if (format == ExportFormat.CSV) {
+                    writeCsv(operations, writer);
+                } else {
+                    writeNdjson(operations, writer);
+                }
+                writer.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    /**
+     * Retrieve the balance of an account at a point in time.
+     * Every operation stores the balance of its account right after it, so the answer is the post-operation balance
+     * of the last operation at or before that point in time: a single lookup on the (account_id, date, id) index,
+     * whatever the size of the history. Only persisted operations are seen (see the ledger flush delay).
+     *
+     * @param accountId the ID of the account
+     * @param at the point in time, inclusive
+     * @return the balance of the account at that point in time, and the operation it was read from
+     */
+    @Override
+    public BalanceAtDTO getBalanceAt(Long accountId, LocalDateTime at) {
+        return bankMetrics.recordOperation(BankMetrics.BALANCE_AT, () -> balanceAt(accountId, at));
+    }
+
+    /**
+     * Retrieve the balances of many accounts at many points in time, in a single read-only transaction.
+     * Each (account, date) pair is answered by its own index lookup and reported individually, so an unknown
+     * account does not fail the other queries.
+     *
+     * @param queries the (account, date) pairs
+     * @return the balance of each pair, in request order
+     */
+    @Override
+    public List<BalanceAtDTO> getBalancesAt(List<BalanceQueryDTO> queries) {
+        List<BalanceQueryDTO> pairs = Optional.ofNullable(queries).orElse(List.of());
+        if (pairs.isEmpty() || pairs.size() > historyProperties.getMaxBalanceQueries()) {
+            throw new InvalidBatchException("A balance query must contain between 1 and "
+                    + historyProperties.getMaxBalanceQueries() + " (account, date) pairs.");
+        }
+        return bankMetrics.recordOperation(BankMetrics.BALANCE_AT, () -> readOnlyTransactionTemplate.execute(status -> {
+            List<BalanceAtDTO> balances = new ArrayList<>(pairs.size());
+            for (BalanceQueryDTO query : pairs) {
+                if (query.getAccountId() == null || query.getAt() == null) {
+                    balances.add(failure(query, "Account ID and date are required."));
+                    continue;
+                }
+                try {
+                    balances.add(balanceAt(query.getAccountId(), query.getAt()));
+                } catch (NoSuchAccountException ex) {
+                    balances.add(failure(query, ex.getMessage()));
+                }
+            }
+            return balances;
+        }));
+    }
+
+    /**
+     *  method to compute the balance of an account at a point in time.
+     *  Before the first operation of the account, its balance is the opening one: the post-operation balance of that
+     *  first operation with its amount undone, or the current balance if the account has no operation at all.
+     *
+     * @param accountId the ID of the account
+     * @param at the point in time, inclusive
+     * @return the balance of the account at that point in time
+     */
+    private BalanceAtDTO balanceAt(Long accountId, LocalDateTime at) {
+        Optional<Operation> last = operationRepository.findLastOperationAtOrBefore(accountId, at);
+        long balance;
+        Long operationId = null;
+        if (last.isPresent()) {
+            balance = last.get().getPostOperationBalance();
+            operationId = last.get().getId();
+        } else {
+            balance = operationRepository.findFirstOperationFrom(accountId, at)
+                    .map(first -> first.getOperationType().isCredit()
+                            ? first.getPostOperationBalance() - first.getAmount()
+                            : first.getPostOperationBalance() + first.getAmount())
+                    .or(() -> accountRepository.findBalanceById(accountId))
+                    .orElseThrow(() -> new NoSuchAccountException("No such account with ID: " + accountId));
+        }
+        return BalanceAtDTO.builder()
+                .accountId(accountId)
+                .at(at)
+                .balance(ValidationUtils.toMajorUnits(balance))
+                .operationId(operationId)
+                .build();
+    }
+
+    private static BalanceAtDTO failure(BalanceQueryDTO query, String error) {
+        return BalanceAtDTO.builder()
+                .accountId(query.getAccountId())
+                .at(query.getAt())
+                .error(error)
+                .build();
+    }
+
+    /**
+     *  method to write operations as one JSON object per line.
+     *
+     * @param operations the operations to write
+     * @param writer the destination
+     */
+    private void writeNdjson(Stream<Operation> operations, Writer writer) throws IOException {
+        for (Operation operation : (Iterable<Operation>) operations::iterator) {
+            writer.write(objectMapper.writeValueAsString(toExportRow(operation)));
+            writer.write("\n");
+        }
+    }
+
+    /**
+     *  method to write operations as CSV, with a header line.
+     *
+     * @param operations the operations to write
+     * @param writer the destination
+     */
+    private void writeCsv(Stream<Operation> operations, Writer writer) throws IOException {
+        writer.write("id,accountId,date,operationType,amount,postOperationBalance\n");
+        for (Operation operation : (Iterable<Operation>) operations::iterator) {
+            OperationExportDTO row = toExportRow(operation);
+            writer.write(row.getId() + "," + row.getAccountId() + "," + row.getDate() + "," + row.getOperationType()
+                    + "," + row.getAmount() + "," + row.getPostOperationBalance() + "\n");
+        }
+    }
+
+    /**
+     *  method to copy an operation into a flat export row, then detach it from the persistence context.
+     *  The account ID is read from the lazy proxy without loading the account.
+     *
+     * @param operation the operation read from the cursor
+     * @return the export row
+     */
+    private OperationExportDTO toExportRow(Operation operation) {
+        OperationExportDTO row = operationMapper.toExportDto(operation);
+        entityManager.detach(operation);
+        return row;
+    }
+
+    /**
+     *  method to build the opaque cursor pointing right after an operation.
+     *
+     * @param operation the last operation of a page
+     * @return the URL-safe cursor
+     */
+    private static String encodeCursor(OperationDTO operation) {
+        String position = operation.getDate() + "|" + operation.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     *  method to decode and validate a cursor.
+     *
+     * @param cursor the cursor sent by the client
+     * @return the date and the ID held by the cursor
+     */
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException ex) {
+            throw new InvalidPageRequestException("Invalid cursor.");
+        }
     }
 }
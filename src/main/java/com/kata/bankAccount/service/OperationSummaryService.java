@@ -0,0 +1,119 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.dto.OperationSummaryDTO;
+import com.kata.bankAccount.enums.SummaryGranularity;
+import com.kata.bankAccount.exception.InvalidPageRequestException;
+import com.kata.bankAccount.exception.NoSuchAccountException;
+import com.kata.bankAccount.model.Operation;
+import com.kata.bankAccount.model.OperationSummary;
+import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.OperationSummaryRepository;
+import com.kata.bankAccount.util.ValidationUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Daily and monthly totals of the operations of each account, maintained incrementally.
+ * Every path that inserts operations hands them to record() in the same transaction, so the summaries are always
+ * consistent with the operations; reports then read one row per period instead of the whole history.
+ */
+@Service
+public class OperationSummaryService {
+
+    private final OperationSummaryRepository summaryRepository;
+    private final AccountRepository accountRepository;
+
+    // Bounds used when the client does not restrict the range
+    private static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param summaryRepository the repository of the summaries
+     * @param accountRepository the repository used to tell an unknown account from an account without operations
+     */
+    @Autowired
+    public OperationSummaryService(OperationSummaryRepository summaryRepository, AccountRepository accountRepository) {
+        this.summaryRepository = summaryRepository;
+        this.accountRepository = accountRepository;
+    }
+
+    /**
+     * Add new operations to the daily and monthly summaries of their accounts.
+     * Must be called in the transaction inserting the operations, after the accounts have been locked or updated.
+     * The operations are first totalled per period, so a batch costs one statement per (account, period) it touches.
+     *
+     * @param operations the operations being inserted
+     */
+    public void record(List<Operation> operations) {
+        Map<PeriodKey, long[]> totals = new LinkedHashMap<>();
+        for (Operation operation : operations) {
+            Long accountId = operation.getAccount().getId(); // Read from the proxy without loading the account
+            LocalDate day = operation.getDate().toLocalDate();
+            for (SummaryGranularity granularity : SummaryGranularity.values()) {
+                long[] total = totals.computeIfAbsent(
+                        new PeriodKey(accountId, granularity, granularity.periodStart(day)), key -> new long[3]);
+                total[operation.getOperationType().isCredit() ? 0 : 1] += operation.getAmount();
+                total[2]++;
+            }
+        }
+        totals.forEach((key, total) -> summaryRepository.addToSummary(key.accountId(), key.granularity().name(),
+                key.periodStart(), total[0], total[1], total[2]));
+    }
+
+    /**
+     * Retrieve the summaries of an account for the periods overlapping a date range, ordered by period.
+     * Only the summaries are read: the cost follows the number of periods, not the number of operations.
+     *
+     * @param accountId the ID of the account
+     * @param granularity the granularity of the periods, day or month
+     * @param from the inclusive lower bound of the dates, or null
+     * @param to the exclusive upper bound of the dates, or null
+     * @return the summary of each period with operations
+     */
+    public List<OperationSummaryDTO> getSummary(Long accountId, String granularity, LocalDate from, LocalDate to) {
+        SummaryGranularity periods = parseGranularity(granularity);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidPageRequestException("The 'from' date must be before the 'to' date.");
+        }
+        // The period holding the from date overlaps the range even though it starts before it
+        List<OperationSummary> summaries = summaryRepository.findPeriods(accountId, periods,
+                from == null ? MIN_DATE : periods.periodStart(from), to == null ? MAX_DATE : to);
+        if (summaries.isEmpty() && accountRepository.findVersionById(accountId).isEmpty()) {
+            throw new NoSuchAccountException("No such account with ID: " + accountId);
+        }
+        return summaries.stream()
+                .map(summary -> OperationSummaryDTO.builder()
+                        .periodStart(summary.getPeriodStart())
+                        .totalCredits(ValidationUtils.toMajorUnits(summary.getTotalCredits()))
+                        .totalDebits(ValidationUtils.toMajorUnits(summary.getTotalDebits()))
+                        .operationCount(summary.getOperationCount())
+                        .build())
+                .toList();
+    }
+
+    /**
+     *  method to read the granularity sent by the client, whatever its case.
+     *
+     * @param granularity the granularity, day or month
+     * @return the matching granularity
+     */
+    private static SummaryGranularity parseGranularity(String granularity) {
+        try {
+            return SummaryGranularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            throw new InvalidPageRequestException("Granularity must be day or month.");
+        }
+    }
+
+    // Summary row incremented by a batch of operations
+    private record PeriodKey(Long accountId, SummaryGranularity granularity, LocalDate periodStart) {
+    }
+}
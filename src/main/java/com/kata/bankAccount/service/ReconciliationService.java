@@ -0,0 +1,342 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.ReconciliationProperties;
+import com.kata.bankAccount.dto.ReconciliationDTO;
+import com.kata.bankAccount.enums.ReconciliationStatus;
+import com.kata.bankAccount.exception.ReconciliationInProgressException;
+import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.OperationRepository;
+import com.kata.bankAccount.repository.ReconciledAccount;
+import com.kata.bankAccount.repository.ReconciledOperation;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Proves that the balances match their operations. A run splits the account ID space in two until the ranges are
+ * small enough, and reconciles the ranges in parallel on a bounded ForkJoinPool. Each range streams its operations
+ * from a read-only cursor, in account then ID order, and checks that every PostOperationBalance is the previous one
+ * plus the signed amount (the opening balance of an account being the one before its first operation); it then checks
+ * that the balance of each account is the PostOperationBalance of its last operation. Discrepancies are written to a
+ * CSV report. The operations read per second are capped, so that a run leaves room for the online traffic.
+ * Only one run happens at a time.
+ */
+@Slf4j
+@Service
+public class ReconciliationService {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // Number of operations a task reads between two throttling checks
+    private static final int THROTTLE_CHUNK = 1_000;
+
+    private final AccountRepository accountRepository;
+    private final OperationRepository operationRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ReconciliationProperties reconciliationProperties;
+    private final ExecutorService coordinator;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Run current; // Guarded by lock
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param accountRepository the repository used to read the balances and the range of account IDs
+     * @param operationRepository the repository used to stream the operations
+     * @param transactionManager the transaction manager used to keep the cursor of each range open
+     * @param reconciliationProperties the settings of the runs (parallelism, range size, throttling, lag, directory)
+     */
+    @Autowired
+    public ReconciliationService(AccountRepository accountRepository, OperationRepository operationRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 ReconciliationProperties reconciliationProperties) {
+        this.accountRepository = accountRepository;
+        this.operationRepository = operationRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.reconciliationProperties = reconciliationProperties;
+        this.coordinator = Executors.newSingleThreadExecutor(task -> new Thread(task, "reconciliation"));
+    }
+
+    /**
+     * Starts a reconciliation run in the background.
+     * Only the operations older than the configured lag are reconciled, up to the last of them.
+     *
+     * @return the progress of the run just started
+     */
+    public ReconciliationDTO startReconciliation() {
+        lock.lock();
+        try {
+            if (current != null && current.status == ReconciliationStatus.RUNNING) {
+                throw new ReconciliationInProgressException("A reconciliation is already running since "
+                        + current.startTime + ".");
+            }
+            long lastOperationId = operationRepository.findMaxIdBefore(
+                    LocalDateTime.now().minusSeconds(reconciliationProperties.getLagSeconds())).orElse(0L);
+            Run run = new Run(lastOperationId, openReport());
+            current = run;
+            coordinator.execute(run::execute);
+            return run.toDTO();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Progress of the running reconciliation, or outcome of the last one.
+     *
+     * @return the progress, empty if no reconciliation was started
+     */
+    public Optional<ReconciliationDTO> getReconciliation() {
+        lock.lock();
+        try {
+            return Optional.ofNullable(current).map(Run::toDTO);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the running reconciliation, if any.
+     */
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    /**
+     *  method to create the report of a run, with its header line.
+     *
+     * @return the path of the report
+     */
+    private Path openReport() {
+        Path file = Path.of(reconciliationProperties.getDirectory())
+                .resolve("reconciliation-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".csv");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, "type,accountId,operationId,expected,actual\n");
+            return file;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // State of one run; the counters are updated by the tasks and read by the progress requests
+    private final class Run {
+        private final LocalDateTime startTime = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private final long lastOperationId;
+        private final Path reportFile;
+        private final ReentrantLock reportLock = new ReentrantLock();
+        private final AtomicLong rangesDone = new AtomicLong();
+        private final AtomicLong idsDone = new AtomicLong();
+        private final AtomicLong accountsChecked = new AtomicLong();
+        private final AtomicLong accountsSkipped = new AtomicLong();
+        private final AtomicLong operationsChecked = new AtomicLong();
+        private final AtomicLong discrepancies = new AtomicLong();
+        private volatile ReconciliationStatus status = ReconciliationStatus.RUNNING;
+        private volatile LocalDateTime endTime;
+        private volatile long idsTotal;
+        private Writer report; // Guarded by reportLock
+
+        private Run(long lastOperationId, Path reportFile) {
+            this.lastOperationId = lastOperationId;
+            this.reportFile = reportFile;
+        }
+
+        /**
+         *  method to reconcile every account, on the coordinator thread.
+         */
+        private void execute() {
+            ForkJoinPool pool = new ForkJoinPool(reconciliationProperties.getParallelism(), forkJoinPool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setName("reconciliation-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+            try (Writer writer = Files.newBufferedWriter(reportFile, StandardOpenOption.APPEND)) {
+                report = writer;
+                Optional<Long> minId = accountRepository.findMinId();
+                if (minId.isPresent()) {
+                    long maxId = accountRepository.findMaxId().orElseThrow();
+                    idsTotal = maxId + 1 - minId.get();
+                    pool.invoke(new RangeTask(minId.get(), maxId + 1));
+                }
+                status = ReconciliationStatus.COMPLETED;
+            } catch (RuntimeException | IOException ex) {
+                log.error("Reconciliation failed after {} ranges", rangesDone.get(), ex);
+                status = ReconciliationStatus.FAILED;
+            } finally {
+                pool.shutdownNow();
+                endTime = LocalDateTime.now();
+            }
+            log.info("Reconciliation {}: {} accounts and {} operations checked, {} discrepancies, report {}",
+                    status, accountsChecked.get(), operationsChecked.get(), discrepancies.get(), reportFile);
+        }
+
+        /**
+         *  method to reconcile the accounts of one range, in a read-only transaction.
+         *
+         * @param fromId the inclusive lower bound of the account IDs
+         * @param toId the exclusive upper bound of the account IDs
+         */
+        private void reconcileRange(long fromId, long toId) {
+            readOnlyTransactionTemplate.executeWithoutResult(transaction -> {
+                // Last operation read per account: {operation ID, PostOperationBalance}
+                Map<Long, long[]> lastOperations = new HashMap<>();
+                long unthrottled = 0;
+                try (Stream<ReconciledOperation> operations =
+                             operationRepository.streamForReconciliation(fromId, toId, lastOperationId)) {
+                    for (ReconciledOperation operation : (Iterable<ReconciledOperation>) operations::iterator) {
+                        long[] previous = lastOperations.get(operation.accountId());
+                        if (previous != null) { // The first operation of an account sets its opening balance
+                            long expected = operation.operationType().isCredit()
+                                    ? previous[1] + operation.amount()
+                                    : previous[1] - operation.amount();
+                            if (operation.postOperationBalance() != expected) {
+                                report("CHAIN_BREAK", operation.accountId(), operation.id(), expected,
+                                        operation.postOperationBalance());
+                            }
+                        }
+                        lastOperations.put(operation.accountId(),
+                                new long[]{operation.id(), operation.postOperationBalance()});
+                        if (++unthrottled == THROTTLE_CHUNK) {
+                            throttle(unthrottled);
+                            unthrottled = 0;
+                        }
+                    }
+                }
+                operationsChecked.addAndGet(unthrottled);
+
+                List<ReconciledAccount> accounts = accountRepository.findReconciledAccounts(fromId, toId);
+                for (ReconciledAccount account : accounts) {
+                    long[] last = lastOperations.get(account.id());
+                    if (account.lastOperationId() == null) {
+                        accountsChecked.incrementAndGet(); // No operation: the balance is the opening one
+                    } else if (last == null || last[0] != account.lastOperationId()) {
+                        accountsSkipped.incrementAndGet(); // Operations after the last one reconciled
+                    } else {
+                        accountsChecked.incrementAndGet();
+                        if (account.balance() != last[1]) {
+                            report("BALANCE_MISMATCH", account.id(), last[0], last[1], account.balance());
+                        }
+                    }
+                }
+            });
+            rangesDone.incrementAndGet();
+            idsDone.addAndGet(toId - fromId);
+        }
+
+        /**
+         *  method to count operations read and, if the run is ahead of the allowed rate, wait until it is not.
+         *
+         * @param count the number of operations read since the previous call
+         */
+        private void throttle(long count) {
+            long total = operationsChecked.addAndGet(count);
+            long maxPerSecond = reconciliationProperties.getMaxOperationsPerSecond();
+            if (maxPerSecond <= 0) {
+                return;
+            }
+            long aheadNanos = total * 1_000_000_000L / maxPerSecond - (System.nanoTime() - startNanos);
+            if (aheadNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(aheadNanos);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Reconciliation interrupted", ex);
+                }
+            }
+        }
+
+        /**
+         *  method to write one discrepancy to the report.
+         *
+         * @param type CHAIN_BREAK or BALANCE_MISMATCH
+         * @param accountId the ID of the account
+         * @param operationId the ID of the operation whose balance does not match
+         * @param expected the expected balance, in minor units
+         * @param actual the recorded balance, in minor units
+         */
+        private void report(String type, Long accountId, Long operationId, long expected, long actual) {
+            discrepancies.incrementAndGet();
+            reportLock.lock();
+            try {
+                report.write(type + "," + accountId + "," + operationId + "," + expected + "," + actual + "\n");
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            } finally {
+                reportLock.unlock();
+            }
+        }
+
+        private ReconciliationDTO toDTO() {
+            double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+            long total = idsTotal;
+            double done = status != ReconciliationStatus.RUNNING ? 1.0
+                    : total == 0 ? 0.0 : (double) idsDone.get() / total;
+            Long eta = status != ReconciliationStatus.RUNNING || done == 0.0 ? null
+                    : Math.round(elapsedSeconds * (1 - done) / done);
+            return ReconciliationDTO.builder()
+                    .status(status)
+                    .startTime(startTime)
+                    .endTime(endTime)
+                    .lastOperationId(lastOperationId)
+                    .reportFile(reportFile.toAbsolutePath().toString())
+                    .rangesDone(rangesDone.get())
+                    .accountsChecked(accountsChecked.get())
+                    .accountsSkipped(accountsSkipped.get())
+                    .operationsChecked(operationsChecked.get())
+                    .discrepancies(discrepancies.get())
+                    .percentDone(done * 100)
+                    .operationsPerSecond(elapsedSeconds == 0 ? 0 : operationsChecked.get() / elapsedSeconds)
+                    .etaSeconds(eta)
+                    .build();
+        }
+
+        // Range of account IDs, reconciled directly if small enough, split in two otherwise
+        private final class RangeTask extends RecursiveAction {
+            private final long fromId;
+            private final long toId;
+
+            private RangeTask(long fromId, long toId) {
+                this.fromId = fromId;
+                this.toId = toId;
+            }
+
+            @Override
+            protected void compute() {
+                if (toId - fromId <= reconciliationProperties.getRangeSize()) {
+                    reconcileRange(fromId, toId);
+                    return;
+                }
+                long middle = fromId + (toId - fromId) / 2;
+                invokeAll(new RangeTask(fromId, middle), new RangeTask(middle, toId));
+            }
+        }
+    }
+}
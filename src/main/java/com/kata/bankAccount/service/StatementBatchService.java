@@ -0,0 +1,346 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.StatementBatchProperties;
+import com.kata.bankAccount.dto.StatementRunDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.enums.StatementRunStatus;
+import com.kata.bankAccount.exception.InvalidBatchException;
+import com.kata.bankAccount.exception.StatementRunInProgressException;
+import com.kata.bankAccount.model.Operation;
+import com.kata.bankAccount.model.StatementCheckpoint;
+import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.OperationRepository;
+import com.kata.bankAccount.repository.StatementCheckpointRepository;
+import com.kata.bankAccount.repository.StatementLine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Writes the monthly statements of every account: opening balance, operations of the month and closing balance.
+ * The account IDs are split in contiguous partitions, each written by its own thread to its own file, one chunk of
+ * accounts at a time. The operations of an account are streamed from the (account_id, date, id) index and written as
+ * they are read, so the memory of a writer does not grow with the number of accounts or operations. After each chunk
+ * the file is forced to disk and the partition checkpoint saved; starting the same month again resumes every
+ * partition after its checkpoint, the bytes written after it being truncated. Only one run happens at a time.
+ *
+ * <p>File format, one line per record, amounts and balances in minor units:
+ * {@code A|accountId|month|openingBalance}, then one {@code O|operationId|date|type|amount|postOperationBalance}
+ * per operation (type D, W, O or I for deposit, withdrawal, outgoing and incoming transfer), then
+ * {@code Z|closingBalance|operationCount}.
+ */
+@Slf4j
+@Service
+public class StatementBatchService {
+
+    private final AccountRepository accountRepository;
+    private final OperationRepository operationRepository;
+    private final StatementCheckpointRepository checkpointRepository;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final StatementBatchProperties statementBatchProperties;
+    private final ExecutorService coordinator;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Run current; // Guarded by lock
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param accountRepository the repository used to read the account IDs and the balances of accounts without operations
+     * @param operationRepository the repository used to read the opening balances and stream the operations
+     * @param checkpointRepository the repository of the partition checkpoints
+     * @param transactionManager the transaction manager used to keep the cursors of each chunk open
+     * @param statementBatchProperties the settings of the runs (directory, partitions, chunk size)
+     */
+    @Autowired
+    public StatementBatchService(AccountRepository accountRepository, OperationRepository operationRepository,
+                                 StatementCheckpointRepository checkpointRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 StatementBatchProperties statementBatchProperties) {
+        this.accountRepository = accountRepository;
+        this.operationRepository = operationRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.statementBatchProperties = statementBatchProperties;
+        this.coordinator = Executors.newSingleThreadExecutor(task -> new Thread(task, "statement-batch"));
+    }
+
+    /**
+     * Starts the statement run of a month in the background, or resumes it from its checkpoints.
+     *
+     * @param month the month of the statements, which must have ended
+     * @return the progress of the run
+     */
+    public StatementRunDTO startRun(YearMonth month) {
+        if (month == null || !month.isBefore(YearMonth.now())) {
+            throw new InvalidBatchException("Statements can only be generated for a month that has ended.");
+        }
+        lock.lock();
+        try {
+            if (current != null && current.status == StatementRunStatus.RUNNING) {
+                throw new StatementRunInProgressException("The statements of " + current.month + " are being written.");
+            }
+            Run run = new Run(month, loadOrCreateCheckpoints(month.toString()));
+            current = run;
+            coordinator.execute(run::execute);
+            return run.toDTO();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Progress of the running statement run, or outcome of the last one.
+     *
+     * @return the progress, empty if no run was started
+     */
+    public Optional<StatementRunDTO> getRun() {
+        lock.lock();
+        try {
+            return Optional.ofNullable(current).map(Run::toDTO);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the running statement run, if any; it resumes from its checkpoints when started again.
+     */
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    /**
+     *  method to read the checkpoints of a month, or to split the account IDs in partitions on its first start.
+     *
+     * @param period the month, as yyyy-MM
+     * @return the checkpoint of each partition
+     */
+    private List<StatementCheckpoint> loadOrCreateCheckpoints(String period) {
+        List<StatementCheckpoint> checkpoints = checkpointRepository.findByPeriodOrderByPartitionIndex(period);
+        if (!checkpoints.isEmpty()) {
+            return checkpoints;
+        }
+        long fromId = accountRepository.findMinId().orElse(0L);
+        long toId = accountRepository.findMaxId().map(maxId -> maxId + 1).orElse(fromId);
+        int partitions = statementBatchProperties.getPartitions();
+        long width = Math.max(1, (toId - fromId + partitions - 1) / partitions);
+        List<StatementCheckpoint> created = new ArrayList<>(partitions);
+        for (int index = 0; index < partitions; index++) {
+            long partitionFrom = Math.min(toId, fromId + index * width);
+            created.add(StatementCheckpoint.builder()
+                    .period(period)
+                    .partitionIndex(index)
+                    .partitionCount(partitions)
+                    .fromAccountId(partitionFrom)
+                    .toAccountId(Math.min(toId, partitionFrom + width))
+                    .lastAccountId(partitionFrom - 1)
+                    .build());
+        }
+        return checkpointRepository.saveAll(created);
+    }
+
+    /**
+     *  method to compute the balance of an account right before a point in time: the post-operation balance of its
+     *  last operation before it, else the balance before its first operation, else its current balance.
+     *
+     * @param accountId the ID of the account
+     * @param start the point in time, exclusive
+     * @return the balance, in minor units
+     */
+    private long openingBalance(Long accountId, LocalDateTime start) {
+        return operationRepository.findLastOperationBefore(accountId, start)
+                .map(Operation::getPostOperationBalance)
+                .or(() -> operationRepository.findFirstOperationFrom(accountId, start)
+                        .map(first -> first.getOperationType().isCredit()
+                                ? first.getPostOperationBalance() - first.getAmount()
+                                : first.getPostOperationBalance() + first.getAmount()))
+                .or(() -> accountRepository.findBalanceById(accountId))
+                .orElse(0L);
+    }
+
+    private static char typeCode(OperationType type) {
+        return switch (type) {
+            case DEPOSIT -> 'D';
+            case WITHDRAWAL -> 'W';
+            case TRANSFER_OUT -> 'O';
+            case TRANSFER_IN -> 'I';
+        };
+    }
+
+    // State of one run; the counters are updated by the writers and read by the progress requests
+    private final class Run {
+        private final YearMonth month;
+        private final List<StatementCheckpoint> checkpoints;
+        private final LocalDateTime startTime = LocalDateTime.now();
+        private final long accountsResumed;
+        private final AtomicLong accountsDone = new AtomicLong();
+        private final AtomicLong operationsWritten = new AtomicLong();
+        private volatile StatementRunStatus status = StatementRunStatus.RUNNING;
+        private volatile LocalDateTime endTime;
+
+        private Run(YearMonth month, List<StatementCheckpoint> checkpoints) {
+            this.month = month;
+            this.checkpoints = checkpoints;
+            this.accountsResumed = checkpoints.stream().mapToLong(StatementCheckpoint::getAccountsDone).sum();
+            this.accountsDone.set(accountsResumed);
+            this.operationsWritten.set(checkpoints.stream().mapToLong(StatementCheckpoint::getOperationsWritten).sum());
+        }
+
+        /**
+         *  method to write every partition, each on its own thread, on the coordinator thread.
+         */
+        private void execute() {
+            AtomicInteger threadCount = new AtomicInteger();
+            ExecutorService writers = Executors.newFixedThreadPool(checkpoints.size(),
+                    task -> new Thread(task, "statement-writer-" + threadCount.getAndIncrement()));
+            try {
+                Files.createDirectories(Path.of(statementBatchProperties.getDirectory()));
+                List<Future<?>> partitions = new ArrayList<>(checkpoints.size());
+                for (StatementCheckpoint checkpoint : checkpoints) {
+                    partitions.add(writers.submit(() -> writePartition(checkpoint)));
+                }
+                boolean failed = false;
+                for (Future<?> partition : partitions) {
+                    try {
+                        partition.get();
+                    } catch (ExecutionException ex) {
+                        log.error("Statement partition of {} failed", month, ex.getCause());
+                        failed = true;
+                    }
+                }
+                status = failed ? StatementRunStatus.FAILED : StatementRunStatus.COMPLETED;
+            } catch (IOException | RuntimeException ex) {
+                log.error("Statement run of {} failed", month, ex);
+                status = StatementRunStatus.FAILED;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                status = StatementRunStatus.FAILED;
+            } finally {
+                writers.shutdownNow();
+                endTime = LocalDateTime.now();
+            }
+            log.info("Statements of {} {}: {} accounts, {} operations", month, status, accountsDone.get(),
+                    operationsWritten.get());
+        }
+
+        /**
+         *  method to write the statements of the accounts of a partition after its checkpoint, one chunk at a time.
+         *
+         * @param checkpoint the checkpoint of the partition, saved after each chunk
+         */
+        private void writePartition(StatementCheckpoint checkpoint) {
+            if (checkpoint.getCompletedAt() != null) {
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(file(checkpoint), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.truncate(checkpoint.getFileOffset()); // Drops what was written after the last checkpoint
+                channel.position(checkpoint.getFileOffset());
+                Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+                List<Long> accountIds;
+                while (!(accountIds = accountRepository.findIdsAfter(checkpoint.getLastAccountId(),
+                        checkpoint.getToAccountId(), PageRequest.of(0, statementBatchProperties.getChunkSize()))).isEmpty()) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new IllegalStateException("Statement run interrupted");
+                    }
+                    List<Long> chunk = accountIds;
+                    long operations = readOnlyTransactionTemplate.execute(transaction -> writeChunk(chunk, writer));
+                    writer.flush();
+                    channel.force(false); // The checkpoint never points past what is on disk
+
+                    checkpoint.setLastAccountId(chunk.getLast());
+                    checkpoint.setFileOffset(channel.position());
+                    checkpoint.setAccountsDone(checkpoint.getAccountsDone() + chunk.size());
+                    checkpoint.setOperationsWritten(checkpoint.getOperationsWritten() + operations);
+                    checkpointRepository.save(checkpoint);
+                    accountsDone.addAndGet(chunk.size());
+                    operationsWritten.addAndGet(operations);
+                }
+                checkpoint.setCompletedAt(LocalDateTime.now());
+                checkpointRepository.save(checkpoint);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        /**
+         *  method to write the statements of a chunk of accounts.
+         *
+         * @param accountIds the IDs of the accounts, in ID order
+         * @param writer the file of the partition
+         * @return the number of operations written
+         */
+        private long writeChunk(List<Long> accountIds, Writer writer) {
+            LocalDateTime start = month.atDay(1).atStartOfDay();
+            LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+            long written = 0;
+            try {
+                for (Long accountId : accountIds) {
+                    long balance = openingBalance(accountId, start);
+                    long count = 0;
+                    writer.write("A|" + accountId + "|" + month + "|" + balance + "\n");
+                    try (Stream<StatementLine> lines = operationRepository.streamStatementLines(accountId, start, end)) {
+                        for (StatementLine line : (Iterable<StatementLine>) lines::iterator) {
+                            writer.write("O|" + line.id() + "|" + line.date() + "|" + typeCode(line.operationType())
+                                    + "|" + line.amount() + "|" + line.postOperationBalance() + "\n");
+                            balance = line.postOperationBalance();
+                            count++;
+                        }
+                    }
+                    writer.write("Z|" + balance + "|" + count + "\n");
+                    written += count;
+                }
+                return written;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private Path file(StatementCheckpoint checkpoint) {
+            return Path.of(statementBatchProperties.getDirectory())
+                    .resolve("statements-" + checkpoint.getPeriod() + "-p" + checkpoint.getPartitionIndex() + ".txt");
+        }
+
+        private StatementRunDTO toDTO() {
+            return StatementRunDTO.builder()
+                    .period(month.toString())
+                    .status(status)
+                    .startTime(startTime)
+                    .endTime(endTime)
+                    .files(checkpoints.stream().map(checkpoint -> file(checkpoint).toAbsolutePath().toString()).toList())
+                    .accountsResumed(accountsResumed)
+                    .accountsDone(accountsDone.get())
+                    .operationsWritten(operationsWritten.get())
+                    .build();
+        }
+    }
+}
@@ -4,6 +4,12 @@ import com.kata.bankAccount.exception.InvalideAmountException;
 
 public class ValidationUtils {
 
+    // Amounts are stored and computed in minor units (cents): 1.00 in the API is 100 in the database
+    public static final int MINOR_UNITS_PER_MAJOR = 100;
+
+    // Beyond 2^53 minor units a double no longer holds every amount exactly
+    private static final long MAX_MINOR_UNITS = 1L << 53;
+
     private ValidationUtils() {
         // Prevent instantiation
     }
@@ -14,4 +20,35 @@ public class ValidationUtils {
         }
     }
 
+    /**
+     * Converts an amount received by the API to minor units, rejecting amounts that are not positive or that
+     * have more than two decimals. Allocation free: the amount is accepted only if the minor units convert back
+     * to the very same double.
+     *
+     * @param amount the amount, in major units
+     * @return the amount, in minor units
+     */
+    public static long toMinorUnits(Double amount) {
+        validateAmount(amount);
+        double value = amount;
+        long minorUnits = Math.round(value * MINOR_UNITS_PER_MAJOR);
+        if (minorUnits >= MAX_MINOR_UNITS) {
+            throw new InvalideAmountException("Amount is too large.");
+        }
+        if (toMajorUnits(minorUnits) != value) {
+            throw new InvalideAmountException("Amount must have at most 2 decimals.");
+        }
+        return minorUnits;
+    }
+
+    /**
+     * Converts an amount in minor units to the major units exposed by the API.
+     *
+     * @param minorUnits the amount, in minor units
+     * @return the amount, in major units
+     */
+    public static double toMajorUnits(long minorUnits) {
+        return (double) minorUnits / MINOR_UNITS_PER_MAJOR;
+    }
+
 }
@@ -0,0 +1,5 @@
+-- One-off migration of a database created before accounts were versioned.
+-- Run it once, with the application stopped: accounts gain the version used by the OPTIMISTIC mode and incremented
+-- by every balance change, starting at 0. Databases created by the application since then need no migration.
+ALTER TABLE account ADD COLUMN version BIGINT;
+UPDATE account SET version = 0;
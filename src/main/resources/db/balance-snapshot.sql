@@ -0,0 +1,12 @@
+-- One-off migration of a database created before the balance snapshots existed.
+-- Run it once, with the application stopped: the table starts empty and the first snapshot run fills it from all the
+-- operations; the index serves the recovery of a balance from its snapshot. Databases created by the application
+-- since then need no migration.
+CREATE TABLE balance_snapshot (
+    account_id BIGINT NOT NULL,
+    balance BIGINT NOT NULL,
+    last_operation_id BIGINT,
+    taken_at TIMESTAMP(6),
+    PRIMARY KEY (account_id)
+);
+CREATE INDEX idx_operation_account_id ON operation (account_id, id);
@@ -0,0 +1,12 @@
+-- One-off migration of a database created while money was stored as DOUBLE in major units.
+-- Run it once, with the application stopped: balances and amounts become BIGINT minor units (cents),
+-- rounded to the nearest cent. Databases created by the application since then need no migration.
+UPDATE account SET balance = ROUND(balance * 100);
+ALTER TABLE account ALTER COLUMN balance SET DATA TYPE BIGINT;
+ALTER TABLE account ALTER COLUMN balance SET NOT NULL;
+
+UPDATE operation SET amount = ROUND(amount * 100), post_operation_balance = ROUND(post_operation_balance * 100);
+ALTER TABLE operation ALTER COLUMN amount SET DATA TYPE BIGINT;
+ALTER TABLE operation ALTER COLUMN amount SET NOT NULL;
+ALTER TABLE operation ALTER COLUMN post_operation_balance SET DATA TYPE BIGINT;
+ALTER TABLE operation ALTER COLUMN post_operation_balance SET NOT NULL;
@@ -0,0 +1,5 @@
+-- One-off migration of a database created before the ledger journal existed.
+-- Run it once, with the application stopped: operations gain the sequence of the journal record they were persisted from.
+-- Databases created by the application since then need no migration.
+ALTER TABLE operation ADD COLUMN journal_sequence BIGINT;
+CREATE INDEX idx_operation_journal_sequence ON operation (journal_sequence);
@@ -0,0 +1,7 @@
+-- One-off migration of a database created while operation IDs came from an IDENTITY column.
+-- Run it once, with the application stopped: IDs now come from the pooled operation_seq sequence, which Hibernate
+-- reads once per 50 IDs, the value read being the last ID of the block; it restarts so that the first block follows
+-- the highest existing ID. Databases created by the application since then need no migration.
+ALTER TABLE operation ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE operation_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE operation_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM operation);
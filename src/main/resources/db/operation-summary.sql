@@ -0,0 +1,24 @@
+-- One-off migration of a database created before the operation summaries existed.
+-- Run it once, with the application stopped: the daily and monthly summaries are built from the existing operations,
+-- then kept up to date by the application with each new operation. Databases created by the application since then need no migration.
+CREATE TABLE operation_summary (
+    account_id BIGINT NOT NULL,
+    granularity VARCHAR(255) NOT NULL,
+    period_start DATE NOT NULL,
+    total_credits BIGINT NOT NULL,
+    total_debits BIGINT NOT NULL,
+    operation_count BIGINT NOT NULL,
+    PRIMARY KEY (account_id, granularity, period_start)
+);
+INSERT INTO operation_summary (account_id, granularity, period_start, total_credits, total_debits, operation_count)
+SELECT account_id, 'DAY', CAST(date AS DATE),
+       SUM(CASE WHEN operation_type IN ('DEPOSIT', 'TRANSFER_IN') THEN amount ELSE 0 END),
+       SUM(CASE WHEN operation_type IN ('DEPOSIT', 'TRANSFER_IN') THEN 0 ELSE amount END),
+       COUNT(*)
+FROM operation GROUP BY account_id, CAST(date AS DATE);
+INSERT INTO operation_summary (account_id, granularity, period_start, total_credits, total_debits, operation_count)
+SELECT account_id, 'MONTH', CAST(DATE_TRUNC('MONTH', date) AS DATE),
+       SUM(CASE WHEN operation_type IN ('DEPOSIT', 'TRANSFER_IN') THEN amount ELSE 0 END),
+       SUM(CASE WHEN operation_type IN ('DEPOSIT', 'TRANSFER_IN') THEN 0 ELSE amount END),
+       COUNT(*)
+FROM operation GROUP BY account_id, CAST(DATE_TRUNC('MONTH', date) AS DATE);
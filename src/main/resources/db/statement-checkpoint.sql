@@ -0,0 +1,16 @@
+-- One-off migration of a database created before the monthly statement runs existed.
+-- Run it once, with the application stopped: the table holds the checkpoint of each partition of a run, and starts
+-- empty. Databases created by the application since then need no migration.
+CREATE TABLE statement_checkpoint (
+    period VARCHAR(255) NOT NULL,
+    partition_index INTEGER NOT NULL,
+    partition_count INTEGER NOT NULL,
+    from_account_id BIGINT NOT NULL,
+    to_account_id BIGINT NOT NULL,
+    last_account_id BIGINT NOT NULL,
+    file_offset BIGINT NOT NULL,
+    accounts_done BIGINT NOT NULL,
+    operations_written BIGINT NOT NULL,
+    completed_at TIMESTAMP(6),
+    PRIMARY KEY (period, partition_index)
+);
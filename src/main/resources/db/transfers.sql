@@ -0,0 +1,5 @@
+-- One-off migration of a database created before transfers existed.
+-- Run it once, with the application stopped: operations gain the reference linking the two legs of a transfer,
+-- and the operation type accepts the transfer legs. Databases created by the application since then need no migration.
+ALTER TABLE operation ADD COLUMN transfer_reference VARCHAR(255);
+ALTER TABLE operation ALTER COLUMN operation_type SET DATA TYPE VARCHAR(255);
@@ -1,5 +1,3 @@
--- Insert Accounts
-INSERT INTO account (balance) VALUES (1500.0);
-INSERT INTO account (balance) VALUES (2500.0);
-
-
+-- Insert Accounts (balances in minor units: 1500.00 and 2500.00)
+INSERT INTO account (balance, version) VALUES (150000, 0);
+INSERT INTO account (balance, version) VALUES (250000, 0);
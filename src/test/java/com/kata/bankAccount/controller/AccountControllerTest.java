@@ -1,7 +1,11 @@
 package com.kata.bankAccount.controller;
 
+import com.kata.bankAccount.dto.AccountContentionDTO;
 import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.dto.TransferResultDTO;
 import com.kata.bankAccount.exception.BalanceNotSufficientException;
+import com.kata.bankAccount.exception.ConcurrentUpdateException;
+import com.kata.bankAccount.exception.InvalidTransferException;
 import com.kata.bankAccount.exception.InvalideAmountException;
 import com.kata.bankAccount.exception.NoSuchAccountException;
 import com.kata.bankAccount.service.AccountService;
@@ -9,11 +13,17 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -40,6 +50,42 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.balance").value(1500.0));
     }
 
+    @Test
+    void getAccountStatement_WithVersion_ShouldReturnETag() throws Exception {
+        when(accountService.getStatementVersion(1L)).thenReturn(7L);
+        when(accountService.getAccountStatement(1L)).thenReturn(new AccountDTO(1L, 1500.0));
+
+        mockMvc.perform(get("/api/accounts/1/statement"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                .andExpect(jsonPath("$.balance").value(1500.0));
+    }
+
+    @Test
+    void getAccountStatement_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        when(accountService.getStatementVersion(1L)).thenReturn(7L);
+
+        mockMvc.perform(get("/api/accounts/1/statement")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                .andExpect(content().string(""));
+
+        verify(accountService, never()).getAccountStatement(1L);
+    }
+
+    @Test
+    void getAccountStatement_WithStaleIfNoneMatch_ShouldReturnAccount() throws Exception {
+        when(accountService.getStatementVersion(1L)).thenReturn(8L);
+        when(accountService.getAccountStatement(1L)).thenReturn(new AccountDTO(1L, 1600.0));
+
+        mockMvc.perform(get("/api/accounts/1/statement")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"8\""))
+                .andExpect(jsonPath("$.balance").value(1600.0));
+    }
+
     @Test
     void deposit_WithValidAmount_ShouldReturnUpdatedAccount() throws Exception {
         AccountDTO updatedAccount = new AccountDTO(1L, 2000.0);
@@ -66,8 +112,46 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.balance").value(500.0));
     }
 
+    @Test
+    void transfer_WithValidRequest_ShouldReturnBothAccounts() throws Exception {
+        TransferResultDTO result = new TransferResultDTO("ref-1", new AccountDTO(1L, 1000.0), new AccountDTO(2L, 3000.0));
+
+        when(accountService.transfer(1L, 2L, 500.0)).thenReturn(result);
+
+        mockMvc.perform(post("/api/accounts/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromAccountId\":1,\"toAccountId\":2,\"amount\":500}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transferReference").value("ref-1"))
+                .andExpect(jsonPath("$.fromAccount.balance").value(1000.0))
+                .andExpect(jsonPath("$.toAccount.balance").value(3000.0));
+    }
+
+    @Test
+    void getAccountContention_ShouldReturnCounters() throws Exception {
+        when(accountService.getAccountContention(1L)).thenReturn(new AccountContentionDTO(1L, 4, 1));
+
+        mockMvc.perform(get("/api/accounts/1/contention"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountId").value(1))
+                .andExpect(jsonPath("$.retries").value(4))
+                .andExpect(jsonPath("$.aborts").value(1));
+    }
+
     // ===== KO CASES =====
 
+    @Test
+    void deposit_WithTooManyConcurrentUpdates_ShouldReturnConflict() throws Exception {
+        when(accountService.deposit(1L, 100.0))
+                .thenThrow(new ConcurrentUpdateException("Too many concurrent updates"));
+
+        mockMvc.perform(post("/api/accounts/1/deposit")
+                        .param("amount", "100"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.details").value("Too many concurrent updates"))
+                .andExpect(jsonPath("$.statusCode").value(409));
+    }
+
     @Test
     void withdraw_WithInsufficientBalance_ShouldReturnBadRequest() throws Exception {
         when(accountService.withdraw(1L, 2000.0))
@@ -92,6 +176,19 @@ class AccountControllerTest {
                 .andExpect(jsonPath("$.statusCode").value(400));
     }
 
+    @Test
+    void transfer_WithSameAccount_ShouldReturnBadRequest() throws Exception {
+        when(accountService.transfer(1L, 1L, 100.0))
+                .thenThrow(new InvalidTransferException("A transfer needs two different accounts."));
+
+        mockMvc.perform(post("/api/accounts/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromAccountId\":1,\"toAccountId\":1,\"amount\":100}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details").value("A transfer needs two different accounts."))
+                .andExpect(jsonPath("$.statusCode").value(400));
+    }
+
     @Test
     void getAccountStatement_WithNonExistingId_ShouldReturnNotFound() throws Exception {
         when(accountService.getAccountStatement(999L))
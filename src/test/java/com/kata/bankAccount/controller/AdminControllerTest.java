@@ -0,0 +1,172 @@
+package com.kata.bankAccount.controller;
+
+import com.kata.bankAccount.dto.ReconciliationDTO;
+import com.kata.bankAccount.dto.RecordingDTO;
+import com.kata.bankAccount.dto.StatementRunDTO;
+import com.kata.bankAccount.enums.ReconciliationStatus;
+import com.kata.bankAccount.enums.StatementRunStatus;
+import com.kata.bankAccount.exception.InvalidBatchException;
+import com.kata.bankAccount.exception.ReconciliationInProgressException;
+import com.kata.bankAccount.exception.RecordingInProgressException;
+import com.kata.bankAccount.service.FlightRecorderService;
+import com.kata.bankAccount.service.ReconciliationService;
+import com.kata.bankAccount.service.StatementBatchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AdminController.class)
+class AdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private FlightRecorderService flightRecorderService;
+
+    @MockBean
+    private ReconciliationService reconciliationService;
+
+    @MockBean
+    private StatementBatchService statementBatchService;
+
+    @Test
+    void startRecording_WithDuration_ShouldReturnAccepted() throws Exception {
+        // Setup
+        when(flightRecorderService.startRecording(30))
+                .thenReturn(new RecordingDTO(1L, "/tmp/bankaccount-jfr/bankaccount.jfr", 30, Instant.now()));
+
+        // Test & Assert
+        mockMvc.perform(post("/api/admin/recordings")
+                        .param("durationSeconds", "30"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.file").value("/tmp/bankaccount-jfr/bankaccount.jfr"))
+                .andExpect(jsonPath("$.durationSeconds").value(30));
+    }
+
+    @Test
+    void startRecording_WhileRecording_ShouldReturnConflict() throws Exception {
+        // Setup
+        when(flightRecorderService.startRecording(null))
+                .thenThrow(new RecordingInProgressException("A recording is already running."));
+
+        // Test & Assert
+        mockMvc.perform(post("/api/admin/recordings"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.details").value("A recording is already running."));
+    }
+
+    @Test
+    void startReconciliation_ShouldReturnAccepted() throws Exception {
+        // Setup
+        when(reconciliationService.startReconciliation()).thenReturn(ReconciliationDTO.builder()
+                .status(ReconciliationStatus.RUNNING)
+                .startTime(LocalDateTime.now())
+                .lastOperationId(42L)
+                .reportFile("/tmp/bankaccount-reconciliation/reconciliation.csv")
+                .build());
+
+        // Test & Assert
+        mockMvc.perform(post("/api/admin/reconciliations"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.lastOperationId").value(42))
+                .andExpect(jsonPath("$.reportFile").value("/tmp/bankaccount-reconciliation/reconciliation.csv"));
+    }
+
+    @Test
+    void startReconciliation_WhileRunning_ShouldReturnConflict() throws Exception {
+        // Setup
+        when(reconciliationService.startReconciliation())
+                .thenThrow(new ReconciliationInProgressException("A reconciliation is already running."));
+
+        // Test & Assert
+        mockMvc.perform(post("/api/admin/reconciliations"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.details").value("A reconciliation is already running."));
+    }
+
+    @Test
+    void getReconciliation_ShouldReturnProgress() throws Exception {
+        // Setup
+        when(reconciliationService.getReconciliation()).thenReturn(Optional.of(ReconciliationDTO.builder()
+                .status(ReconciliationStatus.RUNNING)
+                .percentDone(25.0)
+                .operationsPerSecond(150_000.0)
+                .etaSeconds(90L)
+                .build()));
+
+        // Test & Assert
+        mockMvc.perform(get("/api/admin/reconciliations/current"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.percentDone").value(25.0))
+                .andExpect(jsonPath("$.etaSeconds").value(90));
+    }
+
+    @Test
+    void getReconciliation_NeverStarted_ShouldReturnNotFound() throws Exception {
+        // Setup
+        when(reconciliationService.getReconciliation()).thenReturn(Optional.empty());
+
+        // Test & Assert
+        mockMvc.perform(get("/api/admin/reconciliations/current"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void startStatementRun_WithEndedMonth_ShouldReturnAccepted() throws Exception {
+        // Setup
+        when(statementBatchService.startRun(YearMonth.of(2024, 3))).thenReturn(StatementRunDTO.builder()
+                .period("2024-03")
+                .status(StatementRunStatus.RUNNING)
+                .files(List.of("/tmp/bankaccount-statements/statements-2024-03-p0.txt"))
+                .accountsResumed(500L)
+                .build());
+
+        // Test & Assert
+        mockMvc.perform(post("/api/admin/statements")
+                        .param("month", "2024-03"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.period").value("2024-03"))
+                .andExpect(jsonPath("$.files[0]").value("/tmp/bankaccount-statements/statements-2024-03-p0.txt"))
+                .andExpect(jsonPath("$.accountsResumed").value(500));
+    }
+
+    @Test
+    void startStatementRun_WithCurrentMonth_ShouldReturnBadRequest() throws Exception {
+        // Setup
+        YearMonth month = YearMonth.now();
+        when(statementBatchService.startRun(month))
+                .thenThrow(new InvalidBatchException("Statements can only be generated for a month that has ended."));
+
+        // Test & Assert
+        mockMvc.perform(post("/api/admin/statements")
+                        .param("month", month.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getStatementRun_NeverStarted_ShouldReturnNotFound() throws Exception {
+        // Setup
+        when(statementBatchService.getRun()).thenReturn(Optional.empty());
+
+        // Test & Assert
+        mockMvc.perform(get("/api/admin/statements/current"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,85 @@
+package com.kata.bankAccount.controller;
+
+import com.kata.bankAccount.dto.BalanceAtDTO;
+import com.kata.bankAccount.exception.InvalidBatchException;
+import com.kata.bankAccount.exception.NoSuchAccountException;
+import com.kata.bankAccount.service.OperationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BalanceController.class)
+class BalanceControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OperationService operationService;
+
+    // ===== OK CASES =====
+
+    @Test
+    void getBalanceAt_WithValidIdAndDate_ShouldReturnBalance() throws Exception {
+        LocalDateTime at = LocalDateTime.of(2024, 1, 15, 12, 0);
+        when(operationService.getBalanceAt(1L, at)).thenReturn(new BalanceAtDTO(1L, at, 1500.0, 9L, null));
+
+        mockMvc.perform(get("/api/accounts/1/balance").param("at", "2024-01-15T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountId").value(1))
+                .andExpect(jsonPath("$.balance").value(1500.0))
+                .andExpect(jsonPath("$.operationId").value(9));
+    }
+
+    @Test
+    void getBalancesAt_ShouldReturnPerPairResults() throws Exception {
+        LocalDateTime at = LocalDateTime.of(2024, 1, 15, 12, 0);
+        when(operationService.getBalancesAt(anyList())).thenReturn(List.of(
+                new BalanceAtDTO(1L, at, 1500.0, 9L, null),
+                new BalanceAtDTO(99L, at, null, null, "No such account with ID: 99")));
+
+        mockMvc.perform(post("/api/accounts/balances")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"queries\":[{\"accountId\":1,\"at\":\"2024-01-15T12:00:00\"},"
+                                + "{\"accountId\":99,\"at\":\"2024-01-15T12:00:00\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].balance").value(1500.0))
+                .andExpect(jsonPath("$[1].error").value("No such account with ID: 99"));
+    }
+
+    // ===== KO CASES =====
+
+    @Test
+    void getBalanceAt_WithUnknownAccount_ShouldReturnNotFound() throws Exception {
+        LocalDateTime at = LocalDateTime.of(2024, 1, 15, 12, 0);
+        when(operationService.getBalanceAt(99L, at)).thenThrow(new NoSuchAccountException("No such account with ID: 99"));
+
+        mockMvc.perform(get("/api/accounts/99/balance").param("at", "2024-01-15T12:00:00"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getBalancesAt_WithEmptyQuery_ShouldReturnBadRequest() throws Exception {
+        when(operationService.getBalancesAt(anyList()))
+                .thenThrow(new InvalidBatchException("A balance query must contain between 1 and 1000 (account, date) pairs."));
+
+        mockMvc.perform(post("/api/accounts/balances")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"queries\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.statusCode").value(400));
+    }
+}
@@ -0,0 +1,67 @@
+package com.kata.bankAccount.controller;
+
+import com.kata.bankAccount.dto.BatchOperationItemResultDTO;
+import com.kata.bankAccount.dto.BatchOperationRequestDTO;
+import com.kata.bankAccount.dto.BatchOperationResultDTO;
+import com.kata.bankAccount.exception.InvalidBatchException;
+import com.kata.bankAccount.service.BatchOperationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BatchOperationController.class)
+class BatchOperationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BatchOperationService batchOperationService;
+
+    // ===== OK CASES =====
+
+    @Test
+    void processBatch_ShouldReturnPerItemResults() throws Exception {
+        BatchOperationResultDTO result = new BatchOperationResultDTO(1, 1, List.of(
+                new BatchOperationItemResultDTO(0, 1L, true, 1500.0, null),
+                new BatchOperationItemResultDTO(1, 2L, false, null, "Insufficient funds.")));
+        when(batchOperationService.processBatch(any(BatchOperationRequestDTO.class))).thenReturn(result);
+
+        mockMvc.perform(post("/api/accounts/operations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\":[{\"accountId\":1,\"operationType\":\"DEPOSIT\",\"amount\":500},"
+                                + "{\"accountId\":2,\"operationType\":\"WITHDRAWAL\",\"amount\":9000}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].success").value(true))
+                .andExpect(jsonPath("$.results[0].balance").value(1500.0))
+                .andExpect(jsonPath("$.results[1].success").value(false))
+                .andExpect(jsonPath("$.results[1].error").value("Insufficient funds."));
+    }
+
+    // ===== KO CASES =====
+
+    @Test
+    void processBatch_WithEmptyBatch_ShouldReturnBadRequest() throws Exception {
+        when(batchOperationService.processBatch(any(BatchOperationRequestDTO.class)))
+                .thenThrow(new InvalidBatchException("A batch must contain between 1 and 10000 operations."));
+
+        mockMvc.perform(post("/api/accounts/operations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.statusCode").value(400));
+    }
+}
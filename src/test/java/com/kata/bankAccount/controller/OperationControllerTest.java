@@ -1,22 +1,38 @@
 package com.kata.bankAccount.controller;
 
 import com.kata.bankAccount.dto.OperationDTO;
+import com.kata.bankAccount.dto.OperationPageDTO;
+import com.kata.bankAccount.enums.ExportFormat;
 import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.exception.InvalidPageRequestException;
 import com.kata.bankAccount.exception.NoOperationsForAccountException;
 import com.kata.bankAccount.service.OperationService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -51,6 +67,7 @@ class OperationControllerTest {
                 .build();
 
 
+        when(operationService.getHistoryVersion(1L)).thenReturn(3L);
         when(operationService.getAllAccountOperations(1L))
                 .thenReturn(Arrays.asList(operation1, operation2));
 
@@ -58,6 +75,7 @@ class OperationControllerTest {
         mockMvc.perform(get("/api/operations/1/history")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].operationType").value(OperationType.DEPOSIT.toString()))
                 .andExpect(jsonPath("$[0].amount").value(500.0))
@@ -82,8 +100,80 @@ class OperationControllerTest {
                 .andExpect(jsonPath("$").isEmpty());
     }
 
+    @Test
+    void getOperations_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        // Setup
+        when(operationService.getHistoryVersion(1L)).thenReturn(3L);
+
+        // Test & Assert
+        mockMvc.perform(get("/api/operations/1/history")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+
+        verify(operationService, never()).getAllAccountOperations(1L);
+    }
+
+    @Test
+    void getOperationsPage_WithFilters_ShouldReturnPageAndNextCursor() throws Exception {
+        // Setup
+        OperationDTO operation = OperationDTO.builder()
+                .id(1L)
+                .operationType(OperationType.WITHDRAWAL)
+                .amount(200.0)
+                .build();
+        when(operationService.getAccountOperationsPage(1L, null, 1, LocalDateTime.of(2024, 1, 1, 0, 0), null,
+                OperationType.WITHDRAWAL)).thenReturn(new OperationPageDTO(List.of(operation), "next"));
+
+        // Test & Assert
+        mockMvc.perform(get("/api/operations/1/history/page")
+                        .param("size", "1")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("operationType", "WITHDRAWAL"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void exportOperations_WithCsvFormat_ShouldStreamCsvAttachment() throws Exception {
+        // Setup
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("id,accountId\n1,1\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(operationService).exportOperations(eq(1L), eq(ExportFormat.CSV), any(OutputStream.class));
+
+        // Test
+        MvcResult result = mockMvc.perform(get("/api/operations/export")
+                        .param("accountId", "1")
+                        .param("format", "CSV"))
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"operations.csv\""))
+                .andExpect(content().string("id,accountId\n1,1\n"));
+    }
+
     // ===== KO CASES =====
 
+    @Test
+    void getOperationsPage_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        // Setup
+        when(operationService.getAccountOperationsPage(1L, "bad", null, null, null, null))
+                .thenThrow(new InvalidPageRequestException("Invalid cursor."));
+
+        // Test & Assert
+        mockMvc.perform(get("/api/operations/1/history/page")
+                        .param("cursor", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details").value("Invalid cursor."));
+    }
+
     @Test
     void getOperations_WithInvalidAccountId_ShouldReturnNotFound() throws Exception {
         // Setup
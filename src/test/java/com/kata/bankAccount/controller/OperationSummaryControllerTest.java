@@ -0,0 +1,58 @@
+package com.kata.bankAccount.controller;
+
+import com.kata.bankAccount.dto.OperationSummaryDTO;
+import com.kata.bankAccount.exception.InvalidPageRequestException;
+import com.kata.bankAccount.service.OperationSummaryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(OperationSummaryController.class)
+class OperationSummaryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OperationSummaryService operationSummaryService;
+
+    // ===== OK CASES =====
+
+    @Test
+    void getSummary_WithMonthGranularity_ShouldReturnPeriods() throws Exception {
+        when(operationSummaryService.getSummary(1L, "month", LocalDate.of(2024, 1, 1), null)).thenReturn(List.of(
+                new OperationSummaryDTO(LocalDate.of(2024, 1, 1), 500.0, 120.0, 4L),
+                new OperationSummaryDTO(LocalDate.of(2024, 2, 1), 80.0, 0.0, 1L)));
+
+        mockMvc.perform(get("/api/accounts/1/summary")
+                        .param("granularity", "month")
+                        .param("from", "2024-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].periodStart").value("2024-01-01"))
+                .andExpect(jsonPath("$[0].totalCredits").value(500.0))
+                .andExpect(jsonPath("$[0].operationCount").value(4))
+                .andExpect(jsonPath("$[1].totalDebits").value(0.0));
+    }
+
+    // ===== KO CASES =====
+
+    @Test
+    void getSummary_WithInvalidGranularity_ShouldReturnBadRequest() throws Exception {
+        when(operationSummaryService.getSummary(1L, "week", null, null))
+                .thenThrow(new InvalidPageRequestException("Granularity must be day or month."));
+
+        mockMvc.perform(get("/api/accounts/1/summary").param("granularity", "week"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.statusCode").value(400));
+    }
+}
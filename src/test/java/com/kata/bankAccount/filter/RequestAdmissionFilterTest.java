@@ -0,0 +1,117 @@
+package com.kata.bankAccount.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kata.bankAccount.config.AdmissionProperties;
+import com.kata.bankAccount.metrics.BankMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestAdmissionFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AdmissionProperties admissionProperties = new AdmissionProperties();
+    private final HikariDataSource dataSource = new HikariDataSource(); // Never started: only its settings are read
+    private RequestAdmissionFilter filter;
+
+    @BeforeEach
+    void setup() {
+        dataSource.setMaximumPoolSize(1);
+        admissionProperties.setAcquireTimeoutMs(0);
+        filter = new RequestAdmissionFilter(admissionProperties, dataSource, new BankMetrics(registry),
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    void testLimit_defaultsToConnectionPoolSize() {
+        // Assert
+        assertEquals(1, filter.getMaxConcurrentRequests());
+    }
+
+    @Test
+    void testLimit_configured_overridesPoolSize() {
+        // Setup
+        admissionProperties.setMaxConcurrentRequests(32);
+
+        // Test
+        RequestAdmissionFilter configured = new RequestAdmissionFilter(admissionProperties, dataSource,
+                new BankMetrics(registry), new ObjectMapper());
+
+        // Assert
+        assertEquals(32, configured.getMaxConcurrentRequests());
+    }
+
+    @Test
+    void testDoFilter_freeSlot_admitsAndReleases() throws Exception {
+        // Test: two requests in a row with a single slot
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(apiRequest(), first, new MockFilterChain());
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(apiRequest(), second, new MockFilterChain());
+
+        // Assert
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+    }
+
+    @Test
+    void testDoFilter_limitReached_rejectsWithServiceUnavailable() throws Exception {
+        // Setup: the request being processed holds the only slot when a second one arrives
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockFilterChain holdingChain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response)
+                    throws IOException, ServletException {
+                filter.doFilter(apiRequest(), rejected, new MockFilterChain());
+            }
+        };
+
+        // Test
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(apiRequest(), admitted, holdingChain);
+
+        // Assert
+        assertEquals(200, admitted.getStatus());
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(rejected.getContentAsString().contains("\"statusCode\":503"));
+        assertEquals(1.0, registry.get("bankaccount.admission.rejected").counter().count());
+    }
+
+    @Test
+    void testDoFilter_nonApiRequest_isNotLimited() throws Exception {
+        // Setup: the only slot is held by an API request
+        MockHttpServletResponse actuator = new MockHttpServletResponse();
+        MockFilterChain holdingChain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response)
+                    throws IOException, ServletException {
+                filter.doFilter(new MockHttpServletRequest("GET", "/actuator/prometheus"), actuator,
+                        new MockFilterChain());
+            }
+        };
+
+        // Test
+        filter.doFilter(apiRequest(), new MockHttpServletResponse(), holdingChain);
+
+        // Assert
+        assertEquals(200, actuator.getStatus());
+    }
+
+    private static MockHttpServletRequest apiRequest() {
+        return new MockHttpServletRequest("GET", "/api/accounts/1/statement");
+    }
+}
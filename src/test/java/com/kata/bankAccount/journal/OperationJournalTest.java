@@ -0,0 +1,189 @@
+package com.kata.bankAccount.journal;
+
+import com.kata.bankAccount.enums.OperationType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationJournalTest {
+
+    private static final long SEGMENT_SIZE = 4L * OperationJournal.RECORD_SIZE; // 4 records per segment
+
+    @TempDir
+    Path directory;
+
+    // Records handed over by the sync thread once durable
+    private final List<JournalRecord> durableRecords = new CopyOnWriteArrayList<>();
+    private OperationJournal journal;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void testAppend_awaitDurable_handsRecordsOverInOrder() throws InterruptedException {
+        // Setup
+        journal = OperationJournal.open(directory, SEGMENT_SIZE, 1L, durableRecords::addAll);
+
+        // Test
+        long first = journal.append(record(1L, OperationType.DEPOSIT, 20_000L, null));
+        long second = journal.append(record(2L, OperationType.WITHDRAWAL, 5_000L, null));
+        journal.awaitDurable(second);
+
+        // Assert
+        assertEquals(1L, first);
+        assertEquals(2L, second);
+        assertTrue(journal.getDurableSequence() >= 2L);
+        awaitHandover(2); // The records are acknowledged before the sync thread hands them over
+        assertEquals(List.of(1L, 2L), durableRecords.stream().map(JournalRecord::sequence).toList());
+    }
+
+    @Test
+    void testReplay_afterReopen_readsEveryFieldBack() throws InterruptedException {
+        // Setup
+        String reference = UUID.randomUUID().toString();
+        JournalRecord written = record(7L, OperationType.TRANSFER_IN, 12_345L, reference);
+        journal = OperationJournal.open(directory, SEGMENT_SIZE, 1L, durableRecords::addAll);
+        journal.awaitDurable(journal.append(written));
+        journal.close();
+
+        // Test
+        journal = OperationJournal.open(directory, SEGMENT_SIZE, 1L, durableRecords::addAll);
+        List<JournalRecord> replayed = journal.replay(0);
+
+        // Assert
+        assertEquals(List.of(written.withSequence(1L)), replayed);
+        assertEquals(2L, journal.append(record(7L, OperationType.DEPOSIT, 1L, null))); // Appends continue after it
+    }
+
+    @Test
+    void testOpen_emptyDirectory_startsAtFirstSequence() throws InterruptedException {
+        // Setup
+        journal = OperationJournal.open(directory, SEGMENT_SIZE, 42L, durableRecords::addAll);
+        journal.awaitDurable(journal.append(record(1L, OperationType.DEPOSIT, 20_000L, null)));
+        journal.close();
+
+        // Test: the existing segments win over the first sequence
+        journal = OperationJournal.open(directory, SEGMENT_SIZE, 1L, durableRecords::addAll);
+
+        // Assert
+        assertEquals(List.of(42L), journal.replay(0).stream().map(JournalRecord::sequence).toList());
+        assertEquals(43L, journal.append(record(1L, OperationType.DEPOSIT, 100L, null)));
+    }
+
+    @Test
+    void testAppend_fullSegment_rollsToNextSegment() throws Exception {
+        // Setup
+        journal = OperationJournal.open(directory, SEGMENT_SIZE, 1L, durableRecords::addAll);
+
+        // Test
+        long last = 0;
+        for (int i = 0; i < 10; i++) {
+            last = journal.append(record(1L, OperationType.DEPOSIT, 100L, null));
+        }
+        journal.awaitDurable(last);
+        journal.close();
+        journal = OperationJournal.open(directory, SEGMENT_SIZE, 1L, durableRecords::addAll);
+
+        // Assert
+        assertEquals(3, segmentFiles().size()); // Sequences 1-4, 5-8 and 9-10
+        assertEquals(10, journal.replay(0).size());
+        assertEquals(List.of(7L, 8L, 9L, 10L), journal.replay(6).stream().map(JournalRecord::sequence).toList());
+    }
+
+    @Test
+    void testReleaseUpTo_deletesFullyPersistedSegments() throws Exception {
+        // Setup
+        journal = OperationJournal.open(directory, SEGMENT_SIZE, 1L, durableRecords::addAll);
+        long last = 0;
+        for (int i = 0; i < 10; i++) {
+            last = journal.append(record(1L, OperationType.DEPOSIT, 100L, null));
+        }
+        journal.awaitDurable(last);
+
+        // Test
+        journal.releaseUpTo(6);
+
+        // Assert: the segment of sequences 5-8 is still needed
+        assertEquals(2, segmentFiles().size());
+        assertEquals(List.of(7L, 8L, 9L, 10L), journal.replay(6).stream().map(JournalRecord::sequence).toList());
+    }
+
+    @Test
+    void testOpen_tornRecord_stopsReplayAndIsOverwritten() throws Exception {
+        // Setup
+        journal = OperationJournal.open(directory, SEGMENT_SIZE, 1L, durableRecords::addAll);
+        journal.append(record(1L, OperationType.DEPOSIT, 100L, null));
+        journal.append(record(1L, OperationType.DEPOSIT, 200L, null));
+        journal.awaitDurable(journal.append(record(1L, OperationType.DEPOSIT, 300L, null)));
+        journal.close();
+        corruptRecord(segmentFiles().get(0), 1); // The second record is torn
+
+        // Test
+        journal = OperationJournal.open(directory, SEGMENT_SIZE, 1L, durableRecords::addAll);
+
+        // Assert
+        List<JournalRecord> replayed = journal.replay(0);
+        assertEquals(1, replayed.size());
+        assertEquals(100L, replayed.get(0).amount());
+        assertEquals(2L, journal.append(record(1L, OperationType.DEPOSIT, 400L, null)));
+    }
+
+    @Test
+    void testAppend_afterFailedForce_isRejected() {
+        // Setup: a disk that cannot be synced
+        journal = OperationJournal.open(directory, SEGMENT_SIZE, 1L, durableRecords::addAll, buffer -> {
+            throw new IOException("Input/output error");
+        });
+        long sequence = journal.append(record(1L, OperationType.DEPOSIT, 20_000L, null));
+
+        // Test & Assert: the pending record is never acknowledged, and nothing more is accepted
+        assertThrows(UncheckedIOException.class, () -> journal.awaitDurable(sequence));
+        assertThrows(UncheckedIOException.class, () -> journal.append(record(1L, OperationType.DEPOSIT, 100L, null)));
+        assertEquals(0L, journal.getDurableSequence());
+        assertTrue(durableRecords.isEmpty());
+    }
+
+    private void awaitHandover(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (durableRecords.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static void corruptRecord(Path segment, int slot) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), (long) slot * OperationJournal.RECORD_SIZE + 20);
+        }
+    }
+
+    private static JournalRecord record(Long accountId, OperationType type, long amount, String transferReference) {
+        return new JournalRecord(0, accountId, type, amount, 1_000_000L, transferReference,
+                LocalDateTime.of(2024, 5, 17, 10, 30, 15, 123_456_789));
+    }
+}
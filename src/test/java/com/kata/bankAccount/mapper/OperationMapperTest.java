@@ -0,0 +1,54 @@
+package com.kata.bankAccount.mapper;
+
+import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.dto.OperationDTO;
+import com.kata.bankAccount.dto.OperationExportDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.model.Account;
+import com.kata.bankAccount.model.Operation;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationMapperTest {
+
+    private final OperationMapper operationMapper = new OperationMapper(new AccountMapper());
+
+    private final Operation operation = Operation.builder()
+            .id(5L)
+            .date(LocalDateTime.of(2024, 1, 15, 10, 30))
+            .operationType(OperationType.WITHDRAWAL)
+            .amount(5_000L) // In minor units
+            .PostOperationBalance(95_000L)
+            .account(Account.builder().id(1L).balance(95_000L).build())
+            .build();
+
+    @Test
+    void testToDto_copiesOperationAndAccount() {
+        // Test
+        OperationDTO result = operationMapper.toDto(operation);
+
+        // Assert
+        assertEquals(new OperationDTO(5L, LocalDateTime.of(2024, 1, 15, 10, 30), OperationType.WITHDRAWAL, 50.0,
+                950.0, new AccountDTO(1L, 950.0), null), result);
+    }
+
+    @Test
+    void testToDto_null_returnsNull() {
+        // Test & Assert
+        assertNull(operationMapper.toDto(null));
+        assertNull(new AccountMapper().toDto(null));
+    }
+
+    @Test
+    void testToExportDto_keepsOnlyAccountId() {
+        // Test
+        OperationExportDTO result = operationMapper.toExportDto(operation);
+
+        // Assert
+        assertEquals(new OperationExportDTO(5L, 1L, LocalDateTime.of(2024, 1, 15, 10, 30), OperationType.WITHDRAWAL,
+                50.0, 950.0), result);
+    }
+}
@@ -0,0 +1,69 @@
+package com.kata.bankAccount.metrics;
+
+import com.kata.bankAccount.exception.BalanceNotSufficientException;
+import com.kata.bankAccount.exception.InvalideAmountException;
+import com.kata.bankAccount.exception.NoSuchAccountException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BankMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BankMetrics bankMetrics = new BankMetrics(registry);
+
+    @Test
+    void testRecordOperation_success_timesOperation() {
+        // Test
+        String result = bankMetrics.recordOperation(BankMetrics.DEPOSIT, () -> "done");
+
+        // Assert
+        assertEquals("done", result);
+        assertEquals(1, registry.get("bankaccount.operation")
+                .tag("operation", "deposit").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void testRecordOperation_insufficientFunds_countsRejectedWithdrawal() {
+        // Test
+        assertThrows(BalanceNotSufficientException.class, () -> bankMetrics.recordOperation(BankMetrics.WITHDRAW,
+                () -> { throw new BalanceNotSufficientException("Insufficient funds."); }));
+
+        // Assert
+        assertEquals(1.0, registry.get("bankaccount.withdrawals.rejected").counter().count());
+        assertEquals(1, registry.get("bankaccount.operation")
+                .tag("operation", "withdraw").tag("outcome", "insufficient_funds").timer().count());
+    }
+
+    @Test
+    void testRecordOperation_failures_countedWithBoundedTags() {
+        // Test
+        assertThrows(NoSuchAccountException.class, () -> bankMetrics.recordOperation(BankMetrics.STATEMENT,
+                () -> { throw new NoSuchAccountException("No such account with ID: 42"); }));
+        assertThrows(CannotAcquireLockException.class, () -> bankMetrics.recordOperation(BankMetrics.DEPOSIT,
+                () -> { throw new CannotAcquireLockException("Lock timeout"); }));
+        assertThrows(InvalideAmountException.class, () -> bankMetrics.recordOperation(BankMetrics.DEPOSIT,
+                () -> { throw new InvalideAmountException("Amount must be positive."); }));
+
+        // Assert
+        assertEquals(1.0, registry.get("bankaccount.accounts.unknown").tag("operation", "statement").counter().count());
+        assertEquals(1.0, registry.get("bankaccount.transactions.rollbacks")
+                .tag("reason", "serialization_failure").counter().count());
+        assertNull(registry.find("bankaccount.transactions.rollbacks").tag("reason", "invalid_amount").counter());
+        // No meter is ever tagged with an account ID
+        registry.getMeters().forEach(meter -> assertNull(meter.getId().getTag("accountId")));
+    }
+
+    @Test
+    void testRecordHistorySize_recordsDistribution() {
+        // Test
+        bankMetrics.recordHistorySize(10);
+        bankMetrics.recordHistorySize(30);
+
+        // Assert
+        assertEquals(2, registry.get("bankaccount.history.size").summary().count());
+        assertEquals(40.0, registry.get("bankaccount.history.size").summary().totalAmount());
+    }
+}
@@ -0,0 +1,154 @@
+package com.kata.bankAccount.repository;
+
+import com.kata.bankAccount.dto.OperationDTO;
+import com.kata.bankAccount.model.Operation;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the plans of the history queries on H2: the SQL generated by Hibernate is captured and run again with
+ * EXPLAIN ANALYZE, whose scan counts tell how many rows each query really reads.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.kata.bankAccount.repository.OperationRepositoryTest$LastStatement")
+class OperationRepositoryTest {
+
+    private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    @Autowired
+    private OperationRepository operationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        // Two accounts with 10,000 interleaved operations each, one minute apart
+        jdbcTemplate.update("insert into account (id, balance, version) values (101, 1000000, 0), (102, 1000000, 0)");
+        jdbcTemplate.update("insert into operation (id, account_id, date, operation_type, amount, post_operation_balance) "
+                + "select x, 101 + mod(x, 2), timestamp '2024-01-01 00:00:00' + x * interval '1' minute, 'DEPOSIT', 100, "
+                + "100 * ((x + 1) / 2) from system_range(1, 20000)");
+    }
+
+    @Test
+    void testFindPageAfter_deepPage_readsOnlyItsOwnRows() {
+        // Setup: position of a page in the middle of the history of account 101
+        LocalDateTime afterDate = START.plusMinutes(10_000);
+
+        // Test
+        List<OperationDTO> page = operationRepository.findPageAfter(101L, afterDate, 10_000L, MAX_DATE, null,
+                PageRequest.of(0, 51));
+        String plan = explainAnalyze(101L, 101L, afterDate, afterDate, afterDate, 10_000L, MAX_DATE, null, null, 51);
+
+        // Assert
+        assertEquals(51, page.size());
+        assertEquals(10_002L, page.getFirst().getId());
+        assertEquals(10_102L, page.getLast().getId());
+        assertEquals(10_000.0, page.getFirst().getAccount().getBalance());
+        assertTrue(plan.contains("IDX_OPERATION_ACCOUNT_DATE_ID"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+        assertTrue(maxScanCount(plan) <= 52, plan); // The page and the last row of the previous one, out of 10,000
+    }
+
+    @Test
+    void testFindLastOperationAtOrBefore_seeksToTheOperation() {
+        // Setup
+        LocalDateTime at = START.plusMinutes(10_001);
+
+        // Test
+        Optional<Operation> last = operationRepository.findLastOperationAtOrBefore(101L, at);
+        String plan = explainAnalyze(101L, at);
+
+        // Assert
+        assertEquals(10_000L, last.orElseThrow().getId());
+        assertEquals(500_000L, last.get().getPostOperationBalance());
+        assertTrue(plan.contains("IDX_OPERATION_ACCOUNT_DATE_ID_DESC"), plan);
+        assertTrue(maxScanCount(plan) <= 2, plan);
+    }
+
+    @Test
+    void testFindLastOperationBefore_seeksToTheOperation() {
+        // Setup
+        LocalDateTime before = START.plusMinutes(10_000);
+
+        // Test
+        Optional<Operation> last = operationRepository.findLastOperationBefore(101L, before);
+        String plan = explainAnalyze(101L, before);
+
+        // Assert
+        assertEquals(9_998L, last.orElseThrow().getId());
+        assertTrue(plan.contains("IDX_OPERATION_ACCOUNT_DATE_ID_DESC"), plan);
+        assertTrue(maxScanCount(plan) <= 2, plan);
+    }
+
+    @Test
+    void testFindLastOperationAtOrBefore_maxDate_readsTheLastOperationOnly() {
+        // Test
+        Optional<Operation> last = operationRepository.findLastOperationAtOrBefore(101L, MAX_DATE);
+        String plan = explainAnalyze(101L, MAX_DATE);
+
+        // Assert
+        assertEquals(20_000L, last.orElseThrow().getId());
+        assertTrue(maxScanCount(plan) <= 2, plan);
+    }
+
+    @Test
+    void testFindFirstOperationFrom_seeksToTheOperation() {
+        // Setup
+        LocalDateTime from = START.plusMinutes(10_001);
+
+        // Test
+        Optional<Operation> first = operationRepository.findFirstOperationFrom(101L, from);
+        String plan = explainAnalyze(101L, from);
+
+        // Assert
+        assertEquals(10_002L, first.orElseThrow().getId());
+        assertTrue(plan.contains("IDX_OPERATION_ACCOUNT_DATE_ID:"), plan);
+        assertTrue(maxScanCount(plan) <= 2, plan);
+    }
+
+    /**
+     *  method to run the last statement sent by Hibernate again with EXPLAIN ANALYZE.
+     *
+     * @param parameters the parameters of the statement, in order
+     * @return the plan, with the number of rows scanned by each table access
+     */
+    private String explainAnalyze(Object... parameters) {
+        return jdbcTemplate.queryForObject("explain analyze " + LastStatement.sql, String.class, parameters);
+    }
+
+    private static int maxScanCount(String plan) {
+        int max = 0;
+        Matcher matcher = SCAN_COUNT.matcher(plan);
+        while (matcher.find()) {
+            max = Math.max(max, Integer.parseInt(matcher.group(1)));
+        }
+        return max;
+    }
+
+    // Keeps the last statement prepared by Hibernate
+    public static class LastStatement implements StatementInspector {
+        private static volatile String sql;
+
+        @Override
+        public String inspect(String sql) {
+            LastStatement.sql = sql;
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.BalanceCacheProperties;
+import com.kata.bankAccount.dto.AccountDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountBalanceCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AccountBalanceCache balanceCache = new AccountBalanceCache(new BalanceCacheProperties(), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testPutAfterCommit_olderVersion_doesNotReplaceNewerOne() {
+        // Setup
+        balanceCache.putAfterCommit(1L, 30_000L, 7L); // Balances are written in minor units
+
+        // Test
+        balanceCache.putAfterCommit(1L, 20_000L, 6L); // A writer that committed earlier but updates the cache later
+
+        // Assert
+        AccountBalanceCache.CachedBalance cached = balanceCache.get(1L, id -> fail("Must not be loaded"));
+        assertEquals(300.0, cached.account().getBalance());
+        assertEquals(7L, cached.version());
+    }
+
+    @Test
+    void testPutAfterCommit_insideTransaction_onlyAppliedAfterCommit() {
+        // Setup
+        balanceCache.get(1L, id -> new AccountBalanceCache.CachedBalance(new AccountDTO(1L, 100.0), 1L));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Test
+        balanceCache.putAfterCommit(1L, 15_000L, 2L);
+
+        // Assert: readers still see the committed balance until the commit
+        assertEquals(100.0, balanceCache.get(1L, id -> fail("Must not be loaded")).account().getBalance());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(150.0, balanceCache.get(1L, id -> fail("Must not be loaded")).account().getBalance());
+    }
+
+    @Test
+    void testInvalidateAfterCommit_rolledBack_keepsEntry() {
+        // Setup
+        balanceCache.get(1L, id -> new AccountBalanceCache.CachedBalance(new AccountDTO(1L, 100.0), 1L));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Test: the transaction rolls back, so afterCommit is never called
+        balanceCache.invalidateAfterCommit(1L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        assertEquals(100.0, balanceCache.get(1L, id -> fail("Must not be loaded")).account().getBalance());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "accountBalance").tag("result", "miss")
+                .functionCounter().count());
+    }
+}
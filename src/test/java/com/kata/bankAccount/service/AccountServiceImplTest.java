@@ -1,22 +1,39 @@
 package com.kata.bankAccount.service;
 
 
+import com.kata.bankAccount.config.BalanceCacheProperties;
+import com.kata.bankAccount.config.ConcurrencyProperties;
 import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.dto.TransferResultDTO;
+import com.kata.bankAccount.enums.ConcurrencyMode;
 import com.kata.bankAccount.enums.OperationType;
 import com.kata.bankAccount.exception.BalanceNotSufficientException;
+import com.kata.bankAccount.exception.ConcurrentUpdateException;
+import com.kata.bankAccount.exception.InvalidTransferException;
 import com.kata.bankAccount.exception.InvalideAmountException;
 import com.kata.bankAccount.exception.NoSuchAccountException;
+import com.kata.bankAccount.mapper.AccountMapper;
+import com.kata.bankAccount.metrics.BankMetrics;
 import com.kata.bankAccount.model.Account;
+import com.kata.bankAccount.model.Operation;
 import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.OperationRepository;
+import com.kata.bankAccount.repository.VersionedBalance;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,7 +49,31 @@ class AccountServiceImplTest {
     private AccountRepository accountRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private OperationRepository operationRepository;
+
+    @Spy
+    private AccountMapper accountMapper = new AccountMapper();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ConcurrencyProperties concurrencyProperties = new ConcurrencyProperties();
+
+    @Spy
+    private AccountContentionTracker contentionTracker = new AccountContentionTracker();
+
+    @Mock
+    private OperationCoalescer operationCoalescer;
+
+    @Spy
+    private BankMetrics bankMetrics = new BankMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private AccountBalanceCache balanceCache = new AccountBalanceCache(new BalanceCacheProperties(), new SimpleMeterRegistry());
+
+    @Mock
+    private OperationSummaryService operationSummaryService;
 
     private Account account;
     private AccountDTO accountDTO;
@@ -42,7 +83,7 @@ class AccountServiceImplTest {
         // Setup a sample account
          account = Account.builder()
                 .id(1L)
-                .balance(1000.0)
+                .balance(100_000L) // In minor units
                 .operations(new ArrayList<>())
                 .build();
 
@@ -56,21 +97,26 @@ class AccountServiceImplTest {
     void testDeposit_success() {
         // Setup
         Double depositAmount = 200.0;
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
-        when(accountRepository.save(account)).thenReturn(account);
-        when(modelMapper.map(account, AccountDTO.class)).thenReturn(accountDTO);
+        when(accountRepository.creditBalance(1L, 20_000L)).thenReturn(1);
+        when(accountRepository.findVersionedBalanceById(1L)).thenReturn(Optional.of(new VersionedBalance(120_000L, 1L)));
+        when(accountRepository.getReferenceById(1L)).thenReturn(account);
 
         // Test
         AccountDTO updatedAccount = accountService.deposit(1L, depositAmount);
 
         // Assert
         assertNotNull(updatedAccount);
-        assertEquals(1200.0, account.getBalance());
-        verify(accountRepository, times(1)).save(account);
-        assertEquals(1, account.getOperations().size());
-        assertEquals(OperationType.DEPOSIT, account.getOperations().getFirst().getOperationType());
-        assertEquals(account.getBalance(), account.getOperations().getFirst().getPostOperationBalance());
-
+        assertEquals(1L, updatedAccount.getId());
+        assertEquals(1200.0, updatedAccount.getBalance());
+        ArgumentCaptor<Operation> operationCaptor = ArgumentCaptor.forClass(Operation.class);
+        verify(operationRepository, times(1)).save(operationCaptor.capture());
+        assertEquals(OperationType.DEPOSIT, operationCaptor.getValue().getOperationType());
+        assertEquals(120_000L, operationCaptor.getValue().getPostOperationBalance());
+        assertSame(account, operationCaptor.getValue().getAccount());
+        verify(operationSummaryService).record(List.of(operationCaptor.getValue()));
+        // Neither the entity nor its operation history is loaded by the write path
+        verify(accountRepository, never()).findById(any());
+        assertTrue(account.getOperations().isEmpty());
     }
 
     @Test
@@ -80,75 +126,126 @@ class AccountServiceImplTest {
 
         // Test & Assert
         assertThrows(InvalideAmountException.class, () -> accountService.deposit(1L, invalidAmount));
-        verify(accountRepository, never()).save(any());
+        verify(accountRepository, never()).creditBalance(any(), anyLong());
+        verify(operationRepository, never()).save(any());
+    }
+
+    @Test
+    void testDeposit_moreThanTwoDecimals_throwsException() {
+        // Test & Assert
+        assertThrows(InvalideAmountException.class, () -> accountService.deposit(1L, 10.005));
+        verify(accountRepository, never()).creditBalance(any(), anyLong());
     }
 
     @Test
     void testDeposit_accountNotFound_throwsException() {
         // Setup
-        when(accountRepository.findById(1L)).thenReturn(Optional.empty());
+        when(accountRepository.creditBalance(1L, 10_000L)).thenReturn(0);
 
         // Test & Assert
         assertThrows(NoSuchAccountException.class, () -> accountService.deposit(1L, 100.0));
-        verify(accountRepository, never()).save(any());
+        verify(operationRepository, never()).save(any());
     }
 
     @Test
     void testWithdraw_success() {
         // Setup
         Double withdrawAmount = 200.0;
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
-        when(accountRepository.save(account)).thenReturn(account);
-        when(modelMapper.map(account, AccountDTO.class)).thenReturn(accountDTO);
+        when(accountRepository.debitBalanceIfSufficient(1L, 20_000L)).thenReturn(1);
+        when(accountRepository.findVersionedBalanceById(1L)).thenReturn(Optional.of(new VersionedBalance(80_000L, 1L)));
+        when(accountRepository.getReferenceById(1L)).thenReturn(account);
 
         // Test
         AccountDTO updatedAccount = accountService.withdraw(1L, withdrawAmount);
 
         // Assert
         assertNotNull(updatedAccount);
-        assertEquals(800.0, account.getBalance());
-        verify(accountRepository, times(1)).save(account);
-        assertEquals(1, account.getOperations().size());
-        assertEquals(OperationType.WITHDRAWAL, account.getOperations().getFirst().getOperationType());
-        assertEquals(account.getBalance(), account.getOperations().getFirst().getPostOperationBalance());
+        assertEquals(800.0, updatedAccount.getBalance());
+        ArgumentCaptor<Operation> operationCaptor = ArgumentCaptor.forClass(Operation.class);
+        verify(operationRepository, times(1)).save(operationCaptor.capture());
+        assertEquals(OperationType.WITHDRAWAL, operationCaptor.getValue().getOperationType());
+        assertEquals(80_000L, operationCaptor.getValue().getPostOperationBalance());
+        verify(accountRepository, never()).findById(any());
+        assertTrue(account.getOperations().isEmpty());
     }
 
     @Test
     void testWithdraw_insufficientBalance_throwsException() {
         // Setup
         Double withdrawAmount = 1500.0;
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.debitBalanceIfSufficient(1L, 150_000L)).thenReturn(0);
+        when(accountRepository.existsById(1L)).thenReturn(true);
 
         // Test & Assert
         assertThrows(BalanceNotSufficientException.class, () -> accountService.withdraw(1L, withdrawAmount));
-        verify(accountRepository, never()).save(any());
+        verify(operationRepository, never()).save(any());
     }
 
     @Test
     void testWithdraw_accountNotFound_throwsException() {
         // Setup
-        when(accountRepository.findById(1L)).thenReturn(Optional.empty());
+        when(accountRepository.debitBalanceIfSufficient(1L, 10_000L)).thenReturn(0);
+        when(accountRepository.existsById(1L)).thenReturn(false);
 
         // Test & Assert
         assertThrows(NoSuchAccountException.class, () -> accountService.withdraw(1L, 100.0));
-        verify(accountRepository, never()).save(any());
+        verify(operationRepository, never()).save(any());
     }
 
     @Test
     void testGetAccountStatement_success() {
         // Setup
         when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
-        when(modelMapper.map(account, AccountDTO.class)).thenReturn(accountDTO);
 
         // Test
         AccountDTO result = accountService.getAccountStatement(1L);
 
         // Assert
         assertNotNull(result);
-        assertEquals(1L, result.getId());
+        assertEquals(accountDTO, result);
         verify(accountRepository, times(1)).findById(1L);
     }
 
+    @Test
+    void testGetAccountStatement_servedFromCacheUpdatedByDeposit() {
+        // Setup
+        account.setVersion(3L);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.creditBalance(1L, 20_000L)).thenReturn(1);
+        when(accountRepository.findVersionedBalanceById(1L)).thenReturn(Optional.of(new VersionedBalance(120_000L, 4L)));
+        when(accountRepository.getReferenceById(1L)).thenReturn(account);
+
+        // Test
+        accountService.getAccountStatement(1L);
+        accountService.deposit(1L, 200.0); // No transaction synchronization here: the cache is updated at once
+        AccountDTO result = accountService.getAccountStatement(1L);
+
+        // Assert
+        assertEquals(1200.0, result.getBalance());
+        verify(accountRepository, times(1)).findById(1L); // Loaded once, then updated by the write path
+        assertEquals(1, balanceCache.stats().hitCount());
+    }
+
+    @Test
+    void testGetStatementVersion_changesWithDeposit() {
+        // Setup
+        account.setVersion(3L);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.creditBalance(1L, 20_000L)).thenReturn(1);
+        when(accountRepository.findVersionedBalanceById(1L)).thenReturn(Optional.of(new VersionedBalance(120_000L, 4L)));
+        when(accountRepository.getReferenceById(1L)).thenReturn(account);
+
+        // Test
+        Long before = accountService.getStatementVersion(1L);
+        accountService.deposit(1L, 200.0);
+        Long after = accountService.getStatementVersion(1L);
+
+        // Assert
+        assertEquals(3L, before);
+        assertEquals(4L, after);
+        verify(accountRepository, times(1)).findById(1L); // Both versions come from the balance cache
+    }
+
     @Test
     void testGetAccountStatement_accountNotFound_throwsException() {
         // Setup
@@ -158,4 +255,163 @@ class AccountServiceImplTest {
         assertThrows(NoSuchAccountException.class, () -> accountService.getAccountStatement(1L));
         verify(accountRepository, times(1)).findById(1L);
     }
-}
\ No newline at end of file
+
+    // ===== TRANSFER =====
+
+    @Test
+    void testTransfer_success_locksAccountsInIdOrder() {
+        // Setup
+        Account target = Account.builder()
+                .id(2L)
+                .balance(50_000L)
+                .operations(new ArrayList<>())
+                .build();
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(target));
+
+        // Test: from account 2 to account 1, the lower ID is still locked first
+        TransferResultDTO result = accountService.transfer(2L, 1L, 200.0);
+
+        // Assert
+        InOrder lockOrder = inOrder(accountRepository);
+        lockOrder.verify(accountRepository).findByIdForUpdate(1L);
+        lockOrder.verify(accountRepository).findByIdForUpdate(2L);
+        assertEquals(300.0, result.getFromAccount().getBalance());
+        assertEquals(1200.0, result.getToAccount().getBalance());
+        assertEquals(30_000L, target.getBalance());
+        assertEquals(120_000L, account.getBalance());
+        ArgumentCaptor<Operation> operationCaptor = ArgumentCaptor.forClass(Operation.class);
+        verify(operationRepository, times(2)).save(operationCaptor.capture());
+        List<Operation> operations = operationCaptor.getAllValues();
+        assertEquals(OperationType.TRANSFER_OUT, operations.get(0).getOperationType());
+        assertSame(target, operations.get(0).getAccount());
+        assertEquals(OperationType.TRANSFER_IN, operations.get(1).getOperationType());
+        assertSame(account, operations.get(1).getAccount());
+        assertNotNull(result.getTransferReference());
+        assertEquals(result.getTransferReference(), operations.get(0).getTransferReference());
+        assertEquals(result.getTransferReference(), operations.get(1).getTransferReference());
+    }
+
+    @Test
+    void testTransfer_insufficientBalance_throwsException() {
+        // Setup
+        Account target = Account.builder()
+                .id(2L)
+                .balance(0L)
+                .operations(new ArrayList<>())
+                .build();
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(target));
+
+        // Test & Assert
+        assertThrows(BalanceNotSufficientException.class, () -> accountService.transfer(1L, 2L, 1500.0));
+        assertEquals(100_000L, account.getBalance());
+        assertEquals(0L, target.getBalance());
+        verify(operationRepository, never()).save(any());
+    }
+
+    @Test
+    void testTransfer_accountNotFound_throwsException() {
+        // Setup
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.findByIdForUpdate(3L)).thenReturn(Optional.empty());
+
+        // Test & Assert
+        assertThrows(NoSuchAccountException.class, () -> accountService.transfer(1L, 3L, 100.0));
+        assertEquals(100_000L, account.getBalance());
+        verify(operationRepository, never()).save(any());
+    }
+
+    @Test
+    void testTransfer_sameAccount_throwsException() {
+        // Test & Assert
+        assertThrows(InvalidTransferException.class, () -> accountService.transfer(1L, 1L, 100.0));
+        verify(accountRepository, never()).findByIdForUpdate(any());
+    }
+
+    // ===== OPTIMISTIC MODE =====
+
+    @Test
+    void testDeposit_optimisticMode_success() {
+        // Setup
+        concurrencyProperties.setMode(ConcurrencyMode.OPTIMISTIC);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+
+        // Test
+        AccountDTO updatedAccount = accountService.deposit(1L, 200.0);
+
+        // Assert
+        assertEquals(1200.0, updatedAccount.getBalance());
+        assertEquals(120_000L, account.getBalance());
+        verify(accountRepository, times(1)).saveAndFlush(account);
+        verify(operationRepository, times(1)).save(any(Operation.class));
+        verify(accountRepository, never()).creditBalance(any(), anyLong());
+    }
+
+    @Test
+    void testWithdraw_optimisticMode_conflict_isRetried() {
+        // Setup
+        concurrencyProperties.setMode(ConcurrencyMode.OPTIMISTIC);
+        concurrencyProperties.getOptimistic().setBackoffMs(0);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.saveAndFlush(account))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Account.class, 1L))
+                .thenReturn(account);
+
+        // Test
+        AccountDTO updatedAccount = accountService.withdraw(1L, 200.0);
+
+        // Assert
+        assertNotNull(updatedAccount);
+        verify(accountRepository, times(2)).saveAndFlush(account);
+        verify(operationRepository, times(1)).save(any(Operation.class));
+        assertEquals(1, accountService.getAccountContention(1L).getRetries());
+        assertEquals(0, accountService.getAccountContention(1L).getAborts());
+    }
+
+    @Test
+    void testDeposit_optimisticMode_tooManyConflicts_throwsException() {
+        // Setup
+        concurrencyProperties.setMode(ConcurrencyMode.OPTIMISTIC);
+        concurrencyProperties.getOptimistic().setMaxRetries(2);
+        concurrencyProperties.getOptimistic().setBackoffMs(0);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(accountRepository.saveAndFlush(account))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Account.class, 1L));
+
+        // Test & Assert
+        assertThrows(ConcurrentUpdateException.class, () -> accountService.deposit(1L, 100.0));
+        verify(accountRepository, times(3)).saveAndFlush(account);
+        verify(operationRepository, never()).save(any());
+        assertEquals(2, accountService.getAccountContention(1L).getRetries());
+        assertEquals(1, accountService.getAccountContention(1L).getAborts());
+    }
+
+    @Test
+    void testWithdraw_optimisticMode_insufficientBalance_throwsException() {
+        // Setup
+        concurrencyProperties.setMode(ConcurrencyMode.OPTIMISTIC);
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+
+        // Test & Assert
+        assertThrows(BalanceNotSufficientException.class, () -> accountService.withdraw(1L, 1500.0));
+        verify(accountRepository, never()).saveAndFlush(any());
+        assertEquals(0, accountService.getAccountContention(1L).getRetries());
+    }
+
+    // ===== BATCHED MODE =====
+
+    @Test
+    void testWithdraw_batchedMode_isSubmittedToCoalescer() {
+        // Setup
+        concurrencyProperties.setMode(ConcurrencyMode.BATCHED);
+        when(operationCoalescer.submit(1L, OperationType.WITHDRAWAL, 20_000L)).thenReturn(new AccountDTO(1L, 800.0));
+
+        // Test
+        AccountDTO updatedAccount = accountService.withdraw(1L, 200.0);
+
+        // Assert
+        assertEquals(800.0, updatedAccount.getBalance());
+        verify(accountRepository, never()).debitBalanceIfSufficient(any(), anyLong());
+    }
+}
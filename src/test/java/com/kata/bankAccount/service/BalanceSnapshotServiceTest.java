@@ -0,0 +1,150 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.SnapshotProperties;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.exception.NoSuchAccountException;
+import com.kata.bankAccount.metrics.BankMetrics;
+import com.kata.bankAccount.model.BalanceSnapshot;
+import com.kata.bankAccount.model.Operation;
+import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.BalanceSnapshotRepository;
+import com.kata.bankAccount.repository.OperationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceSnapshotServiceTest {
+
+    @Mock
+    private BalanceSnapshotRepository snapshotRepository;
+
+    @Mock
+    private OperationRepository operationRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private BalanceSnapshotService snapshotService;
+
+    @BeforeEach
+    void setup() {
+        SnapshotProperties snapshotProperties = new SnapshotProperties();
+        snapshotProperties.setIntervalMs(0); // Snapshots are taken explicitly by the tests
+        snapshotProperties.setLagSeconds(60);
+        snapshotService = new BalanceSnapshotService(snapshotRepository, operationRepository, accountRepository,
+                transactionManager, snapshotProperties, new BankMetrics(registry));
+    }
+
+    @Test
+    void testRecoverBalance_withSnapshot_replaysOnlyLaterOperations() {
+        // Setup
+        when(snapshotRepository.findById(1L)).thenReturn(Optional.of(snapshot(1L, 100_000L, 500L)));
+        when(operationRepository.findByAccountIdAndIdGreaterThanOrderByIdAsc(1L, 500L)).thenReturn(List.of(
+                operation(OperationType.DEPOSIT, 20_000L, 120_000L),
+                operation(OperationType.TRANSFER_OUT, 5_000L, 115_000L)));
+
+        // Test
+        long balance = snapshotService.recoverBalance(1L);
+
+        // Assert
+        assertEquals(115_000L, balance);
+        verify(operationRepository, never()).findLastOperationAtOrBefore(any(), any());
+        assertEquals(0.0, registry.get("bankaccount.snapshot.mismatches").counter().count());
+    }
+
+    @Test
+    void testRecoverBalance_withSnapshotAndNoLaterOperation_returnsSnapshotBalance() {
+        // Setup
+        when(snapshotRepository.findById(1L)).thenReturn(Optional.of(snapshot(1L, 100_000L, 500L)));
+        when(operationRepository.findByAccountIdAndIdGreaterThanOrderByIdAsc(1L, 500L)).thenReturn(List.of());
+
+        // Test & Assert
+        assertEquals(100_000L, snapshotService.recoverBalance(1L));
+    }
+
+    @Test
+    void testRecoverBalance_mismatch_returnsLastRecordedBalance() {
+        // Setup
+        when(snapshotRepository.findById(1L)).thenReturn(Optional.of(snapshot(1L, 100_000L, 500L)));
+        when(operationRepository.findByAccountIdAndIdGreaterThanOrderByIdAsc(1L, 500L)).thenReturn(List.of(
+                operation(OperationType.WITHDRAWAL, 20_000L, 90_000L)));
+
+        // Test
+        long balance = snapshotService.recoverBalance(1L);
+
+        // Assert
+        assertEquals(90_000L, balance);
+        assertEquals(1.0, registry.get("bankaccount.snapshot.mismatches").counter().count());
+    }
+
+    @Test
+    void testRecoverBalance_withoutSnapshot_usesLastOperation() {
+        // Setup
+        when(operationRepository.findLastOperationAtOrBefore(eq(1L), any()))
+                .thenReturn(Optional.of(operation(OperationType.DEPOSIT, 20_000L, 120_000L)));
+
+        // Test & Assert
+        assertEquals(120_000L, snapshotService.recoverBalance(1L));
+    }
+
+    @Test
+    void testRecoverBalance_accountNotFound_throwsException() {
+        // Setup
+        when(operationRepository.findLastOperationAtOrBefore(eq(999L), any())).thenReturn(Optional.empty());
+        when(accountRepository.findBalanceById(999L)).thenReturn(Optional.empty());
+
+        // Test & Assert
+        assertThrows(NoSuchAccountException.class, () -> snapshotService.recoverBalance(999L));
+    }
+
+    @Test
+    void testTakeSnapshots_onlyConsidersOperationsOlderThanLag() {
+        // Setup
+        when(snapshotRepository.refreshSnapshots(any(), any())).thenReturn(3);
+
+        // Test
+        int updated = snapshotService.takeSnapshots();
+
+        // Assert
+        assertEquals(3, updated);
+        ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> takenAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(snapshotRepository).refreshSnapshots(before.capture(), takenAt.capture());
+        assertEquals(takenAt.getValue().minusSeconds(60), before.getValue());
+    }
+
+    private static BalanceSnapshot snapshot(Long accountId, long balance, Long lastOperationId) {
+        return BalanceSnapshot.builder()
+                .accountId(accountId)
+                .balance(balance)
+                .lastOperationId(lastOperationId)
+                .takenAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static Operation operation(OperationType type, long amount, long postOperationBalance) {
+        return Operation.builder()
+                .operationType(type)
+                .amount(amount)
+                .PostOperationBalance(postOperationBalance)
+                .build();
+    }
+}
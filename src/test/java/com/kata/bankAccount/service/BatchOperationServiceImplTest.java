@@ -0,0 +1,140 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.BatchProperties;
+import com.kata.bankAccount.dto.BatchOperationItemDTO;
+import com.kata.bankAccount.dto.BatchOperationRequestDTO;
+import com.kata.bankAccount.dto.BatchOperationResultDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.exception.InvalidBatchException;
+import com.kata.bankAccount.model.Account;
+import com.kata.bankAccount.model.Operation;
+import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.OperationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchOperationServiceImplTest {
+
+    @InjectMocks
+    private BatchOperationServiceImpl batchOperationService;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private OperationRepository operationRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private BatchProperties batchProperties = new BatchProperties();
+
+    @Mock
+    private AccountBalanceCache balanceCache;
+
+    @Mock
+    private OperationSummaryService operationSummaryService;
+
+    @Captor
+    private ArgumentCaptor<List<Operation>> operationsCaptor;
+
+    private Account account1;
+    private Account account2;
+
+    @BeforeEach
+    void setup() {
+        account1 = Account.builder()
+                .id(1L)
+                .balance(100_000L) // In minor units
+                .build();
+        account2 = Account.builder()
+                .id(2L)
+                .balance(10_000L)
+                .build();
+    }
+
+    @Test
+    void testProcessBatch_mixedOperations_reportsEachOutcome() {
+        // Setup
+        BatchOperationRequestDTO request = new BatchOperationRequestDTO(List.of(
+                new BatchOperationItemDTO(1L, OperationType.DEPOSIT, 500.0),
+                new BatchOperationItemDTO(2L, OperationType.WITHDRAWAL, 150.0),
+                new BatchOperationItemDTO(2L, OperationType.WITHDRAWAL, 60.0),
+                new BatchOperationItemDTO(999L, OperationType.DEPOSIT, 10.0),
+                new BatchOperationItemDTO(1L, OperationType.DEPOSIT, -5.0)));
+        when(accountRepository.findAllByIdForUpdate(List.of(1L, 2L, 999L))).thenReturn(List.of(account1, account2));
+
+        // Test
+        BatchOperationResultDTO result = batchOperationService.processBatch(request);
+
+        // Assert
+        assertEquals(2, result.getSucceeded());
+        assertEquals(3, result.getFailed());
+        assertEquals(1500.0, result.getResults().get(0).getBalance());
+        assertEquals("Insufficient funds.", result.getResults().get(1).getError());
+        assertEquals(40.0, result.getResults().get(2).getBalance());
+        assertEquals("No such account with ID: 999", result.getResults().get(3).getError());
+        assertEquals("Amount must be positive.", result.getResults().get(4).getError());
+        assertEquals(150_000L, account1.getBalance());
+        assertEquals(4_000L, account2.getBalance());
+        verify(operationRepository, times(1)).saveAll(operationsCaptor.capture());
+        assertEquals(2, operationsCaptor.getValue().size()); // Only the successful operations are written
+    }
+
+    @Test
+    void testProcessBatch_nullOperation_reportsItAsInvalid() {
+        // Setup: a JSON null in the operations array
+        BatchOperationRequestDTO request = new BatchOperationRequestDTO(Arrays.asList(
+                new BatchOperationItemDTO(1L, OperationType.DEPOSIT, 500.0),
+                null));
+        when(accountRepository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(account1));
+
+        // Test
+        BatchOperationResultDTO result = batchOperationService.processBatch(request);
+
+        // Assert
+        assertEquals(1, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getResults().get(1).getIndex());
+        assertNull(result.getResults().get(1).getAccountId());
+        assertEquals("Operation must not be null.", result.getResults().get(1).getError());
+        assertEquals(150_000L, account1.getBalance());
+    }
+
+    @Test
+    void testProcessBatch_emptyBatch_throwsException() {
+        // Test & Assert
+        assertThrows(InvalidBatchException.class,
+                () -> batchOperationService.processBatch(new BatchOperationRequestDTO(List.of())));
+        verify(accountRepository, never()).findAllByIdForUpdate(any());
+    }
+
+    @Test
+    void testProcessBatch_tooManyOperations_throwsException() {
+        // Setup
+        batchProperties.setMaxOperations(1);
+        BatchOperationRequestDTO request = new BatchOperationRequestDTO(List.of(
+                new BatchOperationItemDTO(1L, OperationType.DEPOSIT, 500.0),
+                new BatchOperationItemDTO(2L, OperationType.DEPOSIT, 500.0)));
+
+        // Test & Assert
+        assertThrows(InvalidBatchException.class, () -> batchOperationService.processBatch(request));
+        verify(operationRepository, never()).saveAll(any());
+    }
+}
@@ -0,0 +1,48 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.JfrProperties;
+import com.kata.bankAccount.dto.RecordingDTO;
+import com.kata.bankAccount.exception.RecordingInProgressException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderServiceTest {
+
+    @TempDir
+    private Path directory;
+
+    private FlightRecorderService flightRecorderService;
+
+    @AfterEach
+    void tearDown() {
+        flightRecorderService.stopRecording();
+    }
+
+    @Test
+    void testStartRecording_durationCappedAndDumpedOnStop() {
+        // Setup
+        JfrProperties jfrProperties = new JfrProperties();
+        jfrProperties.setDirectory(directory.toString());
+        jfrProperties.setSettings("default");
+        jfrProperties.setMaxDurationSeconds(5);
+        flightRecorderService = new FlightRecorderService(jfrProperties);
+
+        // Test
+        RecordingDTO recording = flightRecorderService.startRecording(3600);
+
+        // Assert
+        assertEquals(5, recording.getDurationSeconds());
+        assertTrue(recording.getFile().startsWith(directory.toAbsolutePath().toString()));
+        assertThrows(RecordingInProgressException.class, () -> flightRecorderService.startRecording(1));
+
+        // Stopping the recording dumps it to its file
+        flightRecorderService.stopRecording();
+        assertTrue(Files.exists(Path.of(recording.getFile())));
+    }
+}
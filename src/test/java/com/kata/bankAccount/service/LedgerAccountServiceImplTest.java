@@ -0,0 +1,58 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.exception.InvalideAmountException;
+import com.kata.bankAccount.metrics.BankMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerAccountServiceImplTest {
+
+    @InjectMocks
+    private LedgerAccountServiceImpl accountService;
+
+    @Mock
+    private LedgerEngine ledgerEngine;
+
+    @Spy
+    private BankMetrics bankMetrics = new BankMetrics(new SimpleMeterRegistry());
+
+    @Test
+    void testDeposit_success() {
+        // Setup
+        when(ledgerEngine.apply(1L, OperationType.DEPOSIT, 20_000L)).thenReturn(new AccountDTO(1L, 1200.0));
+
+        // Test
+        AccountDTO updatedAccount = accountService.deposit(1L, 200.0);
+
+        // Assert
+        assertEquals(1200.0, updatedAccount.getBalance());
+    }
+
+    @Test
+    void testWithdraw_invalidAmount_throwsException() {
+        // Test & Assert
+        assertThrows(InvalideAmountException.class, () -> accountService.withdraw(1L, -10.0));
+        verify(ledgerEngine, never()).apply(any(), any(), anyLong());
+    }
+
+    @Test
+    void testGetAccountStatement_success() {
+        // Setup
+        when(ledgerEngine.getAccount(1L)).thenReturn(new AccountDTO(1L, 1000.0));
+
+        // Test & Assert
+        assertEquals(1000.0, accountService.getAccountStatement(1L).getBalance());
+    }
+}
@@ -0,0 +1,80 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.BatchProperties;
+import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.dto.BatchOperationItemDTO;
+import com.kata.bankAccount.dto.BatchOperationRequestDTO;
+import com.kata.bankAccount.dto.BatchOperationResultDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.exception.BalanceNotSufficientException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerBatchOperationServiceImplTest {
+
+    @InjectMocks
+    private LedgerBatchOperationServiceImpl batchOperationService;
+
+    @Mock
+    private LedgerEngine ledgerEngine;
+
+    @Spy
+    private BatchProperties batchProperties = new BatchProperties();
+
+    @Test
+    void testProcessBatch_mixedOperations_reportsEachOutcome() {
+        // Setup
+        BatchOperationRequestDTO request = new BatchOperationRequestDTO(List.of(
+                new BatchOperationItemDTO(1L, OperationType.DEPOSIT, 500.0),
+                new BatchOperationItemDTO(2L, OperationType.WITHDRAWAL, 150.0),
+                new BatchOperationItemDTO(1L, OperationType.DEPOSIT, -5.0)));
+        when(ledgerEngine.apply(1L, OperationType.DEPOSIT, 50_000L)).thenReturn(new AccountDTO(1L, 1500.0));
+        when(ledgerEngine.apply(2L, OperationType.WITHDRAWAL, 15_000L))
+                .thenThrow(new BalanceNotSufficientException("Insufficient funds."));
+
+        // Test
+        BatchOperationResultDTO result = batchOperationService.processBatch(request);
+
+        // Assert
+        assertEquals(1, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertEquals(1500.0, result.getResults().get(0).getBalance());
+        assertEquals("Insufficient funds.", result.getResults().get(1).getError());
+        assertEquals("Amount must be positive.", result.getResults().get(2).getError());
+    }
+
+    @Test
+    void testProcessBatch_nullOperationOrAccountId_reportsThemAsInvalid() {
+        // Setup: a JSON null in the operations array, and an operation without account ID
+        BatchOperationRequestDTO request = new BatchOperationRequestDTO(Arrays.asList(
+                null,
+                new BatchOperationItemDTO(null, OperationType.DEPOSIT, 500.0),
+                new BatchOperationItemDTO(1L, OperationType.DEPOSIT, 500.0)));
+        when(ledgerEngine.apply(1L, OperationType.DEPOSIT, 50_000L)).thenReturn(new AccountDTO(1L, 1500.0));
+
+        // Test
+        BatchOperationResultDTO result = batchOperationService.processBatch(request);
+
+        // Assert
+        assertEquals(1, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertNull(result.getResults().get(0).getAccountId());
+        assertEquals("Operation must not be null.", result.getResults().get(0).getError());
+        assertEquals("No such account with ID: null", result.getResults().get(1).getError());
+        assertEquals(1500.0, result.getResults().get(2).getBalance());
+        verify(ledgerEngine, never()).apply(isNull(), any(), anyLong());
+    }
+}
@@ -0,0 +1,420 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.LedgerProperties;
+import com.kata.bankAccount.config.SnapshotProperties;
+import com.kata.bankAccount.dto.TransferResultDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.exception.AccountFencedException;
+import com.kata.bankAccount.exception.BalanceNotSufficientException;
+import com.kata.bankAccount.exception.NoSuchAccountException;
+import com.kata.bankAccount.metrics.BankMetrics;
+import com.kata.bankAccount.model.Account;
+import com.kata.bankAccount.model.Operation;
+import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.BalanceSnapshotRepository;
+import com.kata.bankAccount.repository.OperationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerEngineTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private OperationRepository operationRepository;
+
+    @Mock
+    private BalanceSnapshotRepository snapshotRepository;
+
+    @Mock
+    private OperationSummaryService operationSummaryService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LedgerProperties ledgerProperties;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BankMetrics bankMetrics = new BankMetrics(meterRegistry);
+    private BalanceSnapshotService snapshotService;
+    private LedgerEngine ledgerEngine;
+
+    // Operations "persisted" by the flushes, in insertion order
+    private final List<Operation> persistedOperations = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        ledgerProperties = new LedgerProperties();
+        ledgerProperties.setShards(4);
+        ledgerProperties.setFlushIntervalMs(3_600_000); // Flushes are triggered explicitly by the tests
+        ledgerProperties.setFencedRetryIntervalMs(0); // Fenced accounts are retried by every flush
+        SnapshotProperties snapshotProperties = new SnapshotProperties();
+        snapshotProperties.setIntervalMs(0); // No snapshot: balances are recovered from the last operation
+        snapshotService = new BalanceSnapshotService(snapshotRepository, operationRepository, accountRepository,
+                transactionManager, snapshotProperties, bankMetrics);
+        ledgerEngine = new LedgerEngine(accountRepository, operationRepository, snapshotService,
+                operationSummaryService, transactionManager, ledgerProperties, bankMetrics);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ledgerEngine.shutdown();
+    }
+
+    @Test
+    void testApply_depositAndWithdraw_updatesInMemoryBalance() {
+        // Setup
+        when(operationRepository.findLastOperationAtOrBefore(eq(1L), any())).thenReturn(Optional.empty());
+        when(accountRepository.findBalanceById(1L)).thenReturn(Optional.of(100_000L));
+
+        // Test
+        assertEquals(1200.0, ledgerEngine.apply(1L, OperationType.DEPOSIT, 20_000L).getBalance());
+        assertEquals(700.0, ledgerEngine.apply(1L, OperationType.WITHDRAWAL, 50_000L).getBalance());
+
+        // Assert
+        assertEquals(700.0, ledgerEngine.getAccount(1L).getBalance());
+        verify(accountRepository, times(1)).findBalanceById(1L); // Recovered once, then served from memory
+        verify(operationRepository, never()).saveAll(anyIterable()); // Nothing persisted before the flush
+    }
+
+    @Test
+    void testApply_insufficientBalance_throwsException() {
+        // Setup
+        when(operationRepository.findLastOperationAtOrBefore(eq(1L), any())).thenReturn(Optional.empty());
+        when(accountRepository.findBalanceById(1L)).thenReturn(Optional.of(10_000L));
+
+        // Test & Assert
+        assertThrows(BalanceNotSufficientException.class,
+                () -> ledgerEngine.apply(1L, OperationType.WITHDRAWAL, 50_000L));
+        assertEquals(100.0, ledgerEngine.getAccount(1L).getBalance());
+        ledgerEngine.flush();
+        verify(operationRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    void testApply_accountNotFound_throwsException() {
+        // Setup
+        when(operationRepository.findLastOperationAtOrBefore(eq(999L), any())).thenReturn(Optional.empty());
+        when(accountRepository.findBalanceById(999L)).thenReturn(Optional.empty());
+
+        // Test & Assert
+        assertThrows(NoSuchAccountException.class, () -> ledgerEngine.apply(999L, OperationType.DEPOSIT, 10_000L));
+    }
+
+    @Test
+    void testTransfer_movesAmountAndPersistsLinkedOperations() {
+        // Setup
+        simulateDatabase();
+        when(accountRepository.findBalanceById(1L)).thenReturn(Optional.of(100_000L));
+        when(accountRepository.findBalanceById(2L)).thenReturn(Optional.of(5_000L));
+
+        // Test
+        TransferResultDTO result = ledgerEngine.transfer(1L, 2L, 20_000L);
+        ledgerEngine.flush();
+
+        // Assert
+        assertEquals(800.0, result.getFromAccount().getBalance());
+        assertEquals(250.0, result.getToAccount().getBalance());
+        assertEquals(2, persistedOperations.size());
+        assertEquals(OperationType.TRANSFER_OUT, persistedOperations.get(0).getOperationType());
+        assertEquals(OperationType.TRANSFER_IN, persistedOperations.get(1).getOperationType());
+        assertEquals(result.getTransferReference(), persistedOperations.get(0).getTransferReference());
+        assertEquals(result.getTransferReference(), persistedOperations.get(1).getTransferReference());
+    }
+
+    @Test
+    void testTransfer_unknownTarget_debitsNothing() {
+        // Setup
+        when(operationRepository.findLastOperationAtOrBefore(anyLong(), any())).thenReturn(Optional.empty());
+        when(accountRepository.findBalanceById(1L)).thenReturn(Optional.of(100_000L));
+        when(accountRepository.findBalanceById(999L)).thenReturn(Optional.empty());
+
+        // Test & Assert
+        assertThrows(NoSuchAccountException.class, () -> ledgerEngine.transfer(1L, 999L, 20_000L));
+        assertEquals(1000.0, ledgerEngine.getAccount(1L).getBalance());
+    }
+
+    @Test
+    void testFlush_persistsOperationsAndLastBalances() {
+        // Setup
+        simulateDatabase();
+        when(accountRepository.findBalanceById(1L)).thenReturn(Optional.of(100_000L));
+        when(accountRepository.findBalanceById(2L)).thenReturn(Optional.of(5_000L));
+        ledgerEngine.apply(1L, OperationType.DEPOSIT, 20_000L);
+        ledgerEngine.apply(2L, OperationType.DEPOSIT, 2_500L);
+        ledgerEngine.apply(1L, OperationType.WITHDRAWAL, 10_000L);
+
+        // Test
+        ledgerEngine.flush();
+
+        // Assert
+        assertEquals(3, persistedOperations.size());
+        assertEquals(120_000L, persistedOperations.get(0).getPostOperationBalance());
+        assertEquals(110_000L, persistedOperations.get(2).getPostOperationBalance());
+        verify(accountRepository, times(1)).updateBalance(1L, 110_000L);
+        verify(accountRepository, times(1)).updateBalance(2L, 7_500L);
+    }
+
+    @Test
+    void testFlush_unpersistableOperation_fencesItsAccountAfterMaxAttempts() {
+        // Setup: account 2 was deleted underneath the ledger, so any batch holding one of its operations fails
+        simulateDatabase();
+        AtomicBoolean account2Deleted = new AtomicBoolean(true);
+        when(operationRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            List<Operation> operations = invocation.getArgument(0);
+            if (account2Deleted.get() && operations.stream().anyMatch(operation -> operation.getAccount().getId() == 2L)) {
+                throw new DataIntegrityViolationException("Referential integrity constraint violation");
+            }
+            persistedOperations.addAll(operations);
+            return operations;
+        });
+        when(accountRepository.findBalanceById(1L)).thenReturn(Optional.of(100_000L));
+        when(accountRepository.findBalanceById(2L)).thenReturn(Optional.of(5_000L));
+        ledgerEngine.apply(1L, OperationType.DEPOSIT, 20_000L);
+        ledgerEngine.apply(2L, OperationType.DEPOSIT, 2_500L);
+        ledgerEngine.apply(1L, OperationType.WITHDRAWAL, 10_000L);
+
+        // Test: the batch is retried as a whole until the last attempt
+        for (int attempt = 1; attempt < ledgerProperties.getFlushMaxAttempts(); attempt++) {
+            assertThrows(DataIntegrityViolationException.class, () -> ledgerEngine.flush());
+        }
+        ledgerEngine.flush();
+
+        // Assert: the operations of account 1 are persisted in order, account 2 is fenced with its operation pending
+        assertEquals(List.of(120_000L, 110_000L),
+                persistedOperations.stream().map(Operation::getPostOperationBalance).toList());
+        verify(accountRepository, never()).updateBalance(eq(2L), anyLong());
+        assertThrows(AccountFencedException.class, () -> ledgerEngine.apply(2L, OperationType.DEPOSIT, 1_000L));
+        assertThrows(AccountFencedException.class, () -> ledgerEngine.transfer(1L, 2L, 1_000L));
+        assertEquals(1100.0, ledgerEngine.getAccount(1L).getBalance()); // Nothing debited by the rejected transfer
+        assertEquals(75.0, ledgerEngine.getAccount(2L).getBalance()); // The acknowledged deposit is kept
+        ledgerEngine.apply(1L, OperationType.DEPOSIT, 1_000L);
+        ledgerEngine.flush(); // The other accounts are no longer blocked
+        assertEquals(3, persistedOperations.size());
+        assertEquals(1.0, meterRegistry.get("bankaccount.ledger.fenced.accounts").gauge().value());
+
+        // Test: the cause is fixed, and the next retry persists the pending operation
+        account2Deleted.set(false);
+        ledgerEngine.flush();
+
+        // Assert
+        assertEquals(4, persistedOperations.size());
+        assertEquals(7_500L, persistedOperations.get(3).getPostOperationBalance());
+        verify(accountRepository).updateBalance(2L, 7_500L);
+        assertEquals(0.0, meterRegistry.get("bankaccount.ledger.fenced.accounts").gauge().value());
+        assertEquals(85.0, ledgerEngine.apply(2L, OperationType.DEPOSIT, 1_000L).getBalance());
+    }
+
+    @Test
+    void testRecovery_afterCrash_rebuildsBalancesFromPersistedOperations() throws InterruptedException {
+        // Setup
+        simulateDatabase();
+        when(accountRepository.findBalanceById(1L)).thenReturn(Optional.of(100_000L));
+        when(accountRepository.findBalanceById(2L)).thenReturn(Optional.of(5_000L));
+        ledgerEngine.apply(1L, OperationType.DEPOSIT, 20_000L);
+        ledgerEngine.apply(2L, OperationType.WITHDRAWAL, 2_000L);
+        ledgerEngine.apply(1L, OperationType.WITHDRAWAL, 30_000L);
+        ledgerEngine.flush();
+
+        // Test: the process crashes and a new engine starts with empty memory
+        LedgerEngine restartedEngine = new LedgerEngine(accountRepository, operationRepository,
+                snapshotService, operationSummaryService, transactionManager, ledgerProperties, bankMetrics);
+
+        // Assert
+        try {
+            assertEquals(90_000L, restartedEngine.recoverBalance(1L));
+            assertEquals(900.0, restartedEngine.getAccount(1L).getBalance());
+            assertEquals(30.0, restartedEngine.getAccount(2L).getBalance());
+            assertEquals(870.0, restartedEngine.apply(1L, OperationType.WITHDRAWAL, 3_000L).getBalance());
+        } finally {
+            restartedEngine.shutdown();
+        }
+    }
+
+    @Test
+    void testRecovery_afterCrash_losesOnlyUnflushedOperations() throws InterruptedException {
+        // Setup
+        simulateDatabase();
+        when(accountRepository.findBalanceById(1L)).thenReturn(Optional.of(100_000L));
+        ledgerEngine.apply(1L, OperationType.DEPOSIT, 20_000L);
+        ledgerEngine.flush();
+        ledgerEngine.apply(1L, OperationType.DEPOSIT, 30_000L); // Acknowledged but never flushed
+
+        // Test: the process crashes before the next flush
+        LedgerEngine restartedEngine = new LedgerEngine(accountRepository, operationRepository,
+                snapshotService, operationSummaryService, transactionManager, ledgerProperties, bankMetrics);
+
+        // Assert
+        try {
+            assertEquals(1200.0, restartedEngine.getAccount(1L).getBalance());
+        } finally {
+            restartedEngine.shutdown();
+        }
+    }
+
+    @Test
+    void testRecovery_withJournal_replaysAcknowledgedButUnflushedOperations(@TempDir Path journalDirectory)
+            throws InterruptedException {
+        // Setup
+        simulateDatabase();
+        when(accountRepository.findBalanceById(1L)).thenReturn(Optional.of(100_000L));
+        ledgerProperties.getJournal().setEnabled(true);
+        ledgerProperties.getJournal().setDirectory(journalDirectory.toString());
+        LedgerEngine journaledEngine = new LedgerEngine(accountRepository, operationRepository,
+                snapshotService, operationSummaryService, transactionManager, ledgerProperties, bankMetrics);
+        journaledEngine.apply(1L, OperationType.DEPOSIT, 20_000L); // Durable in the journal, never flushed
+
+        // Test: the process crashes before the next flush
+        LedgerEngine restartedEngine = new LedgerEngine(accountRepository, operationRepository,
+                snapshotService, operationSummaryService, transactionManager, ledgerProperties, bankMetrics);
+
+        // Assert
+        try {
+            assertEquals(1, persistedOperations.size()); // Persisted by the replay, before any request
+            assertEquals(1L, persistedOperations.get(0).getJournalSequence());
+            assertEquals(1200.0, restartedEngine.getAccount(1L).getBalance());
+        } finally {
+            restartedEngine.shutdown();
+            journaledEngine.shutdown();
+        }
+    }
+
+    @Test
+    void testRecovery_withEmptyJournal_continuesAfterPersistedSequence(@TempDir Path journalDirectory)
+            throws InterruptedException {
+        // Setup: the database holds operations up to sequence 7, but the journal directory was wiped
+        simulateDatabase();
+        when(operationRepository.findMaxJournalSequence()).thenReturn(Optional.of(7L));
+        when(accountRepository.findBalanceById(1L)).thenReturn(Optional.of(100_000L));
+        ledgerProperties.getJournal().setEnabled(true);
+        ledgerProperties.getJournal().setDirectory(journalDirectory.toString());
+        LedgerEngine journaledEngine = new LedgerEngine(accountRepository, operationRepository,
+                snapshotService, operationSummaryService, transactionManager, ledgerProperties, bankMetrics);
+        journaledEngine.apply(1L, OperationType.DEPOSIT, 20_000L); // Durable in the journal, never flushed
+
+        // Test: the process crashes before the next flush
+        LedgerEngine restartedEngine = new LedgerEngine(accountRepository, operationRepository,
+                snapshotService, operationSummaryService, transactionManager, ledgerProperties, bankMetrics);
+
+        // Assert: the operation got a sequence after the persisted ones, so it is replayed
+        try {
+            assertEquals(1, persistedOperations.size());
+            assertEquals(8L, persistedOperations.get(0).getJournalSequence());
+        } finally {
+            restartedEngine.shutdown();
+            journaledEngine.shutdown();
+        }
+    }
+
+    @Test
+    void testRecovery_withJournal_replaysPendingOperationsOfFencedAccounts(@TempDir Path journalDirectory)
+            throws InterruptedException {
+        // Setup: the operation of account 2 (sequence 1) cannot be persisted, the one of account 1 (sequence 2) is
+        simulateDatabase();
+        AtomicBoolean account2Deleted = new AtomicBoolean(true);
+        when(operationRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            List<Operation> operations = invocation.getArgument(0);
+            if (account2Deleted.get() && operations.stream().anyMatch(operation -> operation.getAccount().getId() == 2L)) {
+                throw new DataIntegrityViolationException("Referential integrity constraint violation");
+            }
+            persistedOperations.addAll(operations);
+            return operations;
+        });
+        when(accountRepository.findBalanceById(1L)).thenReturn(Optional.of(100_000L));
+        when(accountRepository.findBalanceById(2L)).thenReturn(Optional.of(5_000L));
+        ledgerProperties.setFlushMaxAttempts(1);
+        ledgerProperties.getJournal().setEnabled(true);
+        ledgerProperties.getJournal().setDirectory(journalDirectory.toString());
+        LedgerEngine journaledEngine = new LedgerEngine(accountRepository, operationRepository,
+                snapshotService, operationSummaryService, transactionManager, ledgerProperties, bankMetrics);
+        journaledEngine.apply(2L, OperationType.DEPOSIT, 2_500L);
+        journaledEngine.apply(1L, OperationType.DEPOSIT, 20_000L);
+        journaledEngine.flush();
+        assertEquals(1, persistedOperations.size());
+        when(operationRepository.findMaxJournalSequence()).thenReturn(Optional.of(2L));
+        when(operationRepository.findJournalSequencesBetween(1L, 2L)).thenReturn(List.of(2L));
+
+        // Test: the process stops before the cause is fixed, and restarts once it is
+        account2Deleted.set(false);
+        LedgerEngine restartedEngine = new LedgerEngine(accountRepository, operationRepository,
+                snapshotService, operationSummaryService, transactionManager, ledgerProperties, bankMetrics);
+
+        // Assert: the operation kept for the fenced account is replayed, although a later sequence is persisted
+        try {
+            assertEquals(List.of(2L, 1L), persistedOperations.stream().map(Operation::getJournalSequence).toList());
+            assertEquals(75.0, restartedEngine.getAccount(2L).getBalance());
+        } finally {
+            restartedEngine.shutdown();
+            journaledEngine.shutdown();
+        }
+    }
+
+    @Test
+    void testStart_withJournalBehindDatabase_throwsException(@TempDir Path journalDirectory)
+            throws InterruptedException {
+        // Setup: a journal ending at sequence 1, next to a database that already holds sequence 5
+        simulateDatabase();
+        when(accountRepository.findBalanceById(1L)).thenReturn(Optional.of(100_000L));
+        ledgerProperties.getJournal().setEnabled(true);
+        ledgerProperties.getJournal().setDirectory(journalDirectory.toString());
+        LedgerEngine journaledEngine = new LedgerEngine(accountRepository, operationRepository,
+                snapshotService, operationSummaryService, transactionManager, ledgerProperties, bankMetrics);
+        journaledEngine.apply(1L, OperationType.DEPOSIT, 20_000L);
+        journaledEngine.shutdown();
+        when(operationRepository.findMaxJournalSequence()).thenReturn(Optional.of(5L));
+
+        // Test & Assert
+        assertThrows(IllegalStateException.class, () -> new LedgerEngine(accountRepository, operationRepository,
+                snapshotService, operationSummaryService, transactionManager, ledgerProperties, bankMetrics));
+    }
+
+    @Test
+    void testStart_withJournalWithoutDirectory_throwsException() {
+        // Setup
+        ledgerProperties.getJournal().setEnabled(true);
+
+        // Test & Assert
+        assertThrows(IllegalStateException.class, () -> new LedgerEngine(accountRepository, operationRepository,
+                snapshotService, operationSummaryService, transactionManager, ledgerProperties, bankMetrics));
+        verify(operationRepository, never()).findMaxJournalSequence();
+    }
+
+    /**
+     * Backs the repository mocks with the persistedOperations list, so that recovery reads what the flushes wrote.
+     */
+    private void simulateDatabase() {
+        when(accountRepository.getReferenceById(anyLong()))
+                .thenAnswer(invocation -> Account.builder().id(invocation.getArgument(0)).build());
+        when(operationRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            List<Operation> operations = invocation.getArgument(0);
+            persistedOperations.addAll(operations);
+            return operations;
+        });
+        when(operationRepository.findLastOperationAtOrBefore(anyLong(), any())).thenAnswer(invocation -> {
+            Long accountId = invocation.getArgument(0);
+            return persistedOperations.stream()
+                    .filter(operation -> operation.getAccount().getId().equals(accountId))
+                    .reduce((first, second) -> second);
+        });
+    }
+}
@@ -0,0 +1,148 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.ConcurrencyProperties;
+import com.kata.bankAccount.dto.AccountDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.exception.BalanceNotSufficientException;
+import com.kata.bankAccount.exception.NoSuchAccountException;
+import com.kata.bankAccount.model.Account;
+import com.kata.bankAccount.model.Operation;
+import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.OperationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OperationCoalescerTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private OperationRepository operationRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private AccountBalanceCache balanceCache;
+
+    @Mock
+    private OperationSummaryService operationSummaryService;
+
+    private ConcurrencyProperties concurrencyProperties;
+    private OperationCoalescer operationCoalescer;
+    private ExecutorService callers;
+    private Account account;
+
+    @BeforeEach
+    void setup() {
+        concurrencyProperties = new ConcurrencyProperties();
+        concurrencyProperties.getBatching().setWindowMs(200); // Wide enough for all the callers to join one batch
+        operationCoalescer = new OperationCoalescer(accountRepository, operationRepository, transactionManager,
+                concurrencyProperties, balanceCache, operationSummaryService);
+        callers = Executors.newFixedThreadPool(10);
+        account = Account.builder()
+                .id(1L)
+                .balance(10_000L) // In minor units
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        operationCoalescer.shutdown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testSubmit_concurrentDeposits_areCommittedTogether() {
+        // Setup
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+
+        // Test
+        List<CompletableFuture<AccountDTO>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(CompletableFuture.supplyAsync(
+                    () -> operationCoalescer.submit(1L, OperationType.DEPOSIT, 1_000L), callers));
+        }
+        List<Double> balances = results.stream().map(CompletableFuture::join).map(AccountDTO::getBalance).toList();
+
+        // Assert
+        assertEquals(20_000L, account.getBalance());
+        assertEquals(10, balances.stream().distinct().count()); // Each caller gets its own post-operation balance
+        assertTrue(balances.contains(200.0));
+        verify(accountRepository, times(1)).findByIdForUpdate(1L); // One lock, one transaction
+        ArgumentCaptor<List<Operation>> operationsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(operationRepository, times(1)).saveAll(operationsCaptor.capture());
+        assertEquals(10, operationsCaptor.getValue().size()); // One Operation row per request
+    }
+
+    @Test
+    void testSubmit_withdrawalsBeyondBalance_failIndividually() {
+        // Setup
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+
+        // Test
+        CompletableFuture<AccountDTO> first = CompletableFuture.supplyAsync(
+                () -> operationCoalescer.submit(1L, OperationType.WITHDRAWAL, 6_000L), callers);
+        CompletableFuture<AccountDTO> second = CompletableFuture.supplyAsync(
+                () -> operationCoalescer.submit(1L, OperationType.WITHDRAWAL, 6_000L), callers);
+        List<Throwable> failures = new ArrayList<>();
+        for (CompletableFuture<AccountDTO> result : List.of(first, second)) {
+            try {
+                assertEquals(40.0, result.join().getBalance());
+            } catch (CompletionException ex) {
+                failures.add(ex.getCause());
+            }
+        }
+
+        // Assert
+        assertEquals(1, failures.size());
+        assertInstanceOf(BalanceNotSufficientException.class, failures.getFirst());
+        assertEquals(4_000L, account.getBalance());
+        verify(accountRepository, times(1)).findByIdForUpdate(1L);
+    }
+
+    @Test
+    void testSubmit_fullBatch_isCommittedBeforeEndOfWindow() {
+        // Setup
+        concurrencyProperties.getBatching().setWindowMs(60_000);
+        concurrencyProperties.getBatching().setMaxBatchSize(1);
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(account));
+
+        // Test
+        AccountDTO updatedAccount = operationCoalescer.submit(1L, OperationType.DEPOSIT, 5_000L);
+
+        // Assert
+        assertEquals(150.0, updatedAccount.getBalance());
+    }
+
+    @Test
+    void testSubmit_accountNotFound_throwsException() {
+        // Setup
+        concurrencyProperties.getBatching().setWindowMs(0);
+        when(accountRepository.findByIdForUpdate(999L)).thenReturn(Optional.empty());
+
+        // Test & Assert
+        assertThrows(NoSuchAccountException.class,
+                () -> operationCoalescer.submit(999L, OperationType.DEPOSIT, 5_000L));
+        verify(operationRepository, never()).saveAll(any());
+    }
+}
@@ -1,20 +1,44 @@
 package com.kata.bankAccount.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.kata.bankAccount.config.HistoryProperties;
+import com.kata.bankAccount.dto.BalanceAtDTO;
+import com.kata.bankAccount.dto.BalanceQueryDTO;
 import com.kata.bankAccount.dto.OperationDTO;
+import com.kata.bankAccount.dto.OperationPageDTO;
+import com.kata.bankAccount.enums.ExportFormat;
 import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.exception.InvalidBatchException;
+import com.kata.bankAccount.exception.InvalidPageRequestException;
 import com.kata.bankAccount.exception.NoOperationsForAccountException;
+import com.kata.bankAccount.exception.NoSuchAccountException;
+import com.kata.bankAccount.mapper.AccountMapper;
+import com.kata.bankAccount.mapper.OperationMapper;
+import com.kata.bankAccount.metrics.BankMetrics;
+import com.kata.bankAccount.model.Account;
 import com.kata.bankAccount.model.Operation;
+import com.kata.bankAccount.repository.AccountRepository;
 import com.kata.bankAccount.repository.OperationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,11 +53,30 @@ class OperationServiceImplTest {
     private OperationRepository operationRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private AccountRepository accountRepository;
 
-    private List<Operation> operations;
+    @Spy
+    private HistoryProperties historyProperties = new HistoryProperties();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Spy
+    private OperationMapper operationMapper = new OperationMapper(new AccountMapper());
+
+    @Spy
+    private BankMetrics bankMetrics = new BankMetrics(new SimpleMeterRegistry());
+
+    private List<OperationDTO> operations;
     private OperationDTO operationDTO;
-    private Operation operation;
 
 
     @BeforeEach
@@ -44,21 +87,14 @@ class OperationServiceImplTest {
                 .operationType(OperationType.DEPOSIT)
                 .build();
 
-        operation = Operation.builder()
-                .id(1L)
-                .amount(200.0)
-                .operationType(OperationType.DEPOSIT)
-                .build();
-
-        operations = Arrays.asList(operation);
+        operations = Arrays.asList(operationDTO);
     }
 
     @Test
     void testGetAllAccountOperations_success() {
         // Setup
         Long accountId = 1L;
-        when(operationRepository.findByAccountId(accountId)).thenReturn(operations);
-        when(modelMapper.map(any(Operation.class), eq(OperationDTO.class))).thenReturn(operationDTO);
+        when(operationRepository.findDtosByAccountId(accountId)).thenReturn(operations);
 
         // Test
         List<OperationDTO> result = operationService.getAllAccountOperations(accountId);
@@ -68,33 +104,246 @@ class OperationServiceImplTest {
         assertEquals(1, result.size());
         assertEquals(200.0, result.get(0).getAmount());
         assertEquals(OperationType.DEPOSIT, result.get(0).getOperationType());
-        verify(operationRepository, times(1)).findByAccountId(accountId);
-        verify(modelMapper, times(1)).map(any(Operation.class), eq(OperationDTO.class));
+        verify(operationRepository, times(1)).findDtosByAccountId(accountId);
+        verify(operationRepository, never()).findByAccountId(any());
     }
 
     @Test
     void testGetAllAccountOperations_noOperations_throwsException() {
         // Setup
         Long accountId = 1L;
-        when(operationRepository.findByAccountId(accountId)).thenReturn(Arrays.asList());
+        when(operationRepository.findDtosByAccountId(accountId)).thenReturn(Arrays.asList());
 
         // Test & Assert
         NoOperationsForAccountException exception = assertThrows(NoOperationsForAccountException.class,
                 () -> operationService.getAllAccountOperations(accountId));
         assertEquals("No operations found for account ID: 1", exception.getMessage());
-        verify(operationRepository, times(1)).findByAccountId(accountId);
+        verify(operationRepository, times(1)).findDtosByAccountId(accountId);
     }
 
     @Test
     void testGetAllAccountOperations_accountNotFound_throwsException() {
         // Setup
         Long accountId = 1L;
-        when(operationRepository.findByAccountId(accountId)).thenReturn(null);
+        when(operationRepository.findDtosByAccountId(accountId)).thenReturn(null);
 
         // Test & Assert
         NoOperationsForAccountException exception = assertThrows(NoOperationsForAccountException.class,
                 () -> operationService.getAllAccountOperations(accountId));
         assertEquals("No operations found for account ID: 1", exception.getMessage());
-        verify(operationRepository, times(1)).findByAccountId(accountId);
+        verify(operationRepository, times(1)).findDtosByAccountId(accountId);
+    }
+
+    @Test
+    void testGetHistoryVersion_success() {
+        // Setup
+        when(accountRepository.findVersionById(1L)).thenReturn(Optional.of(5L));
+
+        // Test
+        Long version = operationService.getHistoryVersion(1L);
+
+        // Assert
+        assertEquals(5L, version);
+        verifyNoInteractions(operationRepository); // The history itself is not read
+    }
+
+    @Test
+    void testGetHistoryVersion_accountNotFound_throwsException() {
+        // Setup
+        when(accountRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        // Test & Assert
+        assertThrows(NoSuchAccountException.class, () -> operationService.getHistoryVersion(1L));
+    }
+
+    @Test
+    void testGetAccountOperationsPage_firstPage_returnsCursorOfLastOperation() {
+        // Setup
+        LocalDateTime date = LocalDateTime.of(2024, 1, 15, 10, 30);
+        OperationDTO first = OperationDTO.builder().id(1L).date(date).build();
+        OperationDTO second = OperationDTO.builder().id(2L).date(date).build();
+        OperationDTO extra = OperationDTO.builder().id(3L).date(date.plusDays(1)).build();
+        when(operationRepository.findPageAfter(eq(1L), any(LocalDateTime.class), eq(0L), any(LocalDateTime.class),
+                isNull(), eq(PageRequest.of(0, 3)))).thenReturn(Arrays.asList(first, second, extra));
+
+        // Test
+        OperationPageDTO page = operationService.getAccountOperationsPage(1L, null, 2, null, null, null);
+
+        // Assert
+        assertEquals(List.of(first, second), page.getContent());
+        assertNotNull(page.getNextCursor());
+
+        // The cursor resumes right after the last operation of the page
+        when(operationRepository.findPageAfter(1L, date, 2L, LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+                null, PageRequest.of(0, 3))).thenReturn(List.of(extra));
+        OperationPageDTO nextPage = operationService.getAccountOperationsPage(1L, page.getNextCursor(), 2, null, null, null);
+        assertEquals(1, nextPage.getContent().size());
+        assertNull(nextPage.getNextCursor());
+    }
+
+    @Test
+    void testGetAccountOperationsPage_withFilters_startsAtFromDate() {
+        // Setup
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        when(operationRepository.findPageAfter(1L, from, 0L, to, OperationType.WITHDRAWAL, PageRequest.of(0, 51)))
+                .thenReturn(List.of());
+
+        // Test
+        OperationPageDTO page = operationService.getAccountOperationsPage(1L, null, null, from, to, OperationType.WITHDRAWAL);
+
+        // Assert
+        assertTrue(page.getContent().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetAccountOperationsPage_sizeAboveMaximum_throwsException() {
+        // Test & Assert
+        assertThrows(InvalidPageRequestException.class,
+                () -> operationService.getAccountOperationsPage(1L, null, 501, null, null, null));
+        verifyNoInteractions(operationRepository);
+    }
+
+    @Test
+    void testGetAccountOperationsPage_invalidCursor_throwsException() {
+        // Test & Assert
+        assertThrows(InvalidPageRequestException.class,
+                () -> operationService.getAccountOperationsPage(1L, "not-a-cursor", 10, null, null, null));
+        verifyNoInteractions(operationRepository);
+    }
+
+    @Test
+    void testExportOperations_ndjson_writesOneLinePerOperationAndDetachesIt() {
+        // Setup
+        Account account = Account.builder().id(7L).build();
+        Operation deposit = Operation.builder().id(1L).account(account).operationType(OperationType.DEPOSIT)
+                .amount(20_000L).PostOperationBalance(20_000L).date(LocalDateTime.of(2024, 1, 15, 10, 30)).build();
+        Operation withdrawal = Operation.builder().id(2L).account(account).operationType(OperationType.WITHDRAWAL)
+                .amount(5_000L).PostOperationBalance(15_000L).date(LocalDateTime.of(2024, 1, 16, 10, 30)).build();
+        when(operationRepository.streamByAccountId(7L)).thenReturn(Stream.of(deposit, withdrawal));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Test
+        operationService.exportOperations(7L, ExportFormat.NDJSON, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"id\":1,\"accountId\":7,\"date\":\"2024-01-15T10:30:00\",\"operationType\":\"DEPOSIT\","
+                + "\"amount\":200.0,\"postOperationBalance\":200.0}", lines[0]);
+        assertTrue(lines[1].startsWith("{\"id\":2,\"accountId\":7,"));
+        verify(entityManager).detach(deposit);
+        verify(entityManager).detach(withdrawal);
+    }
+
+    @Test
+    void testExportOperations_csvForAllAccounts_writesHeaderAndRows() {
+        // Setup
+        Operation deposit = Operation.builder().id(1L).account(Account.builder().id(3L).build())
+                .operationType(OperationType.DEPOSIT).amount(20_000L).PostOperationBalance(20_000L)
+                .date(LocalDateTime.of(2024, 1, 15, 10, 30)).build();
+        when(operationRepository.streamAll()).thenReturn(Stream.of(deposit));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Test
+        operationService.exportOperations(null, ExportFormat.CSV, out);
+
+        // Assert
+        assertEquals("id,accountId,date,operationType,amount,postOperationBalance\n"
+                + "1,3,2024-01-15T10:30,DEPOSIT,200.0,200.0\n", out.toString(StandardCharsets.UTF_8));
+        verify(operationRepository, never()).streamByAccountId(any());
+    }
+
+    @Test
+    void testGetBalanceAt_readsPostOperationBalanceOfLastOperation() {
+        // Setup
+        LocalDateTime at = LocalDateTime.of(2024, 1, 15, 12, 0);
+        Operation withdrawal = Operation.builder().id(9L).operationType(OperationType.WITHDRAWAL)
+                .amount(5_000L).PostOperationBalance(15_000L).date(at.minusHours(1)).build();
+        when(operationRepository.findLastOperationAtOrBefore(7L, at))
+                .thenReturn(Optional.of(withdrawal));
+
+        // Test
+        BalanceAtDTO result = operationService.getBalanceAt(7L, at);
+
+        // Assert
+        assertEquals(150.0, result.getBalance());
+        assertEquals(9L, result.getOperationId());
+        assertEquals(at, result.getAt());
+        verify(operationRepository, never()).findFirstOperationFrom(any(), any());
+        verify(accountRepository, never()).findBalanceById(any());
+    }
+
+    @Test
+    void testGetBalanceAt_beforeFirstOperation_returnsOpeningBalance() {
+        // Setup
+        LocalDateTime at = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Operation firstDeposit = Operation.builder().id(1L).operationType(OperationType.DEPOSIT)
+                .amount(20_000L).PostOperationBalance(120_000L).date(at.plusDays(3)).build();
+        when(operationRepository.findLastOperationAtOrBefore(7L, at))
+                .thenReturn(Optional.empty());
+        when(operationRepository.findFirstOperationFrom(7L, at)).thenReturn(Optional.of(firstDeposit));
+
+        // Test
+        BalanceAtDTO result = operationService.getBalanceAt(7L, at);
+
+        // Assert
+        assertEquals(1000.0, result.getBalance());
+        assertNull(result.getOperationId());
+    }
+
+    @Test
+    void testGetBalanceAt_unknownAccount_throwsException() {
+        // Setup
+        LocalDateTime at = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(operationRepository.findLastOperationAtOrBefore(99L, at))
+                .thenReturn(Optional.empty());
+        when(operationRepository.findFirstOperationFrom(99L, at)).thenReturn(Optional.empty());
+        when(accountRepository.findBalanceById(99L)).thenReturn(Optional.empty());
+
+        // Test & Assert
+        NoSuchAccountException exception = assertThrows(NoSuchAccountException.class,
+                () -> operationService.getBalanceAt(99L, at));
+        assertEquals("No such account with ID: 99", exception.getMessage());
+    }
+
+    @Test
+    void testGetBalancesAt_reportsEachPairInRequestOrder() {
+        // Setup
+        LocalDateTime at = LocalDateTime.of(2024, 1, 15, 12, 0);
+        Operation deposit = Operation.builder().id(4L).operationType(OperationType.DEPOSIT)
+                .amount(1_000L).PostOperationBalance(51_000L).date(at).build();
+        when(operationRepository.findLastOperationAtOrBefore(1L, at))
+                .thenReturn(Optional.of(deposit));
+        when(operationRepository.findLastOperationAtOrBefore(99L, at))
+                .thenReturn(Optional.empty());
+        when(operationRepository.findFirstOperationFrom(99L, at)).thenReturn(Optional.empty());
+        when(accountRepository.findBalanceById(99L)).thenReturn(Optional.empty());
+
+        // Test
+        List<BalanceAtDTO> results = operationService.getBalancesAt(List.of(
+                new BalanceQueryDTO(1L, at), new BalanceQueryDTO(99L, at), new BalanceQueryDTO(1L, null)));
+
+        // Assert
+        assertEquals(3, results.size());
+        assertEquals(510.0, results.get(0).getBalance());
+        assertNull(results.get(0).getError());
+        assertEquals("No such account with ID: 99", results.get(1).getError());
+        assertNull(results.get(1).getBalance());
+        assertEquals("Account ID and date are required.", results.get(2).getError());
+    }
+
+    @Test
+    void testGetBalancesAt_tooManyPairs_throwsException() {
+        // Setup
+        historyProperties.setMaxBalanceQueries(1);
+        LocalDateTime at = LocalDateTime.of(2024, 1, 15, 12, 0);
+
+        // Test & Assert
+        assertThrows(InvalidBatchException.class, () -> operationService.getBalancesAt(List.of(
+                new BalanceQueryDTO(1L, at), new BalanceQueryDTO(2L, at))));
+        assertThrows(InvalidBatchException.class, () -> operationService.getBalancesAt(List.of()));
+        verifyNoInteractions(operationRepository);
     }
-}
\ No newline at end of file
+}
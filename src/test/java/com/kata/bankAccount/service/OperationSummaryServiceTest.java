@@ -0,0 +1,106 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.dto.OperationSummaryDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.enums.SummaryGranularity;
+import com.kata.bankAccount.exception.InvalidPageRequestException;
+import com.kata.bankAccount.exception.NoSuchAccountException;
+import com.kata.bankAccount.model.Account;
+import com.kata.bankAccount.model.Operation;
+import com.kata.bankAccount.model.OperationSummary;
+import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.OperationSummaryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OperationSummaryServiceTest {
+
+    @InjectMocks
+    private OperationSummaryService operationSummaryService;
+
+    @Mock
+    private OperationSummaryRepository summaryRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Test
+    void testRecord_totalsOperationsPerDayAndMonthBeforeMerging() {
+        // Setup
+        Account account = Account.builder().id(1L).build();
+        LocalDateTime morning = LocalDateTime.of(2024, 3, 15, 9, 0);
+        List<Operation> operations = List.of(
+                operation(account, OperationType.DEPOSIT, 10_000L, morning),
+                operation(account, OperationType.WITHDRAWAL, 2_500L, morning.plusHours(2)),
+                operation(account, OperationType.TRANSFER_IN, 1_000L, morning.plusDays(1)));
+
+        // Test
+        operationSummaryService.record(operations);
+
+        // Assert
+        verify(summaryRepository).addToSummary(1L, "DAY", LocalDate.of(2024, 3, 15), 10_000L, 2_500L, 2L);
+        verify(summaryRepository).addToSummary(1L, "DAY", LocalDate.of(2024, 3, 16), 1_000L, 0L, 1L);
+        verify(summaryRepository).addToSummary(1L, "MONTH", LocalDate.of(2024, 3, 1), 11_000L, 2_500L, 3L);
+        verifyNoMoreInteractions(summaryRepository);
+    }
+
+    @Test
+    void testGetSummary_month_readsPeriodsFromTheMonthOfFrom() {
+        // Setup
+        OperationSummary march = new OperationSummary(1L, SummaryGranularity.MONTH, LocalDate.of(2024, 3, 1),
+                11_000L, 2_500L, 3L);
+        when(summaryRepository.findPeriods(1L, SummaryGranularity.MONTH, LocalDate.of(2024, 3, 1),
+                LocalDate.of(2024, 5, 1))).thenReturn(List.of(march));
+
+        // Test
+        List<OperationSummaryDTO> result = operationSummaryService.getSummary(1L, "month",
+                LocalDate.of(2024, 3, 15), LocalDate.of(2024, 5, 1));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(LocalDate.of(2024, 3, 1), result.get(0).getPeriodStart());
+        assertEquals(110.0, result.get(0).getTotalCredits());
+        assertEquals(25.0, result.get(0).getTotalDebits());
+        assertEquals(3L, result.get(0).getOperationCount());
+        verify(accountRepository, never()).findVersionById(any());
+    }
+
+    @Test
+    void testGetSummary_unknownAccount_throwsException() {
+        // Setup
+        when(summaryRepository.findPeriods(eq(99L), eq(SummaryGranularity.DAY), any(), any())).thenReturn(List.of());
+        when(accountRepository.findVersionById(99L)).thenReturn(Optional.empty());
+
+        // Test & Assert
+        NoSuchAccountException exception = assertThrows(NoSuchAccountException.class,
+                () -> operationSummaryService.getSummary(99L, "day", null, null));
+        assertEquals("No such account with ID: 99", exception.getMessage());
+    }
+
+    @Test
+    void testGetSummary_invalidRequest_throwsException() {
+        // Test & Assert
+        assertThrows(InvalidPageRequestException.class,
+                () -> operationSummaryService.getSummary(1L, "week", null, null));
+        assertThrows(InvalidPageRequestException.class,
+                () -> operationSummaryService.getSummary(1L, "day", LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 1)));
+        verifyNoInteractions(summaryRepository);
+    }
+
+    private static Operation operation(Account account, OperationType type, long amount, LocalDateTime date) {
+        return Operation.builder().account(account).operationType(type).amount(amount).date(date).build();
+    }
+}
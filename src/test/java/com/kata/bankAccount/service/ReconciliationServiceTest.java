@@ -0,0 +1,135 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.ReconciliationProperties;
+import com.kata.bankAccount.dto.ReconciliationDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.enums.ReconciliationStatus;
+import com.kata.bankAccount.exception.ReconciliationInProgressException;
+import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.OperationRepository;
+import com.kata.bankAccount.repository.ReconciledAccount;
+import com.kata.bankAccount.repository.ReconciledOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReconciliationServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private OperationRepository operationRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path reportDirectory;
+
+    private ReconciliationService reconciliationService;
+
+    @BeforeEach
+    void setup() {
+        ReconciliationProperties reconciliationProperties = new ReconciliationProperties();
+        reconciliationProperties.setDirectory(reportDirectory.toString());
+        reconciliationProperties.setRangeSize(2); // Accounts 1 to 4 are split in two ranges
+        reconciliationProperties.setMaxOperationsPerSecond(0);
+        reconciliationService = new ReconciliationService(accountRepository, operationRepository, transactionManager,
+                reconciliationProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reconciliationService.shutdown();
+    }
+
+    @Test
+    void testReconciliation_reportsChainBreaksAndBalanceMismatches() throws Exception {
+        // Setup
+        when(operationRepository.findMaxIdBefore(any())).thenReturn(Optional.of(10L));
+        when(accountRepository.findMinId()).thenReturn(Optional.of(1L));
+        when(accountRepository.findMaxId()).thenReturn(Optional.of(4L));
+        when(operationRepository.streamForReconciliation(1L, 3L, 10L)).thenReturn(Stream.of(
+                new ReconciledOperation(1L, 1L, OperationType.DEPOSIT, 10_000L, 10_000L),
+                new ReconciledOperation(1L, 2L, OperationType.WITHDRAWAL, 3_000L, 7_000L),
+                new ReconciledOperation(1L, 4L, OperationType.DEPOSIT, 1_000L, 9_000L), // 8_000 expected
+                new ReconciledOperation(2L, 3L, OperationType.DEPOSIT, 5_000L, 5_000L)));
+        when(accountRepository.findReconciledAccounts(1L, 3L)).thenReturn(List.of(
+                new ReconciledAccount(1L, 9_000L, 4L),
+                new ReconciledAccount(2L, 6_000L, 3L))); // 5_000 expected
+        when(operationRepository.streamForReconciliation(3L, 5L, 10L)).thenReturn(Stream.empty());
+        when(accountRepository.findReconciledAccounts(3L, 5L)).thenReturn(List.of(
+                new ReconciledAccount(3L, 2_000L, 99L), // Operations after the last one reconciled
+                new ReconciledAccount(4L, 1_000L, null)));
+
+        // Test
+        reconciliationService.startReconciliation();
+        ReconciliationDTO result = awaitEnd();
+
+        // Assert
+        assertEquals(ReconciliationStatus.COMPLETED, result.getStatus());
+        assertEquals(2, result.getRangesDone());
+        assertEquals(4, result.getOperationsChecked());
+        assertEquals(3, result.getAccountsChecked());
+        assertEquals(1, result.getAccountsSkipped());
+        assertEquals(2, result.getDiscrepancies());
+        assertEquals(100.0, result.getPercentDone());
+        assertNull(result.getEtaSeconds());
+        List<String> report = Files.readAllLines(Path.of(result.getReportFile()));
+        assertEquals("type,accountId,operationId,expected,actual", report.get(0));
+        assertTrue(report.contains("CHAIN_BREAK,1,4,8000,9000"));
+        assertTrue(report.contains("BALANCE_MISMATCH,2,3,5000,6000"));
+    }
+
+    @Test
+    void testStartReconciliation_whileRunning_throwsException() throws Exception {
+        // Setup
+        CountDownLatch release = new CountDownLatch(1);
+        when(operationRepository.findMaxIdBefore(any())).thenReturn(Optional.empty());
+        when(accountRepository.findMinId()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS); // Keeps the first run going
+            return Optional.empty();
+        });
+        reconciliationService.startReconciliation();
+
+        // Test & Assert
+        assertThrows(ReconciliationInProgressException.class, () -> reconciliationService.startReconciliation());
+        release.countDown();
+        assertEquals(ReconciliationStatus.COMPLETED, awaitEnd().getStatus());
+    }
+
+    @Test
+    void testGetReconciliation_neverStarted_isEmpty() {
+        // Test & Assert
+        assertTrue(reconciliationService.getReconciliation().isEmpty());
+    }
+
+    private ReconciliationDTO awaitEnd() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ReconciliationDTO progress = reconciliationService.getReconciliation().orElseThrow();
+        while (progress.getStatus() == ReconciliationStatus.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            progress = reconciliationService.getReconciliation().orElseThrow();
+        }
+        return progress;
+    }
+}
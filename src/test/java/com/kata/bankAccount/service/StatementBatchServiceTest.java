@@ -0,0 +1,166 @@
+package com.kata.bankAccount.service;
+
+import com.kata.bankAccount.config.StatementBatchProperties;
+import com.kata.bankAccount.dto.StatementRunDTO;
+import com.kata.bankAccount.enums.OperationType;
+import com.kata.bankAccount.enums.StatementRunStatus;
+import com.kata.bankAccount.exception.InvalidBatchException;
+import com.kata.bankAccount.model.Operation;
+import com.kata.bankAccount.model.StatementCheckpoint;
+import com.kata.bankAccount.repository.AccountRepository;
+import com.kata.bankAccount.repository.OperationRepository;
+import com.kata.bankAccount.repository.StatementCheckpointRepository;
+import com.kata.bankAccount.repository.StatementLine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatementBatchServiceTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2024, 3);
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 4, 1, 0, 0);
+    private static final String ACCOUNT_1 = "A|1|2024-03|10000\n"
+            + "O|7|2024-03-05T10:00|W|2500|7500\n"
+            + "Z|7500|1\n";
+    private static final String ACCOUNT_2 = "A|2|2024-03|3000\n"
+            + "Z|3000|0\n";
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private OperationRepository operationRepository;
+
+    @Mock
+    private StatementCheckpointRepository checkpointRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path statementDirectory;
+
+    private StatementBatchService statementBatchService;
+
+    @BeforeEach
+    void setup() {
+        StatementBatchProperties statementBatchProperties = new StatementBatchProperties();
+        statementBatchProperties.setDirectory(statementDirectory.toString());
+        statementBatchProperties.setPartitions(1);
+        statementBatchProperties.setChunkSize(1); // One checkpoint per account
+        statementBatchService = new StatementBatchService(accountRepository, operationRepository, checkpointRepository,
+                transactionManager, statementBatchProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statementBatchService.shutdown();
+    }
+
+    @Test
+    void testStartRun_writesStatementsAndCheckpointsEachChunk() throws Exception {
+        // Setup
+        when(checkpointRepository.findByPeriodOrderByPartitionIndex("2024-03")).thenReturn(List.of());
+        when(checkpointRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountRepository.findMinId()).thenReturn(Optional.of(1L));
+        when(accountRepository.findMaxId()).thenReturn(Optional.of(2L));
+        stubAccounts(0L);
+
+        // Test
+        statementBatchService.startRun(MONTH);
+        StatementRunDTO result = awaitEnd();
+
+        // Assert
+        assertEquals(StatementRunStatus.COMPLETED, result.getStatus());
+        assertEquals(2, result.getAccountsDone());
+        assertEquals(1, result.getOperationsWritten());
+        assertEquals(ACCOUNT_1 + ACCOUNT_2, Files.readString(Path.of(result.getFiles().get(0))));
+        verify(checkpointRepository, times(3)).save(any(StatementCheckpoint.class)); // Two chunks, then completion
+    }
+
+    @Test
+    void testStartRun_afterCrash_resumesAfterLastCheckpoint() throws Exception {
+        // Setup: account 1 was checkpointed, then the run crashed while writing account 2
+        Path file = statementDirectory.resolve("statements-2024-03-p0.txt");
+        Files.writeString(file, ACCOUNT_1 + "A|2|2024-03|30");
+        StatementCheckpoint checkpoint = StatementCheckpoint.builder()
+                .period("2024-03").partitionIndex(0).partitionCount(1)
+                .fromAccountId(1L).toAccountId(3L)
+                .lastAccountId(1L).fileOffset(ACCOUNT_1.getBytes(StandardCharsets.UTF_8).length)
+                .accountsDone(1L).operationsWritten(1L)
+                .build();
+        when(checkpointRepository.findByPeriodOrderByPartitionIndex("2024-03")).thenReturn(List.of(checkpoint));
+        stubAccounts(1L);
+
+        // Test
+        StatementRunDTO started = statementBatchService.startRun(MONTH);
+        StatementRunDTO result = awaitEnd();
+
+        // Assert
+        assertEquals(1, started.getAccountsResumed());
+        assertEquals(StatementRunStatus.COMPLETED, result.getStatus());
+        assertEquals(2, result.getAccountsDone());
+        assertEquals(ACCOUNT_1 + ACCOUNT_2, Files.readString(file));
+        assertNotNull(checkpoint.getCompletedAt());
+        verify(accountRepository, never()).findMinId();
+    }
+
+    @Test
+    void testStartRun_monthNotEnded_throwsException() {
+        // Test & Assert
+        assertThrows(InvalidBatchException.class, () -> statementBatchService.startRun(YearMonth.now()));
+        verifyNoInteractions(checkpointRepository);
+    }
+
+    private void stubAccounts(long afterId) {
+        if (afterId < 1L) {
+            when(accountRepository.findIdsAfter(0L, 3L, PageRequest.of(0, 1))).thenReturn(List.of(1L));
+            when(operationRepository.findLastOperationBefore(1L, START))
+                    .thenReturn(Optional.of(Operation.builder().id(5L).operationType(OperationType.DEPOSIT)
+                            .amount(10_000L).PostOperationBalance(10_000L).build()));
+            when(operationRepository.streamStatementLines(1L, START, END)).thenReturn(Stream.of(
+                    new StatementLine(7L, LocalDateTime.of(2024, 3, 5, 10, 0), OperationType.WITHDRAWAL, 2_500L, 7_500L)));
+        }
+        when(accountRepository.findIdsAfter(1L, 3L, PageRequest.of(0, 1))).thenReturn(List.of(2L));
+        when(accountRepository.findIdsAfter(2L, 3L, PageRequest.of(0, 1))).thenReturn(List.of());
+        // Account 2 has no operation at all: its opening balance is its current one
+        when(operationRepository.findLastOperationBefore(2L, START))
+                .thenReturn(Optional.empty());
+        when(operationRepository.findFirstOperationFrom(2L, START)).thenReturn(Optional.empty());
+        when(accountRepository.findBalanceById(2L)).thenReturn(Optional.of(3_000L));
+        when(operationRepository.streamStatementLines(2L, START, END)).thenReturn(Stream.empty());
+    }
+
+    private StatementRunDTO awaitEnd() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        StatementRunDTO progress = statementBatchService.getRun().orElseThrow();
+        while (progress.getStatus() == StatementRunStatus.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            progress = statementBatchService.getRun().orElseThrow();
+        }
+        return progress;
+    }
+}
@@ -0,0 +1,41 @@
+package com.kata.bankAccount.util;
+
+import com.kata.bankAccount.exception.InvalideAmountException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidationUtilsTest {
+
+    @Test
+    void testToMinorUnits_twoDecimals_isExact() {
+        // Test & Assert
+        assertEquals(29L, ValidationUtils.toMinorUnits(0.29)); // 0.29 * 100 is 28.999999999999996 as a double
+        assertEquals(1999L, ValidationUtils.toMinorUnits(19.99));
+        assertEquals(150_000L, ValidationUtils.toMinorUnits(1500.0));
+    }
+
+    @Test
+    void testToMinorUnits_moreThanTwoDecimals_throwsException() {
+        // Test & Assert
+        InvalideAmountException ex = assertThrows(InvalideAmountException.class, () -> ValidationUtils.toMinorUnits(10.005));
+        assertEquals("Amount must have at most 2 decimals.", ex.getMessage());
+    }
+
+    @Test
+    void testToMinorUnits_invalidAmount_throwsException() {
+        // Test & Assert
+        assertThrows(InvalideAmountException.class, () -> ValidationUtils.toMinorUnits(null));
+        assertThrows(InvalideAmountException.class, () -> ValidationUtils.toMinorUnits(0.0));
+        assertThrows(InvalideAmountException.class, () -> ValidationUtils.toMinorUnits(-5.0));
+        assertThrows(InvalideAmountException.class, () -> ValidationUtils.toMinorUnits(Double.NaN));
+        assertThrows(InvalideAmountException.class, () -> ValidationUtils.toMinorUnits(1e300));
+    }
+
+    @Test
+    void testToMajorUnits_roundTrip() {
+        // Test & Assert
+        assertEquals(0.29, ValidationUtils.toMajorUnits(29L));
+        assertEquals(19.99, ValidationUtils.toMajorUnits(ValidationUtils.toMinorUnits(19.99)));
+    }
+}